@@ -0,0 +1,210 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.benchmarks.model.Address;
+import ma.glasnost.orika.benchmarks.model.AddressDto;
+import ma.glasnost.orika.benchmarks.model.Catalog;
+import ma.glasnost.orika.benchmarks.model.CatalogDto;
+import ma.glasnost.orika.benchmarks.model.Category;
+import ma.glasnost.orika.benchmarks.model.CategoryDto;
+import ma.glasnost.orika.benchmarks.model.Customer;
+import ma.glasnost.orika.benchmarks.model.CustomerDto;
+import ma.glasnost.orika.benchmarks.model.Order;
+import ma.glasnost.orika.benchmarks.model.OrderDto;
+import ma.glasnost.orika.benchmarks.model.OrderLine;
+import ma.glasnost.orika.benchmarks.model.OrderLineDto;
+import ma.glasnost.orika.benchmarks.model.Product;
+import ma.glasnost.orika.benchmarks.model.ProductDto;
+import ma.glasnost.orika.benchmarks.model.Samples;
+import ma.glasnost.orika.benchmarks.model.SamplesDto;
+import ma.glasnost.orika.benchmarks.model.Shipment;
+import ma.glasnost.orika.benchmarks.model.ShipmentDto;
+import ma.glasnost.orika.converter.BidirectionalConverter;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * BenchmarkFixtures provides the MapperFactory configuration and the source
+ * objects shared by the benchmarks, so that each benchmark measures the same
+ * mapping cases.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+
+    }
+
+    /**
+     * @return a new MapperFactory with the class-maps and converters for all
+     *         of the benchmark model types registered, but not yet built
+     */
+    public static MapperFactory newMapperFactory() {
+        MapperFactory factory = new DefaultMapperFactory.Builder().build();
+        factory.getConverterFactory().registerConverter(new DateToMillisConverter());
+
+        factory.registerClassMap(factory.classMap(Product.class, ProductDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Address.class, AddressDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Customer.class, CustomerDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(OrderLine.class, OrderLineDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Order.class, OrderDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Catalog.class, CatalogDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Samples.class, SamplesDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Shipment.class, ShipmentDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Category.class, CategoryDto.class).byDefault());
+        return factory;
+    }
+
+    public static Product newProduct(int index) {
+        Product product = new Product();
+        product.setId(index);
+        product.setName("Product " + index);
+        product.setDescription("Description of product " + index);
+        product.setPrice(Double.valueOf(index * 1.25d));
+        product.setAvailability(Boolean.valueOf(index % 2 == 0));
+        product.setStock(index * 3);
+        product.setWeight(index * 0.5d);
+        product.setSku("SKU-" + index);
+        return product;
+    }
+
+    public static List<Product> newProducts(int size) {
+        List<Product> products = new ArrayList<Product>(size);
+        for (int i = 0; i < size; ++i) {
+            products.add(newProduct(i));
+        }
+        return products;
+    }
+
+    public static Address newAddress(int index) {
+        Address address = new Address();
+        address.setStreet(index + " Main Street");
+        address.setCity("City " + index);
+        address.setZipCode(String.valueOf(10000 + index));
+        address.setCountry("Country " + index);
+        return address;
+    }
+
+    /**
+     * @param lineCount
+     *            the number of order lines, each of which holds a product
+     * @return an order with a customer, two addresses, and the specified
+     *         number of order lines
+     */
+    public static Order newOrder(int lineCount) {
+        Customer customer = new Customer();
+        customer.setName("Customer");
+        customer.setBillingAddress(newAddress(1));
+        customer.setShippingAddress(newAddress(2));
+
+        List<OrderLine> lines = new ArrayList<OrderLine>(lineCount);
+        for (int i = 0; i < lineCount; ++i) {
+            OrderLine line = new OrderLine();
+            line.setProduct(newProduct(i));
+            line.setQuantity(i + 1);
+            lines.add(line);
+        }
+
+        Order order = new Order();
+        order.setId(42L);
+        order.setCustomer(customer);
+        order.setLines(lines);
+        return order;
+    }
+
+    public static Catalog newCatalog(int size) {
+        Map<String, Product> productsBySku = new LinkedHashMap<String, Product>();
+        for (Product product : newProducts(size)) {
+            productsBySku.put(product.getSku(), product);
+        }
+        Catalog catalog = new Catalog();
+        catalog.setName("Catalog");
+        catalog.setProductsBySku(productsBySku);
+        return catalog;
+    }
+
+    public static Samples newSamples(int size) {
+        int[] counts = new int[size];
+        long[] timestamps = new long[size];
+        double[] values = new double[size];
+        for (int i = 0; i < size; ++i) {
+            counts[i] = i;
+            timestamps[i] = 1000L * i;
+            values[i] = i / 3d;
+        }
+        Samples samples = new Samples();
+        samples.setCounts(counts);
+        samples.setTimestamps(timestamps);
+        samples.setValues(values);
+        return samples;
+    }
+
+    public static Shipment newShipment() {
+        Shipment shipment = new Shipment();
+        shipment.setTrackingNumber("TRACK-1");
+        shipment.setShipped(new Date(1000000L));
+        shipment.setDelivered(new Date(2000000L));
+        return shipment;
+    }
+
+    /**
+     * @param childCount
+     *            the number of children of the root category, each of which
+     *            refers back to the root as its parent
+     * @return the root of the category tree
+     */
+    public static Category newCategoryTree(int childCount) {
+        Category root = new Category();
+        root.setName("Root");
+        List<Category> children = new ArrayList<Category>(childCount);
+        for (int i = 0; i < childCount; ++i) {
+            Category child = new Category();
+            child.setName("Category " + i);
+            child.setParent(root);
+            children.add(child);
+        }
+        root.setChildren(children);
+        return root;
+    }
+
+    /**
+     * DateToMillisConverter maps between Date and the number of milliseconds
+     * since the epoch, as a Long.
+     */
+    public static class DateToMillisConverter extends BidirectionalConverter<Date, Long> {
+
+        @Override
+        public Long convertTo(Date source, Type<Long> destinationType) {
+            return Long.valueOf(source.getTime());
+        }
+
+        @Override
+        public Date convertFrom(Long source, Type<Date> destinationType) {
+            return new Date(source.longValue());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BenchmarkRunner runs the benchmarks using the standard JMH command-line
+ * options, but writes the results in JSON format by default, so that the
+ * results of different versions can be compared; for example:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                       (all benchmarks)
+ * java -jar target/benchmarks.jar MappingBenchmark -t 1 (selected benchmarks)
+ * java -jar target/benchmarks.jar -rff orika-1.2.1.json (named result file)
+ * </pre>
+ *
+ * The result file defaults to <code>target/jmh-result.json</code>.
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "target" + File.separator + "jmh-result.json";
+
+    private BenchmarkRunner() {
+
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            new File(DEFAULT_RESULT_FILE).getParentFile().mkdirs();
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        Options merged = options.parent(commandLine).build();
+
+        new Runner(merged).run();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.benchmarks.model.OrderDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BuildBenchmark measures the start-up cost of a MapperFactory: registering
+ * the class-maps, building (which generates the mappers) and performing the
+ * first mapping request.<br>
+ * <br>
+ * Each measurement is a single invocation; as no warm-up is performed, the
+ * first iteration of each fork measures a cold start within a fresh JVM,
+ * while the remaining iterations measure the cost of building further
+ * factories within the same JVM.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 10)
+@Fork(5)
+public class BuildBenchmark {
+
+    @Benchmark
+    public OrderDto buildAndMapFirstRequest() {
+        MapperFacade mapper = BenchmarkFixtures.newMapperFactory().getMapperFacade();
+        return mapper.map(BenchmarkFixtures.newOrder(1), OrderDto.class);
+    }
+}
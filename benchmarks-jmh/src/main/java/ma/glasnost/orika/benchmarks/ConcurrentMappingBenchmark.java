@@ -0,0 +1,98 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.benchmarks.model.Order;
+import ma.glasnost.orika.benchmarks.model.OrderDto;
+import ma.glasnost.orika.benchmarks.model.Product;
+import ma.glasnost.orika.benchmarks.model.ProductDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConcurrentMappingBenchmark measures the throughput of a single MapperFacade
+ * shared by several threads, each mapping its own source objects; contention
+ * within the facade (such as within the strategy and converter caches) shows
+ * up as throughput which does not scale with the number of threads.<br>
+ * <br>
+ * The number of threads may be overridden using the JMH <code>-t</code>
+ * option.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+public class ConcurrentMappingBenchmark {
+
+    /**
+     * The facade shared by all of the benchmark threads
+     */
+    @State(Scope.Benchmark)
+    public static class SharedMapper {
+
+        private MapperFacade mapper;
+
+        @Setup
+        public void setUp() {
+            mapper = BenchmarkFixtures.newMapperFactory().getMapperFacade();
+        }
+    }
+
+    /**
+     * The source objects mapped by a single benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class Sources {
+
+        private Product product;
+        private Order order;
+
+        @Setup
+        public void setUp() {
+            product = BenchmarkFixtures.newProduct(1);
+            order = BenchmarkFixtures.newOrder(10);
+        }
+    }
+
+    @Benchmark
+    public ProductDto flatBean(SharedMapper shared, Sources sources) {
+        return shared.mapper.map(sources.product, ProductDto.class);
+    }
+
+    @Benchmark
+    public OrderDto deepGraph(SharedMapper shared, Sources sources) {
+        return shared.mapper.map(sources.order, OrderDto.class);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.benchmarks.model.Catalog;
+import ma.glasnost.orika.benchmarks.model.CatalogDto;
+import ma.glasnost.orika.benchmarks.model.Category;
+import ma.glasnost.orika.benchmarks.model.CategoryDto;
+import ma.glasnost.orika.benchmarks.model.Order;
+import ma.glasnost.orika.benchmarks.model.OrderDto;
+import ma.glasnost.orika.benchmarks.model.Product;
+import ma.glasnost.orika.benchmarks.model.ProductDto;
+import ma.glasnost.orika.benchmarks.model.Samples;
+import ma.glasnost.orika.benchmarks.model.SamplesDto;
+import ma.glasnost.orika.benchmarks.model.Shipment;
+import ma.glasnost.orika.benchmarks.model.ShipmentDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MappingBenchmark measures the steady-state cost of the common mapping cases
+ * using a single, fully built MapperFacade; the <code>size</code> parameter
+ * controls the number of elements of the collections, maps and arrays being
+ * mapped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+    @Param({ "10", "1000" })
+    public int size;
+
+    private MapperFacade mapper;
+    private Product product;
+    private ProductDto productDto;
+    private Order order;
+    private List<Product> products;
+    private Catalog catalog;
+    private Samples samples;
+    private Shipment shipment;
+    private Category categoryTree;
+
+    @Setup
+    public void setUp() {
+        mapper = BenchmarkFixtures.newMapperFactory().getMapperFacade();
+        product = BenchmarkFixtures.newProduct(1);
+        productDto = new ProductDto();
+        order = BenchmarkFixtures.newOrder(size);
+        products = BenchmarkFixtures.newProducts(size);
+        catalog = BenchmarkFixtures.newCatalog(size);
+        samples = BenchmarkFixtures.newSamples(size);
+        shipment = BenchmarkFixtures.newShipment();
+        categoryTree = BenchmarkFixtures.newCategoryTree(size);
+    }
+
+    @Benchmark
+    public ProductDto flatBean() {
+        return mapper.map(product, ProductDto.class);
+    }
+
+    @Benchmark
+    public ProductDto flatBeanInPlace() {
+        mapper.map(product, productDto);
+        return productDto;
+    }
+
+    @Benchmark
+    public OrderDto deepGraph() {
+        return mapper.map(order, OrderDto.class);
+    }
+
+    @Benchmark
+    public List<ProductDto> largeCollection() {
+        return mapper.mapAsList(products, ProductDto.class);
+    }
+
+    @Benchmark
+    public CatalogDto map() {
+        return mapper.map(catalog, CatalogDto.class);
+    }
+
+    @Benchmark
+    public SamplesDto primitiveArrays() {
+        return mapper.map(samples, SamplesDto.class);
+    }
+
+    @Benchmark
+    public ShipmentDto converter() {
+        return mapper.map(shipment, ShipmentDto.class);
+    }
+
+    @Benchmark
+    public CategoryDto cycles() {
+        return mapper.map(categoryTree, CategoryDto.class);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.benchmarks.model;
+
+import java.util.Map;
+
+/**
+ * Holds a map of beans keyed by String
+ */
+public class Catalog {
+
+    private String name;
+    private Map<String, Product> productsBySku;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Map<String, Product> getProductsBySku() {
+        return productsBySku;
+    }
+
+    public void setProductsBySku(Map<String, Product> productsBySku) {
+        this.productsBySku = productsBySku;
+    }
+}
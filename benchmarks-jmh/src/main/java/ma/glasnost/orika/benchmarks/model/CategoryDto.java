@@ -0,0 +1,55 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.benchmarks.model;
+
+import java.util.List;
+
+/**
+ * Destination type for {@link Category}
+ */
+public class CategoryDto {
+
+    private String name;
+    private CategoryDto parent;
+    private List<CategoryDto> children;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public CategoryDto getParent() {
+        return parent;
+    }
+
+    public void setParent(CategoryDto parent) {
+        this.parent = parent;
+    }
+
+    public List<CategoryDto> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryDto> children) {
+        this.children = children;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.benchmarks.model;
+
+/**
+ * Destination type for {@link Shipment}; dates are mapped to milliseconds
+ * since the epoch
+ */
+public class ShipmentDto {
+
+    private String trackingNumber;
+    private Long shipped;
+    private Long delivered;
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public Long getShipped() {
+        return shipped;
+    }
+
+    public void setShipped(Long shipped) {
+        this.shipped = shipped;
+    }
+
+    public Long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(Long delivered) {
+        this.delivered = delivered;
+    }
+}
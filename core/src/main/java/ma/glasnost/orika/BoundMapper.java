@@ -0,0 +1,110 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika;
+
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * BoundMapper is a mapping handle bound to a fixed pair of source and
+ * destination types, which can be obtained from
+ * {@link MapperFactory#getBoundMapper(Type, Type)}.<br>
+ * <br>
+ * The mapping strategy is resolved once, upon the first mapping request, and
+ * re-used for each subsequent request, bypassing the type resolution and
+ * strategy lookup performed by the MapperFacade; it is only resolved again
+ * when the runtime class of the source object differs from the class for which
+ * it was last resolved.<br>
+ * <br>
+ * Instances are thread-safe, and are intended to be held by the caller for
+ * repeated use, such as within a frequently executed loop.
+ *
+ * Example:
+ *
+ * <pre>
+ * BoundMapper&lt;Entity, DTO&gt; entityToDTO = mapperFactory.getBoundMapper(TypeFactory.valueOf(Entity.class), TypeFactory.valueOf(DTO.class));
+ * ...
+ * DTO newDTO = entityToDTO.map(entity);
+ * </pre>
+ *
+ * @param <A>
+ *            the source type
+ * @param <B>
+ *            the destination type
+ */
+public interface BoundMapper<A, B> {
+
+    /**
+     * @return the source type to which this mapper is bound
+     */
+    Type<A> getAType();
+
+    /**
+     * @return the destination type to which this mapper is bound
+     */
+    Type<B> getBType();
+
+    /**
+     * Maps the source object into a new instance of the destination type.
+     *
+     * @param source
+     *            the object to map from
+     * @return a new instance of the destination type, or null if source was
+     *         null
+     */
+    B map(A source);
+
+    /**
+     * Maps the source object into a new instance of the destination type,
+     * using the specified MappingContext.
+     *
+     * @param source
+     *            the object to map from
+     * @param context
+     *            the context from the current mapping request
+     * @return a new instance of the destination type, or null if source was
+     *         null
+     */
+    B map(A source, MappingContext context);
+
+    /**
+     * Maps the properties of the source object onto the provided destination
+     * object.
+     *
+     * @param source
+     *            the object to map from
+     * @param destination
+     *            the object to map onto
+     * @return the destination object
+     */
+    B map(A source, B destination);
+
+    /**
+     * Maps the properties of the source object onto the provided destination
+     * object, using the specified MappingContext.
+     *
+     * @param source
+     *            the object to map from
+     * @param destination
+     *            the object to map onto
+     * @param context
+     *            the context from the current mapping request
+     * @return the destination object
+     */
+    B map(A source, B destination, MappingContext context);
+}
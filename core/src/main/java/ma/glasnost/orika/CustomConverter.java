@@ -58,6 +58,20 @@ public abstract class CustomConverter<S, D> implements ma.glasnost.orika.Convert
         this.mapperFacade = mapper;
     }
     
+    /**
+     * @return the source type of this converter
+     */
+    public Type<S> getSourceType() {
+        return sourceType;
+    }
+    
+    /**
+     * @return the destination type of this converter
+     */
+    public Type<D> getDestinationType() {
+        return destinationType;
+    }
+    
     public String toString() {
     	String subClass = getClass().equals(CustomConverter.class) ? "" : "("+getClass().getSimpleName()+")";
     	return CustomConverter.class.getSimpleName()+subClass+"<"+sourceType + ", " + destinationType+">";
@@ -19,9 +19,11 @@
 package ma.glasnost.orika;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import ma.glasnost.orika.metadata.Type;
 
@@ -397,6 +399,143 @@ public interface MapperFacade {
     
     <Sk, Sv, D> D[] mapAsArray(D[] destination, Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType, MappingContext context);
      
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Parallel mapping of large Iterables
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Maps the source Iterable into a new List of type <code>D</code>, dividing
+     * the source into chunks which are mapped concurrently; the elements of
+     * the returned List are in the same order as those of the source.<br>
+     * <br>
+     * Each chunk is mapped with its own MappingContext, since a MappingContext
+     * cannot be shared between threads; object identity is therefore preserved
+     * only within a chunk. A source object reachable from elements of several
+     * chunks is mapped once for each of them, into distinct destination
+     * objects, so this method should only be used when the elements do not
+     * share mutable state (or when such duplicates are acceptable).<br>
+     * A source which is not a random access List is first copied into one.
+     * 
+     * @param source the Iterable from which to map
+     * @param destinationClass the type of elements to be contained in the returned List
+     * @param executor the executor to which chunks are submitted; the calling
+     *        thread maps one of the chunks itself, and waits for the others
+     * @return a new List containing elements of type <code>destinationClass</code> mapped from 
+     * the elements of <code>source</code>.
+     */
+    <S, D> List<D> mapAsListParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor);
+    
+    /**
+     * @see #mapAsListParallel(Iterable, Class, ExecutorService)
+     */
+    <S, D> List<D> mapAsListParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor);
+    
+    /**
+     * Maps the source Iterable into a new Set of type <code>D</code>, dividing
+     * the source into chunks which are mapped concurrently, with the same
+     * semantics as {@link #mapAsListParallel(Iterable, Class, ExecutorService)}.
+     * 
+     * @param source the Iterable from which to map
+     * @param destinationClass the type of elements to be contained in the returned Set
+     * @param executor the executor to which chunks are submitted
+     * @return a new Set containing elements of type <code>destinationClass</code> mapped from 
+     * the elements of <code>source</code>.
+     */
+    <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor);
+    
+    /**
+     * @see #mapAsSetParallel(Iterable, Class, ExecutorService)
+     */
+    <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor);
+    
+    /**
+     * Maps the source Iterable into the destination Array, dividing the source
+     * into chunks which are mapped concurrently, with the same semantics as
+     * {@link #mapAsListParallel(Iterable, Class, ExecutorService)}.
+     * 
+     * @param destination the Array into which to map, at least as long as the source
+     * @param source the Iterable from which to map
+     * @param destinationClass the type of elements to be contained in the Array
+     * @param executor the executor to which chunks are submitted
+     * @return the destination Array
+     */
+    <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Class<D> destinationClass, ExecutorService executor);
+    
+    /**
+     * @see #mapAsArrayParallel(Object[], Iterable, Class, ExecutorService)
+     */
+    <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Type<S> sourceType, Type<D> destinationType,
+            ExecutorService executor);
+    
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Lazy mapping of streams of elements
+    // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Returns an Iterator which maps each element of the source Iterator as it
+     * is requested, without holding on to the elements already returned; a new
+     * MappingContext is used for every element.
+     * 
+     * @param source the Iterator from which to map
+     * @param sourceType the type of elements of the source
+     * @param destinationType the type of elements returned by the Iterator
+     * @return an Iterator over the elements of <code>source</code> mapped to
+     * <code>destinationType</code>, or null if <code>source</code> is null
+     */
+    <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType);
+    
+    /**
+     * Returns an Iterator which maps each element of the source Iterator as it
+     * is requested, without holding on to the elements already returned.<br>
+     * <br>
+     * The same MappingContext is used for <code>contextResetInterval</code>
+     * consecutive elements before being replaced by a new one, so that object
+     * identity (and cycles) between those elements are preserved, while the
+     * number of objects held in the context's cache remains bounded.
+     * 
+     * @param source the Iterator from which to map
+     * @param sourceType the type of elements of the source
+     * @param destinationType the type of elements returned by the Iterator
+     * @param contextResetInterval the number of elements mapped with each
+     *        MappingContext; if not positive, a single MappingContext is used
+     *        for the whole of the source
+     * @return an Iterator over the elements of <code>source</code> mapped to
+     * <code>destinationType</code>, or null if <code>source</code> is null
+     */
+    <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType, int contextResetInterval);
+    
+    /**
+     * Returns a view of the source Iterable whose elements are mapped each time
+     * they are iterated over; a new MappingContext is used for every element.
+     * 
+     * @param source the Iterable from which to map
+     * @param destinationClass the type of elements of the returned Iterable
+     * @return an Iterable over the elements of <code>source</code> mapped to
+     * <code>destinationClass</code>, or null if <code>source</code> is null
+     */
+    <S, D> Iterable<D> mapLazily(Iterable<S> source, Class<D> destinationClass);
+    
+    /**
+     * @see #mapLazily(Iterable, Class)
+     */
+    <S, D> Iterable<D> mapLazily(Iterable<S> source, Type<S> sourceType, Type<D> destinationType);
+    
+    /**
+     * Returns a view of the source Iterable whose elements are mapped each time
+     * they are iterated over, as by
+     * {@link #mapAsIterator(Iterator, Type, Type, int)}.
+     * 
+     * @param source the Iterable from which to map
+     * @param sourceType the type of elements of the source
+     * @param destinationType the type of elements of the returned Iterable
+     * @param contextResetInterval the number of elements mapped with each
+     *        MappingContext; if not positive, a single MappingContext is used
+     *        for each iteration over the whole of the source
+     * @return an Iterable over the elements of <code>source</code> mapped to
+     * <code>destinationType</code>, or null if <code>source</code> is null
+     */
+    <S, D> Iterable<D> mapLazily(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, int contextResetInterval);
+    
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     
     <S, D> D convert(S source, Class<D> destinationClass, String converterId);
@@ -210,6 +210,20 @@ public interface MapperFactory {
      */
     MapperFacade getMapperFacade();
     
+    /**
+     * Get a BoundMapper for the specified pair of types; the mapping strategy
+     * used by the returned instance is resolved once, rather than upon each
+     * mapping request, so it should be preferred for repeated mapping between
+     * the same pair of types.
+     * 
+     * @param sourceType
+     *            the type of the objects to map from
+     * @param destinationType
+     *            the type of the objects to map to
+     * @return a thread-safe BoundMapper for the specified types
+     */
+    <A, B> BoundMapper<A, B> getBoundMapper(Type<A> sourceType, Type<B> destinationType);
+    
     /**
      * Get an instance of the ConverterFactory associated with this
      * MapperFactory; it may be used to register Converter instances to be used
@@ -18,25 +18,68 @@
 
 package ma.glasnost.orika;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import ma.glasnost.orika.metadata.Type;
 import ma.glasnost.orika.metadata.TypeFactory;
 
+/**
+ * MappingContext holds the state of a single mapping request, such as the
+ * objects already mapped (used to preserve references and resolve cycles)
+ * and the concrete classes registered for abstract destination types.<br>
+ * <br>
+ * The internal maps are only created upon first use, and a context may be
+ * reused for subsequent mapping requests after calling {@link #reset()}.
+ */
 public class MappingContext {
     
-    private final Map<Type<?>, Type<?>> mapping;
-    private final Map<Object, Object> cache;
+    /*
+     * Maps which have grown beyond this size are discarded upon reset, rather
+     * than cleared, so that clearing is never proportional to the largest
+     * request seen
+     */
+    private static final int MAX_RETAINED_SIZE = 64;
+    
+    /*
+     * Initial number of entries for which the mapped object table has capacity
+     */
+    private static final int INITIAL_CAPACITY = 8;
+    
+    private final boolean trackCycles;
+    private Map<Type<?>, Type<?>> mapping;
+    
+    /*
+     * Open-addressing table of mapped objects, holding consecutive (source,
+     * destinationType, destination) triples; sources are compared by identity
+     * and hashed using System.identityHashCode, so that neither hashCode() nor
+     * equals() of the mapped objects is ever invoked
+     */
+    private Object[] mappedObjects;
+    private int mappedObjectCount;
     
     public MappingContext() {
-        mapping = new HashMap<Type<?>, Type<?>>();
-        cache = new HashMap<Object, Object>();
+        this(true);
+    }
+    
+    /**
+     * @param trackCycles
+     *            whether objects already mapped should be recorded; when
+     *            false, repeated references within the source graph are mapped
+     *            to distinct destination objects, and cyclic graphs may not be
+     *            mapped at all, so this should only be disabled for graphs which
+     *            are known to be acyclic
+     */
+    public MappingContext(boolean trackCycles) {
+        this.trackCycles = trackCycles;
     }
     
     @SuppressWarnings("unchecked")
     public <S, D> Type<? extends D> getConcreteClass(Type<S> sourceType, Type<D> destinationType) {
-        
+        if (mapping == null) {
+            return null;
+        }
         final Type<?> type = mapping.get(sourceType);
         if (type != null && destinationType.isAssignableFrom(type)) {
             return (Type<? extends D>) type;
@@ -45,16 +88,33 @@ public class MappingContext {
     }
     
     public void registerConcreteClass(Type<?> subjectClass, Type<?> concreteClass) {
+        if (mapping == null) {
+            mapping = new HashMap<Type<?>, Type<?>>();
+        }
         mapping.put(subjectClass, concreteClass);
     }
     
     @Deprecated
     public <S, D> void cacheMappedObject(S source, D destination) {
-        cache.put(new CacheKey(source, TypeFactory.typeOf(destination)), destination);
+        cacheMappedObject(source, TypeFactory.typeOf(destination), destination);
     }
     
     public <S, D> void cacheMappedObject(S source, Type<D> destinationType, D destination) {
-        cache.put(new CacheKey(source, destinationType), destination);
+        if (!trackCycles || source == null) {
+            return;
+        }
+        if (mappedObjects == null) {
+            mappedObjects = new Object[INITIAL_CAPACITY * 3];
+        } else if ((mappedObjectCount + 1) * 3 > mappedObjects.length * 2 / 3) {
+            resizeMappedObjects();
+        }
+        int index = indexOf(mappedObjects, source, destinationType);
+        if (mappedObjects[index] == null) {
+            mappedObjects[index] = source;
+            mappedObjects[index + 1] = destinationType;
+            ++mappedObjectCount;
+        }
+        mappedObjects[index + 2] = destination;
     }
     
     /**
@@ -65,63 +125,156 @@ public class MappingContext {
      */
     @Deprecated
     public <S, D> boolean isAlreadyMapped(S source, Type<D> destinationType) {
-        return cache.containsKey(new CacheKey(source, destinationType));
+        return getMappedObject(source, destinationType) != null;
     }
     
     @SuppressWarnings("unchecked")
     public <D> D getMappedObject(Object source, Type<D> destinationType) {
-        return (D) cache.get(new CacheKey(source, destinationType));
+        if (mappedObjects == null || source == null) {
+            return null;
+        }
+        int index = indexOf(mappedObjects, source, destinationType);
+        return (D) mappedObjects[index + 2];
     }
     
+    /**
+     * Locates the triple for the specified source and destination type, or
+     * the empty triple at which it should be inserted.
+     */
+    private static int indexOf(Object[] table, Object source, Type<?> destinationType) {
+        int slots = table.length / 3;
+        int slot = hash(source) & (slots - 1);
+        while (true) {
+            int index = slot * 3;
+            Object key = table[index];
+            if (key == null) {
+                return index;
+            } else if (key == source) {
+                Object type = table[index + 1];
+                if (type == destinationType || (type != null && type.equals(destinationType))) {
+                    return index;
+                }
+            }
+            slot = (slot + 1) & (slots - 1);
+        }
+    }
+    
+    private static int hash(Object source) {
+        int h = System.identityHashCode(source);
+        /*
+         * Spread the identity hash, as only its lower bits select the slot
+         */
+        return h ^ (h >>> 16);
+    }
+    
+    private void resizeMappedObjects() {
+        Object[] oldTable = mappedObjects;
+        Object[] newTable = new Object[oldTable.length * 2];
+        for (int i = 0; i < oldTable.length; i += 3) {
+            if (oldTable[i] != null) {
+                int index = indexOf(newTable, oldTable[i], (Type<?>) oldTable[i + 1]);
+                newTable[index] = oldTable[i];
+                newTable[index + 1] = oldTable[i + 1];
+                newTable[index + 2] = oldTable[i + 2];
+            }
+        }
+        mappedObjects = newTable;
+    }
     
     /**
-     * CacheKey is used to identify existing mappings of a given
-     * source object to a destination type within the current mapping context
-     * 
+     * Resets this context to it's initial state, so that it may be reused for
+     * a new mapping request.
      */
-    private static class CacheKey {
-    	
-    	private Type<?> destinationType;
-    	private Object sourceObject;
-		
-    	public CacheKey(Object sourceObject, Type<?> destinationType) {
-    		this.sourceObject = sourceObject;
-    		this.destinationType = destinationType;
-    	}
-    	
-    	@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime
-					* result
-					+ ((destinationType == null) ? 0 : destinationType
-							.hashCode());
-			result = prime * result
-					+ ((sourceObject == null) ? 0 : sourceObject.hashCode());
-			return result;
-		}
-		
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			CacheKey other = (CacheKey) obj;
-			if (destinationType == null) {
-				if (other.destinationType != null)
-					return false;
-			} else if (!destinationType.equals(other.destinationType))
-				return false;
-			
-			if (sourceObject != other.sourceObject) 
-				return false;
-			
-			return true;
-		}
+    public void reset() {
+        mapping = reset(mapping);
+        if (mappedObjectCount > 0) {
+            if (mappedObjectCount > MAX_RETAINED_SIZE) {
+                mappedObjects = null;
+            } else {
+                Arrays.fill(mappedObjects, null);
+            }
+            mappedObjectCount = 0;
+        }
     }
-
+    
+    private static <K, V> Map<K, V> reset(Map<K, V> map) {
+        if (map == null || map.isEmpty()) {
+            return map;
+        } else if (map.size() > MAX_RETAINED_SIZE) {
+            return null;
+        } else {
+            map.clear();
+            return map;
+        }
+    }
+    
+    /**
+     * Factory creates a new MappingContext for every request; this is the
+     * default MappingContextFactory.
+     */
+    public static class Factory implements MappingContextFactory {
+        
+        private final boolean trackCycles;
+        
+        public Factory() {
+            this(true);
+        }
+        
+        /**
+         * @param trackCycles
+         *            whether the contexts created should record the objects
+         *            already mapped; see {@link MappingContext#MappingContext(boolean)}
+         */
+        public Factory(boolean trackCycles) {
+            this.trackCycles = trackCycles;
+        }
+        
+        public MappingContext getContext() {
+            return new MappingContext(trackCycles);
+        }
+        
+        public void release(MappingContext context) {
+            /* nothing to do */
+        }
+    }
+    
+    /**
+     * ThreadLocalFactory keeps a single released MappingContext per thread,
+     * which is reset and handed out again for that thread's next request. A
+     * request made while the thread's context is in use (such as a nested
+     * request from a custom mapper or converter) receives a new context.
+     */
+    public static class ThreadLocalFactory implements MappingContextFactory {
+        
+        private final ThreadLocal<MappingContext> available = new ThreadLocal<MappingContext>();
+        private final boolean trackCycles;
+        
+        public ThreadLocalFactory() {
+            this(true);
+        }
+        
+        /**
+         * @param trackCycles
+         *            whether the contexts created should record the objects
+         *            already mapped; see {@link MappingContext#MappingContext(boolean)}
+         */
+        public ThreadLocalFactory(boolean trackCycles) {
+            this.trackCycles = trackCycles;
+        }
+        
+        public MappingContext getContext() {
+            MappingContext context = available.get();
+            if (context == null) {
+                return new MappingContext(trackCycles);
+            }
+            available.set(null);
+            return context;
+        }
+        
+        public void release(MappingContext context) {
+            context.reset();
+            available.set(context);
+        }
+    }
+    
 }
@@ -0,0 +1,46 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika;
+
+/**
+ * MappingContextFactory is used by the MapperFacade to obtain a MappingContext
+ * for each mapping request made without an explicit context, and to give it
+ * back once the request has completed; implementations may choose to reuse
+ * released contexts rather than creating a new one for each request.
+ *
+ * @see MappingContext.Factory
+ * @see MappingContext.ThreadLocalFactory
+ */
+public interface MappingContextFactory {
+
+    /**
+     * @return a MappingContext ready for use in a new mapping request
+     */
+    MappingContext getContext();
+
+    /**
+     * Returns a context obtained from {@link #getContext()} once the mapping
+     * request for which it was obtained has completed; the context must not be
+     * used by the caller after it has been released.
+     *
+     * @param context
+     *            the context to release
+     */
+    void release(MappingContext context);
+}
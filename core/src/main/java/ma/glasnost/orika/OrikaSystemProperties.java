@@ -94,4 +94,42 @@ public final class OrikaSystemProperties {
      */
     public static final String USE_STRATEGY_CACHE = "ma.glasnost.orika.useStrategyCache";
     
+    /**
+     * Specifies the fully-qualified class name of the MappingContextFactory used by the MapperFacade
+     * to obtain a MappingContext for requests made without one;<br><br>
+     * default value is {@link ma.glasnost.orika.MappingContext.Factory}, which creates a new context
+     * for each request; {@link ma.glasnost.orika.MappingContext.ThreadLocalFactory} reuses one context per thread.
+     */
+    public static final String MAPPING_CONTEXT_FACTORY = "ma.glasnost.orika.mappingContextFactory";
+    
+    /**
+     * Specifies the directory in which {@link ma.glasnost.orika.impl.generator.ByteCodeCacheCompilerStrategy}
+     * keeps the compiled classes, when that strategy is selected using the {@link #COMPILER_STRATEGY} property;<br><br>
+     * default value is the directory "orika-bytecode-cache" within <code>java.io.tmpdir</code>
+     */
+    public static final String BYTE_CODE_CACHE_PATH = "ma.glasnost.orika.byteCodeCachePath";
+    
+    /**
+     * Specifies the maximum length of a chain of nested mappings which the generated mappers dispatch
+     * directly to one another (for nested properties whose source type is final), rather than through
+     * the MapperFacade; a value of 0 disables such direct dispatch.<br><br>
+     * default value is <code>0</code>
+     */
+    public static final String NESTED_MAPPING_INLINE_DEPTH = "ma.glasnost.orika.nestedMappingInlineDepth";
+    
+    /**
+     * Specifies the number of invocations after which a generated mapper is regenerated according to
+     * the runtime classes it has observed for its nested objects (tiered generation); a value of 0
+     * disables tiered generation.<br><br>
+     * default value is <code>0</code>
+     */
+    public static final String TIERED_COMPILATION_THRESHOLD = "ma.glasnost.orika.tieredCompilationThreshold";
+    
+    /**
+     * Specifies the number of elements above which {@link ma.glasnost.orika.impl.AsyncMapperFacade} always
+     * hands the mapping of an Iterable to its executor, rather than mapping it on the calling thread.<br><br>
+     * default value is <code>1000</code>
+     */
+    public static final String ASYNC_MAPPING_SIZE_THRESHOLD = "ma.glasnost.orika.asyncMappingSizeThreshold";
+    
 }
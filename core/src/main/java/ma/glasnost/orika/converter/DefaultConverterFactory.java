@@ -17,19 +17,23 @@
  */
 package ma.glasnost.orika.converter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import ma.glasnost.orika.Converter;
+import ma.glasnost.orika.CustomConverter;
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.impl.util.ClassUtil;
 import ma.glasnost.orika.metadata.ConverterKey;
 import ma.glasnost.orika.metadata.Type;
 import ma.glasnost.orika.metadata.TypeFactory;
 import ma.glasnost.orika.util.Cache;
-import ma.glasnost.orika.util.CacheLRULinkedHashMap;
+import ma.glasnost.orika.util.CacheConcurrentClock;
 
 public class DefaultConverterFactory implements ConverterFactory {
     
@@ -37,6 +41,7 @@ public class DefaultConverterFactory implements ConverterFactory {
     private final Cache<ConverterKey, Converter<Object, Object>> converterCache;
     private final Set<Converter<Object, Object>> converters;
     private final Map<String, Converter<Object, Object>> convertersMap;
+    private volatile ConverterIndex converterIndex;
     private MapperFacade mapperFacade;
     
     public DefaultConverterFactory(Cache<ConverterKey, Converter<Object, Object>> converterCache, Set<Converter<Object, Object>> converters) {
@@ -47,7 +52,7 @@ public class DefaultConverterFactory implements ConverterFactory {
     }
     
     public DefaultConverterFactory() {
-        this(new CacheLRULinkedHashMap<ConverterKey, Converter<Object, Object>>(CACHE_SIZE), new HashSet<Converter<Object, Object>>());
+        this(new CacheConcurrentClock<ConverterKey, Converter<Object, Object>>(CACHE_SIZE), new HashSet<Converter<Object, Object>>());
     }
     
     public void setMapperFacade(MapperFacade mapperFacade) {
@@ -94,22 +99,8 @@ public class DefaultConverterFactory implements ConverterFactory {
         return false;
     }
     
-    @SuppressWarnings("unchecked")
     private boolean _canConvert(Type<?> sourceType, Type<?> destinationType) {
-        boolean canConvert = false;
-        ConverterKey key = new ConverterKey(sourceType, destinationType);
-        if (converterCache.containsKey(key)) {
-            return true;
-        }
-        for (@SuppressWarnings("rawtypes")
-        Converter converter : converters) {
-            if (converter.canConvert(sourceType, destinationType)) {
-                converterCache.cache(key, converter);
-                canConvert = true;
-                // TODO: can't we break here?
-            }
-        }
-        return canConvert;
+        return _converter(sourceType, destinationType) != null;
     }
     
     /*
@@ -162,20 +153,44 @@ public class DefaultConverterFactory implements ConverterFactory {
     
     private Converter<Object, Object> _converter(Type<?> sourceClass, Type<?> destinationClass) {
         ConverterKey key = new ConverterKey(sourceClass, destinationClass);
-        if (converterCache.containsKey(key)) {
-            return converterCache.get(key);
+        Converter<Object, Object> converter = converterCache.get(key);
+        if (converter != null) {
+            return converter;
         }
         
-        for (Converter<Object, Object> converter : converters) {
-            if (converter.canConvert(sourceClass, destinationClass)) {
-                converterCache.cache(key, converter);
-                return converter;
+        ConverterIndex index = getConverterIndex();
+        if (index.unconvertible.containsKey(key)) {
+            return null;
+        }
+        for (Converter<Object, Object> candidate : index.candidatesFor(destinationClass.getRawType())) {
+            if (candidate.canConvert(sourceClass, destinationClass)) {
+                converterCache.cache(key, candidate);
+                return candidate;
             }
         }
         
+        /*
+         * Recorded in the index which was scanned, so that a result made
+         * stale by a concurrent registration is discarded along with it
+         */
+        index.unconvertible.cache(key, Boolean.TRUE);
         return null;
     }
     
+    private ConverterIndex getConverterIndex() {
+        ConverterIndex index = converterIndex;
+        if (index == null) {
+            synchronized (converters) {
+                index = converterIndex;
+                if (index == null) {
+                    index = new ConverterIndex(converters);
+                    converterIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    
     /*
      * (non-Javadoc)
      * 
@@ -199,7 +214,10 @@ public class DefaultConverterFactory implements ConverterFactory {
     	if (this.mapperFacade != null) {
     		converter.setMapperFacade(mapperFacade);
     	}
-    	converters.add((Converter) converter);
+    	synchronized (converters) {
+    	    converters.add((Converter) converter);
+    	    converterIndex = null;
+    	}
     }
     
     /*
@@ -242,4 +260,98 @@ public class DefaultConverterFactory implements ConverterFactory {
         
         registerConverter(converterId, new ma.glasnost.orika.converter.Converter.LegacyConverter<S, D>(converter));
     }
+    
+    /**
+     * ConverterIndex partitions the registered converters by the raw
+     * destination class they are able to produce, so that a lookup only tests
+     * the converters which could possibly apply.<br>
+     * Converters which extend CustomConverter (or BidirectionalConverter)
+     * without overriding canConvert are known to require an exact destination
+     * type, and are indexed by that type; any other converter may apply to any
+     * destination class and is a candidate for every lookup.<br>
+     * Candidates are always tested in the iteration order of the registered
+     * converters.
+     */
+    private static final class ConverterIndex {
+        
+        private final Map<Class<?>, Converter<Object, Object>[]> candidatesByDestination;
+        private final Converter<Object, Object>[] generalCandidates;
+        /*
+         * Remembers the source/destination combinations for which none of the
+         * indexed converters applies, so that repeated negative lookups don't
+         * rescan them
+         */
+        private final CacheConcurrentClock<ConverterKey, Boolean> unconvertible = new CacheConcurrentClock<ConverterKey, Boolean>(
+                CACHE_SIZE);
+        
+        private ConverterIndex(Set<Converter<Object, Object>> converters) {
+            
+            List<Converter<Object, Object>> general = new ArrayList<Converter<Object, Object>>();
+            Map<Class<?>, List<Converter<Object, Object>>> byDestination = new HashMap<Class<?>, List<Converter<Object, Object>>>();
+            for (Converter<Object, Object> converter : converters) {
+                Class<?>[] destinations = destinationClassesOf(converter);
+                if (destinations == null) {
+                    general.add(converter);
+                    /*
+                     * general converters must also be tested, in order, for
+                     * the indexed destinations
+                     */
+                    for (List<Converter<Object, Object>> candidates : byDestination.values()) {
+                        candidates.add(converter);
+                    }
+                } else {
+                    for (Class<?> destination : destinations) {
+                        List<Converter<Object, Object>> candidates = byDestination.get(destination);
+                        if (candidates == null) {
+                            candidates = new ArrayList<Converter<Object, Object>>(general);
+                            byDestination.put(destination, candidates);
+                        }
+                        if (!candidates.contains(converter)) {
+                            candidates.add(converter);
+                        }
+                    }
+                }
+            }
+            
+            this.generalCandidates = toArray(general);
+            this.candidatesByDestination = new HashMap<Class<?>, Converter<Object, Object>[]>(byDestination.size() * 2);
+            for (Map.Entry<Class<?>, List<Converter<Object, Object>>> entry : byDestination.entrySet()) {
+                candidatesByDestination.put(entry.getKey(), toArray(entry.getValue()));
+            }
+        }
+        
+        private Converter<Object, Object>[] candidatesFor(Class<?> destinationClass) {
+            Converter<Object, Object>[] candidates = candidatesByDestination.get(destinationClass);
+            return candidates != null ? candidates : generalCandidates;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private static Converter<Object, Object>[] toArray(List<Converter<Object, Object>> converters) {
+            return converters.toArray(new Converter[converters.size()]);
+        }
+        
+        /**
+         * @param converter
+         * @return the raw destination classes which the converter may produce,
+         *         or null if they cannot be determined
+         */
+        private static Class<?>[] destinationClassesOf(Converter<?, ?> converter) {
+            if (converter instanceof CustomConverter) {
+                CustomConverter<?, ?> customConverter = (CustomConverter<?, ?>) converter;
+                Class<?> declaringClass;
+                try {
+                    declaringClass = converter.getClass().getMethod("canConvert", Type.class, Type.class).getDeclaringClass();
+                } catch (NoSuchMethodException e) {
+                    return null;
+                }
+                if (declaringClass == CustomConverter.class) {
+                    return new Class<?>[] { customConverter.getDestinationType().getRawType() };
+                } else if (declaringClass == BidirectionalConverter.class) {
+                    return new Class<?>[] { customConverter.getDestinationType().getRawType(),
+                            customConverter.getSourceType().getRawType() };
+                }
+            }
+            return null;
+        }
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.OrikaSystemProperties;
+import ma.glasnost.orika.impl.util.ClassUtil;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+/**
+ * AsyncMapperFacade wraps the MapperFacade of a MapperFactory for use from
+ * threads which must not be blocked for long, such as those of an event loop;
+ * each mapping request returns a Future of its result.<br>
+ * <br>
+ * A request is handed to the executor when its source is an Iterable with more
+ * than <code>sizeThreshold</code> elements (or whose size is not known), or
+ * when no mapper has yet been generated from the type of the source (or of any
+ * of its elements) to the destination type, so that the calling thread pays
+ * for neither a large mapping nor the compilation of a new mapper. Other
+ * requests are mapped on the calling thread, and return a Future which is
+ * already done. Mappers needed only for nested properties are still generated
+ * by whichever thread first maps them.<br>
+ * <br>
+ * An executor given to this class is not shut down by it; a pool with a
+ * bounded number of threads and a bounded queue, dedicated to mapping, is
+ * recommended. Without one, such a pool of daemon threads is created; a
+ * request it cannot accept is rejected with a RejectedExecutionException,
+ * rather than mapped on the calling thread.
+ */
+public class AsyncMapperFacade {
+
+    /**
+     * The number of requests which the default executor queues while all of
+     * its threads are busy
+     */
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    
+    private final MapperFactory mapperFactory;
+    private final MapperFacade mapperFacade;
+    private final ExecutorService executor;
+    private final int sizeThreshold;
+
+    /**
+     * Constructs a new AsyncMapperFacade whose size threshold is given by the
+     * {@link OrikaSystemProperties#ASYNC_MAPPING_SIZE_THRESHOLD} property, and
+     * whose executor has one daemon thread per available processor and
+     * queues at most {@value #DEFAULT_QUEUE_CAPACITY} requests.
+     * 
+     * @param mapperFactory
+     *            the factory whose MapperFacade performs the mapping
+     */
+    public AsyncMapperFacade(MapperFactory mapperFactory) {
+        this(mapperFactory, newDefaultExecutor());
+    }
+
+    /**
+     * Constructs a new AsyncMapperFacade whose size threshold is given by the
+     * {@link OrikaSystemProperties#ASYNC_MAPPING_SIZE_THRESHOLD} property.
+     *
+     * @param mapperFactory
+     *            the factory whose MapperFacade performs the mapping
+     * @param executor
+     *            the executor to which requests are handed
+     */
+    public AsyncMapperFacade(MapperFactory mapperFactory, ExecutorService executor) {
+        this(mapperFactory, executor, Integer.parseInt(System.getProperty(OrikaSystemProperties.ASYNC_MAPPING_SIZE_THRESHOLD, "1000")));
+    }
+
+    /**
+     * @param mapperFactory
+     *            the factory whose MapperFacade performs the mapping
+     * @param executor
+     *            the executor to which requests are handed
+     * @param sizeThreshold
+     *            the number of elements above which an Iterable is always
+     *            mapped by the executor
+     */
+    public AsyncMapperFacade(MapperFactory mapperFactory, ExecutorService executor, int sizeThreshold) {
+        if (executor == null) {
+            throw new NullPointerException("executor must not be null");
+        }
+        this.mapperFactory = mapperFactory;
+        this.mapperFacade = mapperFactory.getMapperFacade();
+        this.executor = executor;
+        this.sizeThreshold = sizeThreshold;
+    }
+
+    public <S, D> Future<D> map(final S source, final Type<S> sourceType, final Type<D> destinationType) {
+        return submit(new Callable<D>() {
+            public D call() {
+                return mapperFacade.map(source, sourceType, destinationType);
+            }
+        }, source == null || isPrepared(source, destinationType));
+    }
+
+    public <S, D> Future<D> map(S source, Class<D> destinationClass) {
+        return map(source, TypeFactory.typeOf(source), TypeFactory.<D> valueOf(destinationClass));
+    }
+
+    public <S, D> Future<List<D>> mapAsList(final Iterable<S> source, final Type<S> sourceType, final Type<D> destinationType) {
+        return submit(new Callable<List<D>>() {
+            public List<D> call() {
+                return mapperFacade.mapAsList(source, sourceType, destinationType);
+            }
+        }, isSmallAndPrepared(source, destinationType));
+    }
+
+    public <S, D> Future<List<D>> mapAsList(Iterable<S> source, Class<D> destinationClass) {
+        return mapAsList(source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass));
+    }
+
+    public <S, D> Future<Set<D>> mapAsSet(final Iterable<S> source, final Type<S> sourceType, final Type<D> destinationType) {
+        return submit(new Callable<Set<D>>() {
+            public Set<D> call() {
+                return mapperFacade.mapAsSet(source, sourceType, destinationType);
+            }
+        }, isSmallAndPrepared(source, destinationType));
+    }
+
+    public <S, D> Future<Set<D>> mapAsSet(Iterable<S> source, Class<D> destinationClass) {
+        return mapAsSet(source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass));
+    }
+
+    private <T> Future<T> submit(Callable<T> request, boolean mapOnCallingThread) {
+        if (mapOnCallingThread) {
+            FutureTask<T> result = new FutureTask<T>(request);
+            result.run();
+            return result;
+        }
+        return executor.submit(request);
+    }
+
+    private boolean isSmallAndPrepared(Iterable<?> source, Type<?> destinationType) {
+        if (source == null) {
+            return true;
+        } else if (!(source instanceof Collection) || ((Collection<?>) source).size() > sizeThreshold) {
+            return false;
+        }
+        /*
+         * Each distinct class of element is checked, since any of them may
+         * require a new mapper
+         */
+        Class<?> lastClass = null;
+        Map<Class<?>, Boolean> checkedClasses = null;
+        for (Object element : source) {
+            if (element == null || element.getClass() == lastClass) {
+                continue;
+            }
+            lastClass = element.getClass();
+            if (checkedClasses == null) {
+                checkedClasses = new IdentityHashMap<Class<?>, Boolean>();
+            } else if (checkedClasses.containsKey(lastClass)) {
+                continue;
+            }
+            if (!isPrepared(element, destinationType)) {
+                return false;
+            }
+            checkedClasses.put(lastClass, Boolean.TRUE);
+        }
+        return true;
+    }
+    
+    /**
+     * @return an executor with a daemon thread per available processor and a
+     *         bounded queue
+     */
+    private static ExecutorService newDefaultExecutor() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(DEFAULT_QUEUE_CAPACITY),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Orika async mapping");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * @return true if the source object can be mapped to the destination type
+     *         without generating a new mapper
+     */
+    private boolean isPrepared(Object source, Type<?> destinationType) {
+        Type<?> sourceType = TypeFactory.typeOf(source);
+        return ClassUtil.isImmutable(sourceType) || mapperFactory.getConverterFactory().canConvert(sourceType, destinationType)
+                || mapperFactory.existsRegisteredMapper(sourceType, destinationType, true);
+    }
+}
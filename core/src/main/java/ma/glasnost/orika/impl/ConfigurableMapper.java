@@ -19,9 +19,11 @@
 package ma.glasnost.orika.impl;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.MapperFactory;
@@ -363,5 +365,50 @@ public class ConfigurableMapper implements MapperFacade {
             MappingContext context) {
         return facade.mapAsArray(destination, source, sourceType, destinationType, context);
     }
+
+    public <S, D> List<D> mapAsListParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return facade.mapAsListParallel(source, destinationClass, executor);
+    }
+
+    public <S, D> List<D> mapAsListParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor) {
+        return facade.mapAsListParallel(source, sourceType, destinationType, executor);
+    }
+
+    public <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return facade.mapAsSetParallel(source, destinationClass, executor);
+    }
+
+    public <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor) {
+        return facade.mapAsSetParallel(source, sourceType, destinationType, executor);
+    }
+
+    public <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return facade.mapAsArrayParallel(destination, source, destinationClass, executor);
+    }
+
+    public <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Type<S> sourceType, Type<D> destinationType,
+            ExecutorService executor) {
+        return facade.mapAsArrayParallel(destination, source, sourceType, destinationType, executor);
+    }
+
+    public <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType) {
+        return facade.mapAsIterator(source, sourceType, destinationType);
+    }
+
+    public <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType, int contextResetInterval) {
+        return facade.mapAsIterator(source, sourceType, destinationType, contextResetInterval);
+    }
+
+    public <S, D> Iterable<D> mapLazily(Iterable<S> source, Class<D> destinationClass) {
+        return facade.mapLazily(source, destinationClass);
+    }
+
+    public <S, D> Iterable<D> mapLazily(Iterable<S> source, Type<S> sourceType, Type<D> destinationType) {
+        return facade.mapLazily(source, sourceType, destinationType);
+    }
+
+    public <S, D> Iterable<D> mapLazily(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, int contextResetInterval) {
+        return facade.mapLazily(source, sourceType, destinationType, contextResetInterval);
+    }
     
 }
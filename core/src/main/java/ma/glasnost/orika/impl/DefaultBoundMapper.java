@@ -0,0 +1,168 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl;
+
+import ma.glasnost.orika.BoundMapper;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
+import ma.glasnost.orika.MappingException;
+import ma.glasnost.orika.impl.mapping.strategy.MappingStrategy;
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * DefaultBoundMapper is the default implementation of BoundMapper; it holds
+ * the MappingStrategy resolved by the MapperFacadeImpl for the most recently
+ * seen source class, and applies it directly for each mapping request.
+ *
+ * @param <A>
+ * @param <B>
+ */
+public final class DefaultBoundMapper<A, B> implements BoundMapper<A, B> {
+
+    private final MapperFacadeImpl mapperFacade;
+    private final MappingContextFactory contextFactory;
+    private final Type<A> aType;
+    private final Type<B> bType;
+    private volatile ResolvedStrategy instantiatingStrategy;
+    private volatile ResolvedStrategy inPlaceStrategy;
+
+    /**
+     * @param mapperFacade
+     *            the facade used to resolve the mapping strategies
+     * @param aType
+     *            the source type
+     * @param bType
+     *            the destination type
+     */
+    DefaultBoundMapper(MapperFacadeImpl mapperFacade, Type<A> aType, Type<B> bType) {
+        this.mapperFacade = mapperFacade;
+        this.contextFactory = mapperFacade.getMappingContextFactory();
+        this.aType = aType;
+        this.bType = bType;
+    }
+
+    public Type<A> getAType() {
+        return aType;
+    }
+
+    public Type<B> getBType() {
+        return bType;
+    }
+
+    public B map(A source) {
+        MappingContext context = contextFactory.getContext();
+        try {
+            return map(source, context);
+        } finally {
+            contextFactory.release(context);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public B map(A source, MappingContext context) {
+        if (source == null) {
+            return null;
+        }
+        B existingResult = context.getMappedObject(source, bType);
+        if (existingResult != null) {
+            return existingResult;
+        }
+        try {
+            ResolvedStrategy resolved = instantiatingStrategy;
+            if (resolved == null || resolved.sourceClass != source.getClass() || resolved.generation != mapperFacade.getStrategyGeneration()) {
+                resolved = resolve(source, false, context);
+                instantiatingStrategy = resolved;
+            }
+            return (B) resolved.strategy.map(source, null, context);
+        } catch (MappingException e) {
+            /* don't wrap our own exceptions */
+            throw e;
+        } catch (RuntimeException e) {
+            throw new MappingException("Error encountered while mapping for the following inputs: " + "\nrawSource=" + source
+                    + "\nsourceClass=" + source.getClass() + "\nsourceType=" + aType + "\ndestinationType=" + bType, e);
+        }
+    }
+
+    public B map(A source, B destination) {
+        MappingContext context = contextFactory.getContext();
+        try {
+            return map(source, destination, context);
+        } finally {
+            contextFactory.release(context);
+        }
+    }
+
+    public B map(A source, B destination, MappingContext context) {
+        if (destination == null) {
+            throw new MappingException("[destinationObject] can not be null.");
+        }
+        if (source == null) {
+            throw new MappingException("[sourceObject] can not be null.");
+        }
+        B existingResult = context.getMappedObject(source, bType);
+        if (existingResult != null) {
+            return destination;
+        }
+        try {
+            ResolvedStrategy resolved = inPlaceStrategy;
+            if (resolved == null || resolved.sourceClass != source.getClass() || resolved.generation != mapperFacade.getStrategyGeneration()) {
+                resolved = resolve(source, true, context);
+                inPlaceStrategy = resolved;
+            }
+            resolved.strategy.map(source, destination, context);
+            return destination;
+        } catch (MappingException e) {
+            /* don't wrap our own exceptions */
+            throw e;
+        } catch (RuntimeException e) {
+            throw new MappingException("Error encountered while mapping for the following inputs: " + "\nrawSource=" + source
+                    + "\nsourceClass=" + source.getClass() + "\nsourceType=" + aType + "\nrawDestination=" + destination
+                    + "\ndestinationClass=" + destination.getClass() + "\ndestinationType=" + bType, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResolvedStrategy resolve(A source, boolean mapInPlace, MappingContext context) {
+        int generation = mapperFacade.getStrategyGeneration();
+        MappingStrategy strategy = mapperFacade.resolveMappingStrategy(source, (Type<Object>) aType, (Type<Object>) bType, mapInPlace,
+                context);
+        return new ResolvedStrategy(source.getClass(), generation, strategy);
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "(" + aType + ", " + bType + ")";
+    }
+
+    /**
+     * Pairs a resolved strategy with the source class (and the strategy
+     * generation) for which it was resolved, so that they may be published
+     * atomically
+     */
+    private static final class ResolvedStrategy {
+        private final Class<?> sourceClass;
+        private final int generation;
+        private final MappingStrategy strategy;
+
+        private ResolvedStrategy(Class<?> sourceClass, int generation, MappingStrategy strategy) {
+            this.sourceClass = sourceClass;
+            this.generation = generation;
+            this.strategy = strategy;
+        }
+    }
+}
@@ -34,16 +34,30 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import ma.glasnost.orika.BoundMapper;
 import ma.glasnost.orika.DefaultFieldMapper;
 import ma.glasnost.orika.MapEntry;
 import ma.glasnost.orika.Mapper;
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.MapperFactory;
 import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
 import ma.glasnost.orika.MappingException;
 import ma.glasnost.orika.ObjectFactory;
+import ma.glasnost.orika.OrikaSystemProperties;
 import ma.glasnost.orika.constructor.ConstructorResolverStrategy;
 import ma.glasnost.orika.converter.ConverterFactory;
 import ma.glasnost.orika.converter.builtin.BuiltinConverters;
@@ -51,6 +65,7 @@ import ma.glasnost.orika.impl.generator.CompilerStrategy;
 import ma.glasnost.orika.impl.generator.CompilerStrategy.SourceCodeGenerationException;
 import ma.glasnost.orika.impl.generator.MapperGenerator;
 import ma.glasnost.orika.impl.generator.ObjectFactoryGenerator;
+import ma.glasnost.orika.impl.generator.ProfiledTypesContext;
 import ma.glasnost.orika.impl.util.ClassUtil;
 import ma.glasnost.orika.inheritance.DefaultSuperTypeResolverStrategy;
 import ma.glasnost.orika.inheritance.SuperTypeResolverStrategy;
@@ -79,12 +94,13 @@ public class DefaultMapperFactory implements MapperFactory {
     
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultMapperFactory.class);
     
-    private final MapperFacade mapperFacade;
+    private final MapperFacadeImpl mapperFacade;
     private final MapperGenerator mapperGenerator;
     private final ObjectFactoryGenerator objectFactoryGenerator;
     
     private final Map<MapperKey, ClassMap<Object, Object>> classMapRegistry;
     private final Map<MapperKey, Mapper<?, ?>> mappersRegistry;
+    private final RegisteredMapperIndex mapperIndex;
     private final ConcurrentHashMap<Type<? extends Object>, ObjectFactory<? extends Object>> objectFactoryRegistry;
     private final Map<Type<?>, Set<Type<?>>> aToBRegistry;
     private final List<DefaultFieldMapper> defaultFieldMappers;
@@ -95,8 +111,31 @@ public class DefaultMapperFactory implements MapperFactory {
     private final Map<java.lang.reflect.Type, Type<?>> concreteTypeRegistry;
     private final ClassMapBuilderFactory classMapBuilderFactory;
     private final Map<MapperKey, Set<ClassMap<Object, Object>>> usedMapperMetadataRegistry;
+    private final ExecutorService buildExecutor;
+    /*
+     * The executor on which profiled mappers are regenerated, so that the
+     * thread whose mapping reaches the threshold does not pay for it
+     */
+    private final ExecutorService regenerationExecutor;
+    
+    /*
+     * The generations of missing mappers and object factories which are in
+     * progress; a thread which needs one that is already being generated waits
+     * for that generation, while those for other keys proceed concurrently
+     */
+    private final ConcurrentHashMap<MapperKey, Generation<Void>> mapperGenerations = new ConcurrentHashMap<MapperKey, Generation<Void>>();
+    private final ConcurrentHashMap<Type<?>, Generation<ObjectFactory<?>>> objectFactoryGenerations = new ConcurrentHashMap<Type<?>, Generation<ObjectFactory<?>>>();
+    
+    /*
+     * The proper super-types of the types of the registered class-maps and
+     * mappers, which is computed upon first use and kept until a class-map or
+     * mapper is registered for a new pair of types
+     */
+    private final AtomicInteger registeredTypesVersion = new AtomicInteger();
+    private volatile RegisteredSupertypes registeredSupertypes;
     
     private final boolean useAutoMapping;
+    private final int tieredCompilationThreshold;
     private volatile boolean isBuilt = false;
     private volatile boolean isBuilding = false;
     
@@ -121,12 +160,13 @@ public class DefaultMapperFactory implements MapperFactory {
         this.compilerStrategy = builder.compilerStrategy;
         this.classMapRegistry = new ConcurrentHashMap<MapperKey, ClassMap<Object, Object>>();
         this.mappersRegistry = new TreeMap<MapperKey, Mapper<?, ?>>();
+        this.mapperIndex = new RegisteredMapperIndex(mappersRegistry);
         this.aToBRegistry = new ConcurrentHashMap<Type<?>, Set<Type<?>>>();
         this.usedMapperMetadataRegistry = new ConcurrentHashMap<MapperKey, Set<ClassMap<Object, Object>>>();
         this.objectFactoryRegistry = new ConcurrentHashMap<Type<? extends Object>, ObjectFactory<? extends Object>>();
         this.defaultFieldMappers = new CopyOnWriteArrayList<DefaultFieldMapper>();
         this.unenhanceStrategy = buildUnenhanceStrategy(builder.unenhanceStrategy, builder.superTypeStrategy);
-        this.mapperFacade = new MapperFacadeImpl(this, unenhanceStrategy);
+        this.mapperFacade = new MapperFacadeImpl(this, unenhanceStrategy, builder.mappingContextFactory);
         this.concreteTypeRegistry = new ConcurrentHashMap<java.lang.reflect.Type, Type<?>>();
         
         if (builder.classMaps != null) {
@@ -138,9 +178,18 @@ public class DefaultMapperFactory implements MapperFactory {
         this.propertyResolverStrategy = builder.propertyResolverStrategy;
         this.classMapBuilderFactory = builder.classMapBuilderFactory;
         this.classMapBuilderFactory.setPropertyResolver(this.propertyResolverStrategy);
-        this.mapperGenerator = new MapperGenerator(this, builder.compilerStrategy);
+        this.mapperGenerator = new MapperGenerator(this, builder.compilerStrategy, builder.nestedMappingInlineDepth);
         this.objectFactoryGenerator = new ObjectFactoryGenerator(this, builder.constructorResolverStrategy, builder.compilerStrategy);
         this.useAutoMapping = builder.useAutoMapping;
+        this.buildExecutor = builder.buildExecutor;
+        this.tieredCompilationThreshold = builder.tieredCompilationThreshold;
+        if (tieredCompilationThreshold <= 0) {
+            this.regenerationExecutor = null;
+        } else if (buildExecutor != null) {
+            this.regenerationExecutor = buildExecutor;
+        } else {
+            this.regenerationExecutor = newRegenerationExecutor();
+        }
         
         if (builder.useBuiltinConverters) {
             BuiltinConverters.register(converterFactory);
@@ -203,6 +252,10 @@ public class DefaultMapperFactory implements MapperFactory {
          * The ClassMapBuilderFactory configured for the MapperFactory
          */
         protected ClassMapBuilderFactory classMapBuilderFactory;
+        /**
+         * The MappingContextFactory configured for the MapperFactory
+         */
+        protected MappingContextFactory mappingContextFactory;
         /**
          * The configured value of whether or not to use built-in converters for
          * the MapperFactory
@@ -213,6 +266,22 @@ public class DefaultMapperFactory implements MapperFactory {
          * MapperFactory
          */
         protected boolean useAutoMapping = true;
+        /**
+         * The executor used to compile the generated mappers during build, or
+         * null if they should be compiled serially
+         */
+        protected ExecutorService buildExecutor;
+        /**
+         * The maximum length of a chain of nested mappings which the generated
+         * mappers dispatch directly to one another
+         */
+        protected int nestedMappingInlineDepth;
+        
+        /**
+         * The number of invocations after which a generated mapper is
+         * regenerated according to its runtime profile
+         */
+        protected int tieredCompilationThreshold;
         
         /**
          * Instantiates a new MapperFactoryBuilder
@@ -223,6 +292,9 @@ public class DefaultMapperFactory implements MapperFactory {
             compilerStrategy = UtilityResolver.getDefaultCompilerStrategy();
             propertyResolverStrategy = UtilityResolver.getDefaultPropertyResolverStrategy();
             classMapBuilderFactory = UtilityResolver.getDefaultClassMapBuilderFactory();
+            mappingContextFactory = UtilityResolver.getDefaultMappingContextFactory();
+            nestedMappingInlineDepth = Integer.parseInt(System.getProperty(OrikaSystemProperties.NESTED_MAPPING_INLINE_DEPTH, "0"));
+            tieredCompilationThreshold = Integer.parseInt(System.getProperty(OrikaSystemProperties.TIERED_COMPILATION_THRESHOLD, "0"));
         }
         
         /**
@@ -302,6 +374,19 @@ public class DefaultMapperFactory implements MapperFactory {
             return self();
         }
         
+        /**
+         * Configure the MappingContextFactory used by the generated
+         * MapperFactory's MapperFacade to obtain a MappingContext for mapping
+         * requests made without one
+         * 
+         * @param mappingContextFactory
+         * @return a reference to <code>this</code> MapperFactoryBuilder
+         */
+        public B mappingContextFactory(MappingContextFactory mappingContextFactory) {
+            this.mappingContextFactory = mappingContextFactory;
+            return self();
+        }
+        
         /**
          * Configure the PropertyResolverStrategy to use with the generated
          * MapperFactory
@@ -350,6 +435,67 @@ public class DefaultMapperFactory implements MapperFactory {
             return self();
         }
         
+        /**
+         * Configure an executor on which the generated MapperFactory should
+         * compile the mappers for the registered class-maps when it is built;
+         * the source of each mapper is still generated in registration order,
+         * so the resulting mappers are the same as for a serial build. With
+         * tiered generation, mappers are also regenerated on this executor.<br>
+         * The executor is not shut down by the MapperFactory.
+         * 
+         * @param buildExecutor
+         *            the executor to use, or null to build serially (the
+         *            default)
+         * @return a reference to <code>this</code> MapperFactoryBuilder
+         */
+        public B buildExecutor(ExecutorService buildExecutor) {
+            this.buildExecutor = buildExecutor;
+            return self();
+        }
+        
+        /**
+         * Configure how deeply the generated mappers should dispatch the
+         * mapping of nested objects directly to the mapper (and object factory)
+         * resolved for them, rather than through the MapperFacade.<br>
+         * This applies to nested properties whose source type is final, since
+         * the resolved mapper cannot then vary with the runtime class; the
+         * depth is the maximum length of a chain of such direct calls, which
+         * keeps the generated call chains small enough for the JIT to inline.
+         * 
+         * @param nestedMappingInlineDepth
+         *            the maximum depth, or 0 to always map nested objects
+         *            through the MapperFacade (the default)
+         * @return a reference to <code>this</code> MapperFactoryBuilder
+         */
+        public B nestedMappingInlineDepth(int nestedMappingInlineDepth) {
+            this.nestedMappingInlineDepth = nestedMappingInlineDepth;
+            return self();
+        }
+        
+        /**
+         * Configure tiered generation of mappers: each generated mapper first
+         * records the runtime classes of the nested objects it maps through
+         * the MapperFacade, and once it has been invoked the specified number
+         * of times, it is regenerated with fast paths (guarded by the class)
+         * which dispatch directly to the mapper resolved for each class which
+         * was the only one observed; the regenerated mapper then replaces the
+         * original.<br>
+         * Mappers are regenerated in the background, on the build executor if
+         * one is configured, or else on a single daemon thread (which is only
+         * kept alive while there are mappers to regenerate); the original
+         * mapper is used until its replacement is ready.
+         * 
+         * @param tieredCompilationThreshold
+         *            the number of invocations after which a mapper is
+         *            regenerated, or 0 to disable tiered generation (the
+         *            default)
+         * @return a reference to <code>this</code> MapperFactoryBuilder
+         */
+        public B tieredCompilationThreshold(int tieredCompilationThreshold) {
+            this.tieredCompilationThreshold = tieredCompilationThreshold;
+            return self();
+        }
+        
         /**
          * @return a new instance of the Factory for which this builder is
          *         defined. The construction should be performed via the
@@ -494,57 +640,181 @@ public class DefaultMapperFactory implements MapperFactory {
         
     }
     
-    public Mapper<Object, Object> lookupMapper(MapperKey mapperKey) {
+    public Mapper<Object, Object> lookupMapper(final MapperKey mapperKey) {
         if (!existsRegisteredMapper(mapperKey.getAType(), mapperKey.getBType(), true)) {
             if (useAutoMapping) {
-                synchronized (this) {
-                    try {
-                        /*
-                         * We shouldn't create a mapper for an immutable type;
-                         * although it will succeed in generating an empty
-                         * mapper, it won't actually result in a valid mapping,
-                         * so it's better to throw an exception to indicate more
-                         * clearly that something went wrong. However, there is
-                         * a possibility that a custom ObjectFactory was
-                         * registered for the immutable type, which would be
-                         * valid.
-                         */
-                        if (ClassUtil.isImmutable(mapperKey.getBType()) && !objectFactoryRegistry.containsKey(mapperKey.getBType())) {
-                            throw new MappingException("No converter registered for conversion from " + mapperKey.getAType() + " to "
-                                    + mapperKey.getBType() + ", nor any ObjectFactory which can generate " + mapperKey.getBType()
-                                    + " from " + mapperKey.getAType());
-                        }
-                        
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("No mapper registered for " + mapperKey + ": attempting to generate");
+                generateOnce(mapperGenerations, mapperKey, new Callable<Void>() {
+                    public Void call() {
+                        if (existsRegisteredMapper(mapperKey.getAType(), mapperKey.getBType(), true)) {
+                            /* generated by a generation which has just completed */
+                            return null;
                         }
-                        final ClassMap<?, ?> classMap = classMap(mapperKey.getAType(), mapperKey.getBType()).byDefault().toClassMap();
-                        buildObjectFactories(classMap);
-                        buildMapper(classMap, true);
-                        initializeUsedMappers(classMap);
-                    } catch (MappingException e) {
-                        e.setSourceType(mapperKey.getAType());
-                        e.setDestinationType(mapperKey.getBType());
-                        throw e;
+                        generateMapper(mapperKey);
+                        return null;
                     }
-                }
+                });
             }
         }
         return getRegisteredMapper(mapperKey);
     }
     
+    private void generateMapper(MapperKey mapperKey) {
+        try {
+            /*
+             * We shouldn't create a mapper for an immutable type;
+             * although it will succeed in generating an empty
+             * mapper, it won't actually result in a valid mapping,
+             * so it's better to throw an exception to indicate more
+             * clearly that something went wrong. However, there is
+             * a possibility that a custom ObjectFactory was
+             * registered for the immutable type, which would be
+             * valid.
+             */
+            if (ClassUtil.isImmutable(mapperKey.getBType()) && !objectFactoryRegistry.containsKey(mapperKey.getBType())) {
+                throw new MappingException("No converter registered for conversion from " + mapperKey.getAType() + " to "
+                        + mapperKey.getBType() + ", nor any ObjectFactory which can generate " + mapperKey.getBType()
+                        + " from " + mapperKey.getAType());
+            }
+            
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("No mapper registered for " + mapperKey + ": attempting to generate");
+            }
+            final ClassMap<?, ?> classMap = classMap(mapperKey.getAType(), mapperKey.getBType()).byDefault().toClassMap();
+            buildObjectFactories(classMap);
+            buildMapper(classMap, true);
+            initializeUsedMappers(classMap);
+        } catch (MappingException e) {
+            e.setSourceType(mapperKey.getAType());
+            e.setDestinationType(mapperKey.getBType());
+            throw e;
+        }
+    }
+    
+    /**
+     * Runs the generation for the specified key, unless another thread is
+     * already running one, in which case its outcome is awaited instead; a
+     * nested request for a key whose generation is being run by the current
+     * thread runs a generation of its own, as it would otherwise wait for
+     * itself.
+     * 
+     * @param generations
+     *            the generations in progress
+     * @param key
+     *            the key of the object to generate
+     * @param generator
+     *            generates the object (and registers it)
+     * @return the result of the generation
+     */
+    private static <K, T> T generateOnce(ConcurrentHashMap<K, Generation<T>> generations, K key, Callable<T> generator) {
+        Generation<T> generation = new Generation<T>(generator);
+        Generation<T> inProgress = generations.putIfAbsent(key, generation);
+        if (inProgress == null) {
+            try {
+                generation.run();
+            } finally {
+                generations.remove(key, generation);
+            }
+        } else if (inProgress.owner == Thread.currentThread()) {
+            generation.run();
+        } else {
+            generation = inProgress;
+        }
+        return awaitCompilation(generation);
+    }
+    
+    /**
+     * Generation is the task generating a missing mapper or object factory,
+     * which records the thread running it.
+     */
+    private static final class Generation<T> extends FutureTask<T> {
+        
+        private final Thread owner = Thread.currentThread();
+        
+        private Generation(Callable<T> generator) {
+            super(generator);
+        }
+    }
+    
     public boolean existsRegisteredMapper(Type<?> sourceType, Type<?> destinationType, boolean includeAutoGeneratedMappers) {
-        for (Mapper<?, ?> mapper : mappersRegistry.values()) {
-            if ((mapper.getAType().isAssignableFrom(sourceType) && mapper.getBType().isAssignableFrom(destinationType))
-                    || (mapper.getAType().isAssignableFrom(destinationType) && mapper.getBType().isAssignableFrom(sourceType))) {
-                if (includeAutoGeneratedMappers || !(mapper instanceof GeneratedMapperBase)) {
-                    return true;
-                } else if ((mapper instanceof GeneratedMapperBase) && !((GeneratedMapperBase) mapper).isFromAutoMapping()) {
-                    return true;
+        return mapperIndex.find(sourceType, destinationType, includeAutoGeneratedMappers) != null;
+    }
+    
+    /**
+     * Tests whether a class-map or mapper has been registered for a proper
+     * subtype of the specified type (on either side of the mapping); the
+     * super-types of the registered types are collected once, and again only
+     * after a class-map or mapper is registered for a new pair of types.
+     * 
+     * @param type
+     *            the type for which to look for registered subtypes
+     * @return true if such a class-map or mapper is registered
+     */
+    public boolean existsRegisteredSubtype(Type<?> type) {
+        RegisteredSupertypes supertypes = registeredSupertypes;
+        int version = registeredTypesVersion.get();
+        if (supertypes == null || supertypes.version != version) {
+            Set<Class<?>> types = new HashSet<Class<?>>();
+            for (MapperKey key : classMapRegistry.keySet()) {
+                collectProperSupertypes(key.getAType().getRawType(), types);
+                collectProperSupertypes(key.getBType().getRawType(), types);
+            }
+            synchronized (mappersRegistry) {
+                for (MapperKey key : mappersRegistry.keySet()) {
+                    collectProperSupertypes(key.getAType().getRawType(), types);
+                    collectProperSupertypes(key.getBType().getRawType(), types);
                 }
             }
+            supertypes = new RegisteredSupertypes(version, types);
+            registeredSupertypes = supertypes;
+        }
+        return supertypes.types.contains(type.getRawType());
+    }
+    
+    private static void collectProperSupertypes(Class<?> type, Set<Class<?>> supertypes) {
+        if (!type.isPrimitive() && !type.equals(Object.class)) {
+            supertypes.add(Object.class);
+        }
+        Class<?> superType = type.getSuperclass();
+        if (superType != null && supertypes.add(superType)) {
+            collectProperSupertypes(superType, supertypes);
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            if (supertypes.add(anInterface)) {
+                collectProperSupertypes(anInterface, supertypes);
+            }
         }
-        return false;
+    }
+    
+    /**
+     * Discards the registered super-types, when a class-map or mapper has been
+     * registered for a new pair of types
+     */
+    private void registeredTypesChanged() {
+        registeredTypesVersion.incrementAndGet();
+    }
+    
+    /**
+     * RegisteredSupertypes holds the proper super-types of the registered
+     * types, as of a given version of the registries
+     */
+    private static final class RegisteredSupertypes {
+        
+        private final int version;
+        private final Set<Class<?>> types;
+        
+        private RegisteredSupertypes(int version, Set<Class<?>> types) {
+            this.version = version;
+            this.types = types;
+        }
+    }
+    
+    /**
+     * @return the index used to look up registered mappers, which reports how
+     *         often lookups are answered by an exact match, by an assignable
+     *         match, or not at all
+     */
+    public RegisteredMapperIndex getRegisteredMapperIndex() {
+        return mapperIndex;
     }
     
     /**
@@ -563,13 +833,7 @@ public class DefaultMapperFactory implements MapperFactory {
      */
     @SuppressWarnings("unchecked")
     protected <A, B> Mapper<A, B> getRegisteredMapper(Type<A> typeA, Type<B> typeB) {
-        for (Mapper<?, ?> mapper : mappersRegistry.values()) {
-            if ((mapper.getAType().isAssignableFrom(typeA) && mapper.getBType().isAssignableFrom(typeB))
-                    || (mapper.getAType().isAssignableFrom(typeB) && mapper.getBType().isAssignableFrom(typeA))) {
-                return (Mapper<A, B>) mapper;
-            }
-        }
-        return null;
+        return (Mapper<A, B>) mapperIndex.find(typeA, typeB, true);
     }
     
     /*
@@ -592,6 +856,16 @@ public class DefaultMapperFactory implements MapperFactory {
         return mapperFacade;
     }
     
+    /*
+     * (non-Javadoc)
+     * 
+     * @see ma.glasnost.orika.MapperFactory#getBoundMapper(ma.glasnost.orika.metadata.Type, ma.glasnost.orika.metadata.Type)
+     */
+    public <A, B> BoundMapper<A, B> getBoundMapper(Type<A> sourceType, Type<B> destinationType) {
+        getMapperFacade();
+        return new DefaultBoundMapper<A, B>(mapperFacade, sourceType, destinationType);
+    }
+    
     public <D> void registerObjectFactory(ObjectFactory<D> objectFactory, Type<D> destinationType) {
         objectFactoryRegistry.put(destinationType, objectFactory);
     }
@@ -619,53 +893,18 @@ public class DefaultMapperFactory implements MapperFactory {
     }
     
     @SuppressWarnings("unchecked")
-    public <T> ObjectFactory<T> lookupObjectFactory(Type<T> targetType) {
+    public <T> ObjectFactory<T> lookupObjectFactory(final Type<T> targetType) {
         if (targetType == null) {
             return null;
         }
         
         ObjectFactory<T> result = (ObjectFactory<T>) objectFactoryRegistry.get(targetType);
         if (result == null) {
-            // Check if we can use default constructor...
-            synchronized (this) {
-                Constructor<?>[] constructors = targetType.getRawType().getConstructors();
-                if (useAutoMapping || !isBuilt) {
-                    if (constructors.length == 1 && constructors[0].getParameterTypes().length == 0) {
-                        /*
-                         * Use the default constructor in the case where it is
-                         * the only option
-                         */
-                        result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
-                    } else {
-                        try {
-                            result = (ObjectFactory<T>) objectFactoryGenerator.build(targetType);
-                        } catch (MappingException e) {
-                            for (Constructor<?> c : constructors) {
-                                if (c.getParameterTypes().length == 0) {
-                                    result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
-                                    break;
-                                }
-                            }
-                            if (result == null) {
-                                throw e;
-                            }
-                        }
-                    }
-                    ObjectFactory<T> existing = (ObjectFactory<T>) objectFactoryRegistry.putIfAbsent(targetType, result);
-                    if (existing != null) {
-                        result = existing;
-                    }
-                    
-                } else {
-                    for (Constructor<?> constructor : constructors) {
-                        if (constructor.getParameterTypes().length == 0) {
-                            result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
-                            break;
-                        }
-                    }
+            result = (ObjectFactory<T>) generateOnce(objectFactoryGenerations, targetType, new Callable<ObjectFactory<?>>() {
+                public ObjectFactory<?> call() {
+                    return generateObjectFactory(targetType);
                 }
-                
-            }
+            });
         }
         
         if (USE_DEFAULT_CONSTRUCTOR.equals(result)) {
@@ -675,6 +914,54 @@ public class DefaultMapperFactory implements MapperFactory {
         return result;
     }
     
+    @SuppressWarnings("unchecked")
+    private <T> ObjectFactory<T> generateObjectFactory(Type<T> targetType) {
+        ObjectFactory<T> result = (ObjectFactory<T>) objectFactoryRegistry.get(targetType);
+        if (result != null) {
+            /* generated by a generation which has just completed */
+            return result;
+        }
+        
+        // Check if we can use default constructor...
+        Constructor<?>[] constructors = targetType.getRawType().getConstructors();
+        if (useAutoMapping || !isBuilt) {
+            if (constructors.length == 1 && constructors[0].getParameterTypes().length == 0) {
+                /*
+                 * Use the default constructor in the case where it is
+                 * the only option
+                 */
+                result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
+            } else {
+                try {
+                    result = (ObjectFactory<T>) objectFactoryGenerator.build(targetType);
+                } catch (MappingException e) {
+                    for (Constructor<?> c : constructors) {
+                        if (c.getParameterTypes().length == 0) {
+                            result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
+                            break;
+                        }
+                    }
+                    if (result == null) {
+                        throw e;
+                    }
+                }
+            }
+            ObjectFactory<T> existing = (ObjectFactory<T>) objectFactoryRegistry.putIfAbsent(targetType, result);
+            if (existing != null) {
+                result = existing;
+            }
+            
+        } else {
+            for (Constructor<?> constructor : constructors) {
+                if (constructor.getParameterTypes().length == 0) {
+                    result = (ObjectFactory<T>) USE_DEFAULT_CONSTRUCTOR;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+    
     @SuppressWarnings("unchecked")
     public <S, D> Type<? extends D> lookupConcreteDestinationType(Type<S> sourceType, Type<D> destinationType, MappingContext context) {
         
@@ -753,7 +1040,9 @@ public class DefaultMapperFactory implements MapperFactory {
     
     @SuppressWarnings("unchecked")
     public <A, B> void registerClassMap(ClassMap<A, B> classMap) {
-        classMapRegistry.put(new MapperKey(classMap.getAType(), classMap.getBType()), (ClassMap<Object, Object>) classMap);
+        if (classMapRegistry.put(new MapperKey(classMap.getAType(), classMap.getBType()), (ClassMap<Object, Object>) classMap) == null) {
+            registeredTypesChanged();
+        }
         if (isBuilding || isBuilt) {
             buildMapper(classMap, /* isAutoGenerated== */isBuilding);
             
@@ -775,8 +1064,12 @@ public class DefaultMapperFactory implements MapperFactory {
             
             buildClassMapRegistry();
             
-            for (final ClassMap<?, ?> classMap : classMapRegistry.values()) {
-                buildMapper(classMap, false);
+            if (buildExecutor == null) {
+                for (final ClassMap<?, ?> classMap : classMapRegistry.values()) {
+                    buildMapper(classMap, false);
+                }
+            } else {
+                buildMappersConcurrently();
             }
             
             for (final ClassMap<?, ?> classMap : classMapRegistry.values()) {
@@ -858,7 +1151,7 @@ public class DefaultMapperFactory implements MapperFactory {
     @SuppressWarnings("unchecked")
     private void initializeUsedMappers(ClassMap<?, ?> classMap) {
         
-        Mapper<Object, Object> mapper = lookupMapper(new MapperKey(classMap.getAType(), classMap.getBType()));
+        Mapper<Object, Object> mapper = lookupClassMapMapper(new MapperKey(classMap.getAType(), classMap.getBType()));
         
         List<Mapper<Object, Object>> parentMappers = new ArrayList<Mapper<Object, Object>>();
         
@@ -895,7 +1188,7 @@ public class DefaultMapperFactory implements MapperFactory {
     }
     
     private void collectUsedMappers(ClassMap<?, ?> classMap, List<Mapper<Object, Object>> parentMappers, MapperKey parentMapperKey) {
-        Mapper<Object, Object> parentMapper = lookupMapper(parentMapperKey);
+        Mapper<Object, Object> parentMapper = lookupClassMapMapper(parentMapperKey);
         if (parentMapper == null) {
             throw new MappingException("Cannot find used mappers for : " + classMap.getMapperClassName());
         }
@@ -909,21 +1202,269 @@ public class DefaultMapperFactory implements MapperFactory {
         }
     }
     
+    /**
+     * Looks up the mapper built for the class-map with the specified key.<br>
+     * The ordering of the registry is not consistent for unrelated keys, so a
+     * more general mapper may precede the one registered for the key itself;
+     * {@link #lookupMapper(MapperKey)} would return that mapper, and wiring it
+     * as (or into) its own used mappers would make it call itself.
+     */
     @SuppressWarnings("unchecked")
+    private Mapper<Object, Object> lookupClassMapMapper(MapperKey mapperKey) {
+        Mapper<Object, Object> mapper = (Mapper<Object, Object>) mapperIndex.findExact(mapperKey.getAType(), mapperKey.getBType());
+        return mapper != null ? mapper : lookupMapper(mapperKey);
+    }
+    
     private void buildMapper(ClassMap<?, ?> classMap, boolean isAutoGenerated) {
         register(classMap.getAType(), classMap.getBType());
         register(classMap.getBType(), classMap.getAType());
         
+        registerGeneratedMapper(classMap, this.mapperGenerator.build(classMap, newProfiledTypesContext()), isAutoGenerated, null);
+    }
+    
+    /**
+     * Builds the mappers for the registered class-maps, compiling them on the
+     * configured build executor.<br>
+     * <br>
+     * The source for each mapper is generated on the calling thread, in the
+     * same order as for a serial build; since the generated source depends
+     * upon which mappers are already registered, a place-holder is registered
+     * for each class-map as its source is generated, and replaced by the
+     * compiled mapper once all of the compilations have completed. The used
+     * mappers are initialized afterwards, as they are for a serial build.
+     */
+    private void buildMappersConcurrently() {
+        
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final List<Future<GeneratedMapperBase>> compilations = new ArrayList<Future<GeneratedMapperBase>>();
+        final List<ClassMap<?, ?>> classMaps = new ArrayList<ClassMap<?, ?>>();
+        final List<PendingMapper> pendingMappers = new ArrayList<PendingMapper>();
+        
+        for (final ClassMap<?, ?> classMap : classMapRegistry.values()) {
+            register(classMap.getAType(), classMap.getBType());
+            register(classMap.getBType(), classMap.getAType());
+            
+            final MapperGenerator.MapperSource source = mapperGenerator.generateSource(classMap, newProfiledTypesContext());
+            PendingMapper pendingMapper = new PendingMapper(classMap);
+            mapperIndex.register(new MapperKey(classMap.getAType(), classMap.getBType()), pendingMapper);
+            
+            classMaps.add(classMap);
+            pendingMappers.add(pendingMapper);
+            compilations.add(buildExecutor.submit(new Callable<GeneratedMapperBase>() {
+                public GeneratedMapperBase call() {
+                    /*
+                     * The compiler strategy resolves (and defines) classes using
+                     * the context class-loader of the current thread
+                     */
+                    Thread currentThread = Thread.currentThread();
+                    ClassLoader original = currentThread.getContextClassLoader();
+                    currentThread.setContextClassLoader(contextClassLoader);
+                    try {
+                        return mapperGenerator.compile(source);
+                    } finally {
+                        currentThread.setContextClassLoader(original);
+                    }
+                }
+            }));
+        }
+        
+        for (int i = 0, len = classMaps.size(); i < len; ++i) {
+            registerGeneratedMapper(classMaps.get(i), awaitCompilation(compilations.get(i)), false, pendingMappers.get(i));
+        }
+    }
+    
+    private static <T> T awaitCompilation(Future<T> compilation) {
+        try {
+            return compilation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while waiting for mappers to be compiled", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MappingException(cause);
+        }
+    }
+    
+    /**
+     * PendingMapper stands in for a mapper which is being compiled during a
+     * concurrent build; it is only registered so that the mapper is seen to
+     * exist while generating the source of the remaining mappers, and is
+     * never used to perform a mapping.
+     */
+    private static final class PendingMapper extends GeneratedMapperBase {
+        
+        private PendingMapper(ClassMap<?, ?> classMap) {
+            setAType(classMap.getAType());
+            setBType(classMap.getBType());
+        }
+        
+        public void mapAtoB(Object a, Object b, MappingContext context) {
+            throw new IllegalStateException(this + " is still being compiled");
+        }
+        
+        public void mapBtoA(Object b, Object a, MappingContext context) {
+            throw new IllegalStateException(this + " is still being compiled");
+        }
+    }
+    
+    /**
+     * Registers a newly generated mapper for the specified class-map
+     * 
+     * @param classMap
+     * @param mapper
+     * @param isAutoGenerated
+     * @param pendingMapper
+     *            the place-holder registered for the mapper while it was
+     *            compiled, if any, which the mapper should replace
+     */
+    @SuppressWarnings("unchecked")
+    private void registerGeneratedMapper(ClassMap<?, ?> classMap, GeneratedMapperBase mapper, boolean isAutoGenerated,
+            PendingMapper pendingMapper) {
         final MapperKey mapperKey = new MapperKey(classMap.getAType(), classMap.getBType());
-        final GeneratedMapperBase mapper = this.mapperGenerator.build(classMap);
         mapper.setMapperFacade(mapperFacade);
         mapper.setFromAutoMapping(isAutoGenerated);
         if (classMap.getCustomizedMapper() != null) {
             final Mapper<Object, Object> customizedMapper = (Mapper<Object, Object>) classMap.getCustomizedMapper();
             mapper.setCustomMapper(customizedMapper);
         }
-        mappersRegistry.put(mapperKey, mapper);
-        classMapRegistry.put(mapperKey, (ClassMap<Object, Object>) classMap);
+        if (mapper.getProfiledTypes() != null) {
+            mapper.setProfile(new MapperProfile(this, mapper.getProfiledTypes().length, tieredCompilationThreshold));
+        }
+        if (pendingMapper != null) {
+            mapperIndex.replace(pendingMapper, mapper);
+        } else {
+            mapperIndex.register(mapperKey, mapper);
+        }
+        if (classMapRegistry.put(mapperKey, (ClassMap<Object, Object>) classMap) == null) {
+            registeredTypesChanged();
+        }
+    }
+    
+    /**
+     * @return a context for generating a profiling mapper, or null if tiered
+     *         generation is disabled
+     */
+    private ProfiledTypesContext newProfiledTypesContext() {
+        return tieredCompilationThreshold > 0 ? new ProfiledTypesContext() : null;
+    }
+    
+    /**
+     * @return an executor with a single daemon thread, which terminates once
+     *         it has been idle for a minute
+     */
+    private static ExecutorService newRegenerationExecutor() {
+        return new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Orika mapper regeneration");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * Schedules the regeneration of a mapper according to the runtime profile
+     * it has collected; the mapper stops profiling immediately, but is only
+     * replaced once its regeneration is complete, so the calling thread (which
+     * is in the middle of a mapping) is not held up.
+     * 
+     * @param mapper
+     *            the mapper to regenerate
+     * @param profile
+     *            the profile collected by the mapper
+     */
+    void regenerateMapper(final GeneratedMapperBase mapper, final MapperProfile profile) {
+        mapper.setProfile(null);
+        
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            regenerationExecutor.execute(new Runnable() {
+                public void run() {
+                    /*
+                     * The compiler strategy resolves (and defines) classes using
+                     * the context class-loader of the current thread
+                     */
+                    Thread currentThread = Thread.currentThread();
+                    ClassLoader original = currentThread.getContextClassLoader();
+                    currentThread.setContextClassLoader(contextClassLoader);
+                    try {
+                        replaceWithRegeneratedMapper(mapper, profile);
+                    } finally {
+                        currentThread.setContextClassLoader(original);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not schedule the regeneration of " + mapper + "; the original is kept", e);
+        }
+    }
+    
+    /**
+     * Regenerates a mapper according to the runtime profile it has collected,
+     * and replaces it with the regenerated mapper, both in the registry and
+     * wherever it is used by another mapper; the cached mapping strategies
+     * which use the original are discarded, so that they are resolved again
+     * using the replacement.<br>
+     * The arrays of used mappers are never modified in place: a mapper which
+     * uses the original is given an updated copy, published through a
+     * volatile field, so that a concurrent mapping sees either array whole.<br>
+     * The original mapper remains valid (and is still used by any mapping
+     * already in progress), so a failure to regenerate is only logged.
+     * 
+     * @param mapper
+     *            the mapper to regenerate
+     * @param profile
+     *            the profile collected by the mapper
+     */
+    @SuppressWarnings("unchecked")
+    private void replaceWithRegeneratedMapper(GeneratedMapperBase mapper, MapperProfile profile) {
+        ClassMap<?, ?> classMap = classMapRegistry.get(new MapperKey(mapper.getAType(), mapper.getBType()));
+        if (classMap == null) {
+            return;
+        }
+        try {
+            GeneratedMapperBase regenerated = mapperGenerator.build(classMap,
+                    new ProfiledTypesContext(mapper.getProfiledTypes(), profile.getObservedClasses()));
+            regenerated.setMapperFacade(mapperFacade);
+            regenerated.setFromAutoMapping(mapper.isFromAutoMapping());
+            if (classMap.getCustomizedMapper() != null) {
+                regenerated.setCustomMapper((Mapper<Object, Object>) classMap.getCustomizedMapper());
+            }
+            regenerated.setUsedMappers(mapper.getUsedMappers());
+            
+            mapperIndex.replace(mapper, regenerated);
+            synchronized (mappersRegistry) {
+                for (Mapper<?, ?> registered : mappersRegistry.values()) {
+                    if (registered instanceof GeneratedMapperBase) {
+                        Mapper<Object, Object>[] usedMappers = ((GeneratedMapperBase) registered).getUsedMappers();
+                        Mapper<Object, Object>[] updated = null;
+                        for (int i = 0; usedMappers != null && i < usedMappers.length; ++i) {
+                            if (usedMappers[i] == mapper) {
+                                if (updated == null) {
+                                    updated = usedMappers.clone();
+                                }
+                                updated[i] = regenerated;
+                            }
+                        }
+                        if (updated != null) {
+                            ((GeneratedMapperBase) registered).setUsedMappers(updated);
+                        }
+                    }
+                }
+            }
+            mapperFacade.discardStrategiesUsing(mapper);
+            
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Regenerated " + mapper + " according to its runtime profile");
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not regenerate " + mapper + " according to its runtime profile; the original is kept", e);
+        }
     }
     
     /**
@@ -934,12 +1475,18 @@ public class DefaultMapperFactory implements MapperFactory {
      * @param destinationType
      */
     protected <S, D> void register(Type<S> sourceType, Type<D> destinationType) {
-        Set<Type<?>> destinationSet = aToBRegistry.get(sourceType);
-        if (destinationSet == null) {
-            destinationSet = new TreeSet<Type<?>>();
-            aToBRegistry.put(sourceType, destinationSet);
+        /*
+         * Mappers may be generated concurrently, so the destination sets are
+         * replaced by updated copies rather than modified while being read
+         */
+        synchronized (aToBRegistry) {
+            Set<Type<?>> destinationSet = aToBRegistry.get(sourceType);
+            if (destinationSet == null || !destinationSet.contains(destinationType)) {
+                Set<Type<?>> updatedSet = destinationSet == null ? new TreeSet<Type<?>>() : new TreeSet<Type<?>>(destinationSet);
+                updatedSet.add(destinationType);
+                aToBRegistry.put(sourceType, updatedSet);
+            }
         }
-        destinationSet.add(destinationType);
     }
     
     @SuppressWarnings("unchecked")
@@ -994,7 +1541,8 @@ public class DefaultMapperFactory implements MapperFactory {
      */
     public <A, B> void registerMapper(Mapper<A, B> mapper) {
         synchronized (this) {
-            this.mappersRegistry.put(new MapperKey(mapper.getAType(), mapper.getBType()), mapper);
+            this.mapperIndex.register(new MapperKey(mapper.getAType(), mapper.getBType()), mapper);
+            registeredTypesChanged();
             mapper.setMapperFacade(this.mapperFacade);
             register(mapper.getAType(), mapper.getBType());
             register(mapper.getBType(), mapper.getAType());
@@ -21,9 +21,11 @@ package ma.glasnost.orika.impl;
 import java.util.ArrayList;
 import java.util.List;
 
+import ma.glasnost.orika.BoundMapper;
 import ma.glasnost.orika.Converter;
 import ma.glasnost.orika.CustomMapper;
 import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.MappingContext;
 import ma.glasnost.orika.metadata.Type;
 
@@ -32,7 +34,20 @@ public abstract class GeneratedMapperBase extends CustomMapper<Object, Object> {
     protected Mapper<Object, Object> customMapper;
     protected Type<?>[] usedTypes;
     protected Converter<Object, Object>[] usedConverters;
-    private Mapper<Object, Object>[] usedMappers;
+    protected BoundMapper<Object, Object>[] usedBoundMappers;
+    private Type<?>[][] usedBoundMapperTypes;
+    private Type<?>[][] profiledTypes;
+    /*
+     * Not volatile, so as not to cost anything once the profile is detached;
+     * the profile only has final fields, and a stale read merely records
+     * some extra (ignored) observations
+     */
+    private MapperProfile profile;
+    /*
+     * Volatile, since a regenerated mapper is published by replacing the
+     * whole array (never by writing into it) while mappings are under way
+     */
+    private volatile Mapper<Object, Object>[] usedMappers;
     private Type<Object> aType;
     private Type<Object> bType;
     private boolean fromAutoMapping;
@@ -85,22 +100,100 @@ public abstract class GeneratedMapperBase extends CustomMapper<Object, Object> {
         this.usedConverters = usedConverters;
     }
     
+    public void setUsedBoundMappers(BoundMapper<Object, Object>[] usedBoundMappers) {
+        this.usedBoundMappers = usedBoundMappers;
+    }
+    
+    /**
+     * Sets the (source, destination) pairs of types for which this mapper
+     * dispatches nested mappings directly; the corresponding BoundMappers are
+     * created once the MapperFacade is also available.
+     * 
+     * @param usedBoundMapperTypes
+     */
+    public void setUsedBoundMapperTypes(Type<?>[][] usedBoundMapperTypes) {
+        this.usedBoundMapperTypes = usedBoundMapperTypes;
+        bindUsedMappers();
+    }
+    
+    /**
+     * Sets the (source, destination) pairs of types of the nested mappings
+     * at which this mapper profiles the runtime class of the source; the 
+     * profile itself is only collected once it is attached by the factory.
+     * 
+     * @param profiledTypes
+     */
+    public void setProfiledTypes(Type<?>[][] profiledTypes) {
+        this.profiledTypes = profiledTypes;
+    }
+    
+    Type<?>[][] getProfiledTypes() {
+        return profiledTypes;
+    }
+    
+    void setProfile(MapperProfile profile) {
+        this.profile = profile;
+    }
+    
+    @Override
+    public void setMapperFacade(MapperFacade mapperFacade) {
+        super.setMapperFacade(mapperFacade);
+        bindUsedMappers();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void bindUsedMappers() {
+        if (usedBoundMapperTypes != null && mapperFacade instanceof MapperFacadeImpl) {
+            BoundMapper<Object, Object>[] boundMappers = new BoundMapper[usedBoundMapperTypes.length];
+            for (int i = 0; i < usedBoundMapperTypes.length; ++i) {
+                boundMappers[i] = new DefaultBoundMapper<Object, Object>((MapperFacadeImpl) mapperFacade,
+                        (Type<Object>) usedBoundMapperTypes[i][0], (Type<Object>) usedBoundMapperTypes[i][1]);
+            }
+            setUsedBoundMappers(boundMappers);
+        }
+    }
+    
+    /**
+     * Records the runtime class of the source of a profiled nested mapping
+     * 
+     * @param site
+     *            the index of the nested mapping among the profiled types
+     * @param source
+     *            the (non-null) source of the nested mapping
+     */
+    protected void profileType(int site, Object source) {
+        MapperProfile currentProfile = profile;
+        if (currentProfile != null) {
+            currentProfile.recordType(site, source);
+        }
+    }
+    
     @Override
     public void mapAtoB(Object a, Object b, MappingContext context) {
-        if (usedMappers == null) {
+        MapperProfile currentProfile = profile;
+        if (currentProfile != null) {
+            currentProfile.recordInvocation(this);
+        }
+        Mapper<Object, Object>[] currentMappers = usedMappers;
+        if (currentMappers == null) {
             return;
         }
-        for (Mapper<Object, Object> mapper : usedMappers) {
+        for (Mapper<Object, Object> mapper : currentMappers) {
             mapper.mapAtoB(a, b, context);
         }
     }
     
     @Override
     public void mapBtoA(Object b, Object a, MappingContext context) {
-        if (usedMappers == null) {
+        MapperProfile currentProfile = profile;
+        if (currentProfile != null) {
+            currentProfile.recordInvocation(this);
+        }
+        Mapper<Object, Object>[] currentMappers = usedMappers;
+        if (currentMappers == null) {
             return;
         }
-        for (Mapper<Object, Object> mapper : usedMappers) {
+        for (Mapper<Object, Object> mapper : currentMappers) {
             mapper.mapBtoA(b, a, context);
         }
     }
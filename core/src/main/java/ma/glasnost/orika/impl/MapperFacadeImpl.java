@@ -22,10 +22,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import ma.glasnost.orika.Converter;
 import ma.glasnost.orika.MapEntry;
@@ -33,6 +40,7 @@ import ma.glasnost.orika.Mapper;
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.MapperFactory;
 import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
 import ma.glasnost.orika.MappingException;
 import ma.glasnost.orika.ObjectFactory;
 import ma.glasnost.orika.OrikaSystemProperties;
@@ -40,32 +48,90 @@ import ma.glasnost.orika.converter.ConverterFactory;
 import ma.glasnost.orika.impl.mapping.strategy.MappingStrategy;
 import ma.glasnost.orika.impl.mapping.strategy.MappingStrategyKey;
 import ma.glasnost.orika.impl.mapping.strategy.MappingStrategyRecorder;
+import ma.glasnost.orika.impl.mapping.strategy.UseCustomMapperStrategy;
 import ma.glasnost.orika.impl.util.ClassUtil;
 import ma.glasnost.orika.metadata.MapperKey;
 import ma.glasnost.orika.metadata.Type;
 import ma.glasnost.orika.metadata.TypeFactory;
 import ma.glasnost.orika.unenhance.UnenhanceStrategy;
-import ma.glasnost.orika.util.CacheLRULinkedHashMap;
+import ma.glasnost.orika.util.CacheConcurrentClock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class MapperFacadeImpl implements MapperFacade {
     
+    /**
+     * The number of chunks into which the source of a parallel mapping is
+     * divided, unless that would make the chunks smaller than
+     * {@link #MIN_PARALLEL_CHUNK_SIZE}; several chunks per processor let
+     * threads which finish early take on more of the work.
+     */
+    private static final int PARALLEL_CHUNKS = Runtime.getRuntime().availableProcessors() * 4;
+    
+    /**
+     * The minimum number of elements in a chunk of a parallel mapping, below
+     * which the cost of handing the chunk to another thread outweighs that of
+     * mapping it
+     */
+    private static final int MIN_PARALLEL_CHUNK_SIZE = 256;
+    
     private final MapperFactory mapperFactory;
     private final UnenhanceStrategy unenhanceStrategy;
-    private final Map<MappingStrategyKey, MappingStrategy> strategyCache = new CacheLRULinkedHashMap<MappingStrategyKey, MappingStrategy>(
+    private final CacheConcurrentClock<MappingStrategyKey, MappingStrategy> strategyCache = new CacheConcurrentClock<MappingStrategyKey, MappingStrategy>(
             500);
     private final boolean useStrategyCache;
+    private final MappingContextFactory contextFactory;
+    private volatile int strategyGeneration;
     
     private final Logger log = LoggerFactory.getLogger(getClass());
     
     public MapperFacadeImpl(MapperFactory mapperFactory, UnenhanceStrategy unenhanceStrategy) {
+        this(mapperFactory, unenhanceStrategy, new MappingContext.Factory());
+    }
+    
+    public MapperFacadeImpl(MapperFactory mapperFactory, UnenhanceStrategy unenhanceStrategy, MappingContextFactory contextFactory) {
         this.mapperFactory = mapperFactory;
         this.unenhanceStrategy = unenhanceStrategy;
+        this.contextFactory = contextFactory;
         this.useStrategyCache = Boolean.valueOf(System.getProperty(OrikaSystemProperties.USE_STRATEGY_CACHE, "true"));
     }
     
+    /**
+     * @return the MappingContextFactory used to obtain a MappingContext for
+     *         requests made without one
+     */
+    MappingContextFactory getMappingContextFactory() {
+        return contextFactory;
+    }
+    
+    /**
+     * Discards the cached mapping strategies which map by means of the
+     * specified mapper, as when it has been replaced; strategies held
+     * elsewhere (by bound mappers) should be resolved again once the strategy
+     * generation has changed, which is cheap for those left in the cache.
+     * 
+     * @param mapper
+     *            the mapper which has been replaced
+     */
+    synchronized void discardStrategiesUsing(Mapper<?, ?> mapper) {
+        for (MappingStrategyKey key : strategyCache.keySet()) {
+            MappingStrategy strategy = strategyCache.get(key);
+            if (strategy instanceof UseCustomMapperStrategy && ((UseCustomMapperStrategy) strategy).usesMapper(mapper)) {
+                strategyCache.remove(key);
+            }
+        }
+        ++strategyGeneration;
+    }
+    
+    /**
+     * @return the current strategy generation, which changes whenever the
+     *         cached mapping strategies are discarded
+     */
+    int getStrategyGeneration() {
+        return strategyGeneration;
+    }
+    
     /**
      * Normalize the source type based on the registered converters, mappers and
      * accessible super types, as well as available unenhancers
@@ -122,7 +188,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> D map(S sourceObject, Type<S> sourceType, Type<D> destinationClass) {
-        return map(sourceObject, sourceType, destinationClass, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return map(sourceObject, sourceType, destinationClass, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> D map(final S sourceObject, final Type<S> sourceType, final Type<D> destinationType, final MappingContext context) {
@@ -139,121 +210,24 @@ public class MapperFacadeImpl implements MapperFacade {
                 return existingResult;
             }
             
-            /*
-             * Note: we cache a MappingStrategy as one of the possible
-             * combinations of paths through the below code; this allows us to
-             * avoid repeating the if-then checks and the individual hash
-             * lookups at each stage; we resolve them only once and then save
-             * the "path" we took by using one of the defined strategies
-             */
-            MappingStrategyKey key = null;
-            if (useStrategyCache) {
-                
-                key = new MappingStrategyKey(sourceObject.getClass(), sourceType, destinationType, false);
-                
-                MappingStrategy strategy = strategyCache.get(key);
-                if (strategy != null) {
-                    @SuppressWarnings("unchecked")
-                    D result = (D) strategy.map(sourceObject, null, context);
-                    return result;
-                }
-            }
-            
-            MappingStrategyRecorder strategyRecorder = null;
-            if (useStrategyCache) {
-                strategyRecorder = new MappingStrategyRecorder(key, unenhanceStrategy);
-            }
-            
-            final Type<S> resolvedSourceType = normalizeSourceType(sourceObject, sourceType, destinationType);
-            final S resolvedSourceObject = unenhanceStrategy.unenhanceObject(sourceObject, sourceType);
-            
-            if (useStrategyCache) {
-                strategyRecorder.setResolvedSourceType(resolvedSourceType);
-                strategyRecorder.setResolvedDestinationType(destinationType);
-                if (sourceObject != resolvedSourceObject) {
-                    strategyRecorder.setUnenhance(true);
-                }
-                strategyRecorder.setInstantiate(true);
-            }
-            
-            if (canCopyByReference(destinationType, resolvedSourceType)) {
-                /*
-                 * We can copy by reference when source and destination types
-                 * are the same and immutable.
-                 */
-                if (useStrategyCache) {
-                    strategyRecorder.setCopyByReference(true);
-                    strategyCache.put(key, strategyRecorder.playback());
-                    if (log.isDebugEnabled()) {
-                        log.debug(strategyRecorder.describeDetails());
-                    }
-                }
-                @SuppressWarnings("unchecked")
-                D result = (D) resolvedSourceObject;
-                return result;
-            }
-            
-            // Check if we have a converter
-            if (canConvert(resolvedSourceType, destinationType)) {
-                if (useStrategyCache) {
-                    strategyRecorder.setResolvedConverter(mapperFactory.getConverterFactory().getConverter(resolvedSourceType,
-                            destinationType));
-                    strategyCache.put(key, strategyRecorder.playback());
-                    if (log.isDebugEnabled()) {
-                        log.debug(strategyRecorder.describeDetails());
-                    }
-                }
-                return convert(resolvedSourceObject, sourceType, destinationType, null);
-            }
-            
-            Type<? extends D> resolvedDestinationType = mapperFactory.lookupConcreteDestinationType(resolvedSourceType, destinationType,
-                    context);
-            if (resolvedDestinationType == null) {
-                if (!ClassUtil.isConcrete(destinationType)) {
-                    MappingException e = new MappingException("No concrete class mapping defined for source class "
-                            + resolvedSourceType.getName());
-                    e.setDestinationType(destinationType);
-                    e.setSourceType(resolvedSourceType);
-                    throw e;
-                } else {
-                    resolvedDestinationType = destinationType;
-                }
-            }
-            
-            if (useStrategyCache) {
-                strategyRecorder.setResolvedDestinationType(resolvedDestinationType);
-            }
-            
-            final Mapper<Object, Object> mapper = prepareMapper(resolvedSourceType, resolvedDestinationType);
-            
-            if (useStrategyCache) {
-                strategyRecorder.setResolvedMapper(mapper);
-            }
-            
-            final D destinationObject = newObject(resolvedSourceObject, resolvedDestinationType, context, strategyRecorder);
-            
-            context.cacheMappedObject(sourceObject, destinationType, destinationObject);
-            
-            mapDeclaredProperties(resolvedSourceObject, destinationObject, resolvedSourceType, resolvedDestinationType, context, mapper,
-                    strategyRecorder);
-            
-            if (useStrategyCache) {
-                strategyCache.put(key, strategyRecorder.playback());
-                if (log.isDebugEnabled()) {
-                    log.debug(strategyRecorder.describeDetails());
-                }
-            }
-            return destinationObject;
+            @SuppressWarnings("unchecked")
+            D result = (D) resolveMappingStrategy(sourceObject, (Type<Object>) sourceType, (Type<Object>) destinationType, false, context)
+                    .map(sourceObject, null, context);
+            return result;
         } catch (MappingException e) {
             /* don't wrap our own exceptions */
             throw e;
         } catch (Exception e) {
-            throw new MappingException("Error encountered while mapping for the following inputs: " + "\nrawSource=" + sourceObject
-                    + "\nsourceClass=" + (sourceObject != null ? sourceObject.getClass() : null) + "\nsourceType=" + sourceType
-                    + "\ndestinationType=" + destinationType, e);
+            throw mappingFailure(sourceObject, sourceType, destinationType, e);
         }
     }
     
+    private static MappingException mappingFailure(Object sourceObject, Type<?> sourceType, Type<?> destinationType, Exception e) {
+        return new MappingException("Error encountered while mapping for the following inputs: " + "\nrawSource=" + sourceObject
+                + "\nsourceClass=" + (sourceObject != null ? sourceObject.getClass() : null) + "\nsourceType=" + sourceType
+                + "\ndestinationType=" + destinationType, e);
+    }
+    
     /**
      * Resolves whether the given mapping operation can use copy-by-reference
      * semantics; should be true if one of the following is true:
@@ -298,30 +272,12 @@ public class MapperFacadeImpl implements MapperFacade {
                 return;
             }
             
-            MappingStrategyKey key = new MappingStrategyKey(sourceObject.getClass(), sourceType, destinationType, true);
+            @SuppressWarnings("unchecked")
+            Type<Object> theSourceType = (Type<Object>) (sourceType != null ? sourceType : TypeFactory.typeOf(sourceObject));
+            @SuppressWarnings("unchecked")
+            Type<Object> theDestinationType = (Type<Object>) (destinationType != null ? destinationType : TypeFactory.typeOf(destinationObject));
             
-            MappingStrategy strategy = strategyCache.get(key);
-            if (strategy != null) {
-                strategy.map(sourceObject, destinationObject, context);
-            } else {
-                MappingStrategyRecorder strategyRecorder = new MappingStrategyRecorder(key, unenhanceStrategy);
-                
-                final Type<S> theSourceType = normalizeSourceType(sourceObject,
-                        sourceType != null ? sourceType : TypeFactory.typeOf(sourceObject), destinationType);
-                final Type<D> theDestinationType = destinationType != null ? destinationType : TypeFactory.typeOf(destinationObject);
-                
-                final Mapper<Object, Object> mapper = prepareMapper(theSourceType, theDestinationType);
-                
-                strategyRecorder.setResolvedSourceType(theSourceType);
-                strategyRecorder.setResolvedDestinationType(theDestinationType);
-                strategyRecorder.setResolvedMapper(mapper);
-                
-                context.cacheMappedObject(sourceObject, destinationType, destinationObject);
-                
-                mapDeclaredProperties(sourceObject, destinationObject, theSourceType, theDestinationType, context, mapper, strategyRecorder);
-                
-                strategyCache.put(key, strategyRecorder.playback());
-            }
+            resolveMappingStrategy(sourceObject, theSourceType, theDestinationType, true, context).map(sourceObject, destinationObject, context);
         } catch (MappingException e) {
             /* don't wrap our own exceptions */
             throw e;
@@ -335,7 +291,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> void map(S sourceObject, D destinationObject, Type<S> sourceType, Type<D> destinationType) {
-        map(sourceObject, destinationObject, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            map(sourceObject, destinationObject, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> void map(S sourceObject, D destinationObject, MappingContext context) {
@@ -343,11 +304,21 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> void map(S sourceObject, D destinationObject) {
-        map(sourceObject, destinationObject, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            map(sourceObject, destinationObject, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public final <S, D> Set<D> mapAsSet(Iterable<S> source, Type<S> sourceType, Type<D> destinationType) {
-        return mapAsSet(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsSet(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public final <S, D> Set<D> mapAsSet(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, MappingContext context) {
@@ -355,7 +326,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public final <S, D> List<D> mapAsList(Iterable<S> source, Type<S> sourceType, Type<D> destinationType) {
-        return (List<D>) mapAsCollection(source, sourceType, destinationType, new ArrayList<D>(), new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return (List<D>) mapAsCollection(source, sourceType, destinationType, new ArrayList<D>(), context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public final <S, D> List<D> mapAsList(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, MappingContext context) {
@@ -363,11 +339,21 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> D[] mapAsArray(D[] destination, Iterable<S> source, Type<S> sourceType, Type<D> destinationType) {
-        return mapAsArray(destination, source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsArray(destination, source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> D[] mapAsArray(D[] destination, S[] source, Type<S> sourceType, Type<D> destinationType) {
-        return mapAsArray(destination, source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsArray(destination, source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> D[] mapAsArray(D[] destination, Iterable<S> source, Type<S> sourceType, Type<D> destinationType, MappingContext context) {
@@ -376,9 +362,17 @@ public class MapperFacadeImpl implements MapperFacade {
             return null;
         }
         
-        int i = 0;
-        for (final S s : source) {
-            destination[i++] = map(s, sourceType, destinationType);
+        BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
+        if (source instanceof RandomAccess && source instanceof List) {
+            List<S> list = (List<S>) source;
+            for (int i = 0, size = list.size(); i < size; ++i) {
+                destination[i] = batchMapper.map(list.get(i));
+            }
+        } else {
+            int i = 0;
+            for (final S s : source) {
+                destination[i++] = batchMapper.map(s);
+            }
         }
         return destination;
     }
@@ -389,33 +383,46 @@ public class MapperFacadeImpl implements MapperFacade {
             return null;
         }
         
+        BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
         int i = 0;
         for (final S s : source) {
-            destination[i++] = map(s, sourceType, destinationType, context);
+            destination[i++] = batchMapper.map(s);
         }
         return destination;
     }
     
     public <S, D> List<D> mapAsList(S[] source, Type<S> sourceType, Type<D> destinationType) {
-        return mapAsList(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsList(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> List<D> mapAsList(S[] source, Type<S> sourceType, Type<D> destinationType, MappingContext context) {
         final List<D> destination = new ArrayList<D>(source.length);
+        BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
         for (final S s : source) {
-            destination.add(map(s, sourceType, destinationType, context));
+            destination.add(batchMapper.map(s));
         }
         return destination;
     }
     
     public <S, D> Set<D> mapAsSet(S[] source, Type<S> sourceType, Type<D> destinationType) {
-        return mapAsSet(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsSet(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> Set<D> mapAsSet(S[] source, Type<S> sourceType, Type<D> destinationType, MappingContext context) {
         final Set<D> destination = new HashSet<D>(source.length);
+        BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
         for (final S s : source) {
-            destination.add(map(s, sourceType, destinationType, context));
+            destination.add(batchMapper.map(s));
         }
         return destination;
     }
@@ -439,9 +446,7 @@ public class MapperFacadeImpl implements MapperFacade {
         }
         if (destination != null) {
             destination.clear();
-            for (S item : source) {
-                destination.add(map(item, sourceType, destinationType, context));
-            }
+            mapAsCollection(source, sourceType, destinationType, destination, context);
         }
     }
     
@@ -461,12 +466,243 @@ public class MapperFacadeImpl implements MapperFacade {
         }
         if (destination != null) {
             destination.clear();
+            BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
             for (S item : source) {
-                destination.add(map(item, sourceType, destinationType, context));
+                destination.add(batchMapper.map(item));
+            }
+        }
+    }
+    
+    public <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType) {
+        return mapAsIterator(source, sourceType, destinationType, 1);
+    }
+    
+    public <S, D> Iterator<D> mapAsIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType, int contextResetInterval) {
+        if (source == null) {
+            return null;
+        }
+        return new MappingIterator<S, D>(source, sourceType, destinationType, this, contextFactory, contextResetInterval);
+    }
+    
+    public <S, D> Iterable<D> mapLazily(Iterable<S> source, Type<S> sourceType, Type<D> destinationType) {
+        return mapLazily(source, sourceType, destinationType, 1);
+    }
+    
+    public <S, D> Iterable<D> mapLazily(final Iterable<S> source, final Type<S> sourceType, final Type<D> destinationType,
+            final int contextResetInterval) {
+        if (source == null) {
+            return null;
+        }
+        return new Iterable<D>() {
+            public Iterator<D> iterator() {
+                return mapAsIterator(source.iterator(), sourceType, destinationType, contextResetInterval);
+            }
+        };
+    }
+    
+    public <S, D> List<D> mapAsListParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor) {
+        if (source == null) {
+            return null;
+        }
+        List<S> sourceList = asRandomAccessList(source);
+        Object[] results = mapParallel(sourceList, new Object[sourceList.size()], sourceType, destinationType, executor);
+        List<D> destination = new ArrayList<D>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            D element = (D) result;
+            destination.add(element);
+        }
+        return destination;
+    }
+    
+    public <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Type<S> sourceType, Type<D> destinationType, ExecutorService executor) {
+        if (source == null) {
+            return null;
+        }
+        List<S> sourceList = asRandomAccessList(source);
+        Object[] results = mapParallel(sourceList, new Object[sourceList.size()], sourceType, destinationType, executor);
+        Set<D> destination = new HashSet<D>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            D element = (D) result;
+            destination.add(element);
+        }
+        return destination;
+    }
+    
+    public <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Type<S> sourceType, Type<D> destinationType,
+            ExecutorService executor) {
+        if (source == null) {
+            return null;
+        }
+        return mapParallel(asRandomAccessList(source), destination, sourceType, destinationType, executor);
+    }
+    
+    private static <S> List<S> asRandomAccessList(Iterable<S> source) {
+        if (source instanceof RandomAccess && source instanceof List) {
+            return (List<S>) source;
+        }
+        List<S> list = source instanceof Collection ? new ArrayList<S>(((Collection<S>) source).size()) : new ArrayList<S>();
+        for (S element : source) {
+            list.add(element);
+        }
+        return list;
+    }
+    
+    /**
+     * Maps each element of the source into the same position of the
+     * destination, dividing the source into chunks which are submitted to the
+     * executor, except for the first, which is mapped by the calling thread.
+     * Each chunk is mapped with its own MappingContext; if any chunk fails, the
+     * others are cancelled, and the failure is rethrown.
+     */
+    private <S, D, R> R[] mapParallel(final List<S> source, final R[] destination, final Type<S> sourceType,
+            final Type<D> destinationType, ExecutorService executor) {
+        
+        final int size = source.size();
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK_SIZE, (size + PARALLEL_CHUNKS - 1) / PARALLEL_CHUNKS);
+        List<Future<?>> chunks = new ArrayList<Future<?>>();
+        try {
+            for (int start = chunkSize; start < size; start += chunkSize) {
+                final int from = start;
+                final int to = Math.min(size, start + chunkSize);
+                chunks.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        mapChunk(source, destination, from, to, sourceType, destinationType);
+                        return null;
+                    }
+                }));
+            }
+            mapChunk(source, destination, 0, Math.min(size, chunkSize), sourceType, destinationType);
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            return destination;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MappingException("Interrupted while waiting for the parallel mapping of " + size + " elements", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MappingException(cause);
+        } finally {
+            for (Future<?> chunk : chunks) {
+                chunk.cancel(false);
+            }
+        }
+    }
+    
+    private <S, D, R> void mapChunk(List<S> source, R[] destination, int from, int to, Type<S> sourceType, Type<D> destinationType) {
+        MappingContext context = contextFactory.getContext();
+        try {
+            BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
+            for (int i = from; i < to; ++i) {
+                @SuppressWarnings("unchecked")
+                R result = (R) batchMapper.map(source.get(i));
+                destination[i] = result;
             }
+        } finally {
+            contextFactory.release(context);
         }
     }
     
+    /**
+     * Resolves the MappingStrategy which applies to the provided inputs,
+     * without actually performing any mapping; the resolved strategy is cached
+     * in the same way as the strategies resolved during mapping.
+     * 
+     * @param sourceObject
+     *            an instance of the source, used to determine the runtime
+     *            source class
+     * @param sourceType
+     *            the declared source type
+     * @param destinationType
+     *            the declared destination type
+     * @param mapInPlace
+     *            whether the strategy will map onto an existing destination
+     *            object, rather than instantiating a new one
+     * @param context
+     *            the current mapping context
+     * @return the resolved MappingStrategy
+     */
+    MappingStrategy resolveMappingStrategy(final Object sourceObject, final Type<Object> sourceType, final Type<Object> destinationType,
+            final boolean mapInPlace, final MappingContext context) {
+        
+        MappingStrategyKey key = new MappingStrategyKey(sourceObject.getClass(), sourceType, destinationType, mapInPlace);
+        MappingStrategy strategy = strategyCache.get(key);
+        if (strategy != null) {
+            return strategy;
+        }
+        
+        MappingStrategyRecorder strategyRecorder = new MappingStrategyRecorder(key, unenhanceStrategy);
+        
+        final Type<Object> resolvedSourceType = normalizeSourceType(sourceObject, sourceType, destinationType);
+        Type<? extends Object> resolvedDestinationType = destinationType;
+        strategyRecorder.setResolvedSourceType(resolvedSourceType);
+        strategyRecorder.setResolvedDestinationType(destinationType);
+        
+        if (!mapInPlace) {
+            if (sourceObject != unenhanceStrategy.unenhanceObject(sourceObject, sourceType)) {
+                strategyRecorder.setUnenhance(true);
+            }
+            strategyRecorder.setInstantiate(true);
+            
+            if (canCopyByReference(destinationType, resolvedSourceType)) {
+                strategyRecorder.setCopyByReference(true);
+                return cacheStrategy(key, strategyRecorder);
+            } else if (canConvert(resolvedSourceType, destinationType)) {
+                strategyRecorder.setResolvedConverter(mapperFactory.getConverterFactory().getConverter(resolvedSourceType, destinationType));
+                return cacheStrategy(key, strategyRecorder);
+            }
+            
+            resolvedDestinationType = mapperFactory.lookupConcreteDestinationType(resolvedSourceType, destinationType, context);
+            if (resolvedDestinationType == null) {
+                if (!ClassUtil.isConcrete(destinationType)) {
+                    MappingException e = new MappingException("No concrete class mapping defined for source class "
+                            + resolvedSourceType.getName());
+                    e.setDestinationType(destinationType);
+                    e.setSourceType(resolvedSourceType);
+                    throw e;
+                } else {
+                    resolvedDestinationType = destinationType;
+                }
+            }
+            strategyRecorder.setResolvedDestinationType(resolvedDestinationType);
+        }
+        
+        final Mapper<Object, Object> mapper = prepareMapper(resolvedSourceType, resolvedDestinationType);
+        strategyRecorder.setResolvedMapper(mapper);
+        if (!mapInPlace) {
+            /*
+             * The object factory is looked up once the mapper exists, since
+             * generating an object factory may rely on the class-map
+             * registered along with the mapper
+             */
+            ObjectFactory<? extends Object> objectFactory = mapperFactory.lookupObjectFactory(resolvedDestinationType);
+            if (objectFactory != null) {
+                strategyRecorder.setResolvedObjectFactory(objectFactory);
+            }
+        }
+        strategyRecorder.setMapReverse(isMappedInReverse(mapper, resolvedSourceType, resolvedDestinationType));
+        
+        return cacheStrategy(key, strategyRecorder);
+    }
+    
+    private MappingStrategy cacheStrategy(MappingStrategyKey key, MappingStrategyRecorder strategyRecorder) {
+        MappingStrategy strategy = strategyRecorder.playback();
+        if (useStrategyCache) {
+            strategyCache.cache(key, strategy);
+            if (log.isDebugEnabled()) {
+                log.debug(strategyRecorder.describeDetails());
+            }
+        }
+        return strategy;
+    }
+    
     Mapper<Object, Object> prepareMapper(Type<?> sourceType, Type<?> destinationType) {
         final MapperKey mapperKey = new MapperKey(sourceType, destinationType);
         final Mapper<Object, Object> mapper = mapperFactory.lookupMapper(mapperKey);
@@ -478,57 +714,40 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     /**
-     * Maps the declared properties of the source object into the destination
-     * object, using the specified mapper.
+     * Determines whether the mapper should be applied in reverse (B to A) in
+     * order to map from the source type to the destination type.
      * 
-     * @param sourceObject
-     *            the source object from which to map property values
-     * @param destinationObject
-     *            the destination object onto which the source object's property
-     *            values will be mapped
+     * @param mapper
      * @param sourceType
-     *            the type of the source object
      * @param destinationType
-     *            the type of the destination object
-     * @param context
-     *            the current mapping context
-     * @param mapper
-     *            the mapper to use for mapping the source property values onto
-     *            the destination
-     * @param strategyBuilder
-     *            the strategy builder used to record the mapping strategy taken
+     * @return true if the mapper maps the source type as it's "B" type
      */
-    void mapDeclaredProperties(Object sourceObject, Object destinationObject, Type<?> sourceType, Type<?> destinationType,
-            MappingContext context, Mapper<Object, Object> mapper, MappingStrategyRecorder strategyBuilder) {
-        
+    private static boolean isMappedInReverse(Mapper<Object, Object> mapper, Type<?> sourceType, Type<?> destinationType) {
         if (mapper.getAType().equals(sourceType)) {
-            mapper.mapAtoB(sourceObject, destinationObject, context);
+            return false;
         } else if (mapper.getAType().equals(destinationType)) {
-            mapper.mapBtoA(sourceObject, destinationObject, context);
-            if (strategyBuilder != null)
-                strategyBuilder.setMapReverse(true);
+            return true;
         } else if (mapper.getAType().isAssignableFrom(sourceType)) {
-            mapper.mapAtoB(sourceObject, destinationObject, context);
+            return false;
         } else if (mapper.getAType().isAssignableFrom(destinationType)) {
-            mapper.mapBtoA(sourceObject, destinationObject, context);
-            if (strategyBuilder != null)
-                strategyBuilder.setMapReverse(true);
+            return true;
         } else {
             throw new IllegalStateException(String.format("Source object type's must be one of '%s' or '%s'.", mapper.getAType(),
                     mapper.getBType()));
-            
         }
     }
     
-    private <S, D> D newObject(S sourceObject, Type<? extends D> destinationType, MappingContext context,
-            MappingStrategyRecorder strategyBuilder) {
+    /*
+     * (non-Javadoc)
+     * 
+     * @see ma.glasnost.orika.MapperFacade#newObject(java.lang.Object,
+     * ma.glasnost.orika.metadata.Type, ma.glasnost.orika.MappingContext)
+     */
+    public <S, D> D newObject(S sourceObject, Type<? extends D> destinationType, MappingContext context) {
         
         try {
             final ObjectFactory<? extends D> objectFactory = mapperFactory.lookupObjectFactory(destinationType);
             if (objectFactory != null) {
-                if (strategyBuilder != null) {
-                    strategyBuilder.setResolvedObjectFactory(objectFactory);
-                }
                 return objectFactory.create(sourceObject, context);
             } else {
                 return destinationType.getRawType().newInstance();
@@ -540,16 +759,6 @@ public class MapperFacadeImpl implements MapperFacade {
         }
     }
     
-    /*
-     * (non-Javadoc)
-     * 
-     * @see ma.glasnost.orika.MapperFacade#newObject(java.lang.Object,
-     * ma.glasnost.orika.metadata.Type, ma.glasnost.orika.MappingContext)
-     */
-    public <S, D> D newObject(S sourceObject, Type<? extends D> destinationType, MappingContext context) {
-        return newObject(sourceObject, destinationType, context, null);
-    }
-    
     /**
      * Map the iterable into the provided destination collection and return it
      * 
@@ -567,8 +776,20 @@ public class MapperFacadeImpl implements MapperFacade {
             return null;
         }
         
-        for (final S item : source) {
-            destination.add(map(item, sourceType, destinationType, context));
+        BatchMapper<S, D> batchMapper = new BatchMapper<S, D>(sourceType, destinationType, context);
+        if (source instanceof RandomAccess && source instanceof List) {
+            /*
+             * Indexed access avoids the iterator calls, which become 
+             * megamorphic when sources mix several list implementations
+             */
+            List<S> list = (List<S>) source;
+            for (int i = 0, size = list.size(); i < size; ++i) {
+                destination.add(batchMapper.map(list.get(i)));
+            }
+        } else {
+            for (final S item : source) {
+                destination.add(batchMapper.map(item));
+            }
         }
         return destination;
     }
@@ -648,6 +869,23 @@ public class MapperFacadeImpl implements MapperFacade {
         return mapAsArray(destination, source, TypeFactory.componentTypeOf(source), TypeFactory.<D> valueOf(destinationClass), context);
     }
     
+    public <S, D> List<D> mapAsListParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return mapAsListParallel(source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass), executor);
+    }
+    
+    public <S, D> Set<D> mapAsSetParallel(Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return mapAsSetParallel(source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass), executor);
+    }
+    
+    public <S, D> D[] mapAsArrayParallel(D[] destination, Iterable<S> source, Class<D> destinationClass, ExecutorService executor) {
+        return mapAsArrayParallel(destination, source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass),
+                executor);
+    }
+    
+    public <S, D> Iterable<D> mapLazily(Iterable<S> source, Class<D> destinationClass) {
+        return mapLazily(source, TypeFactory.elementTypeOf(source), TypeFactory.<D> valueOf(destinationClass));
+    }
+    
     public <S, D> D convert(S source, Class<D> destinationClass, String converterId) {
         return convert(source, TypeFactory.typeOf(source), TypeFactory.<D> valueOf(destinationClass), converterId);
     }
@@ -657,7 +895,12 @@ public class MapperFacadeImpl implements MapperFacade {
      */
     public <Sk, Sv, Dk, Dv> Map<Dk, Dv> mapAsMap(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType,
             Type<? extends Map<Dk, Dv>> destinationType) {
-        return mapAsMap(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsMap(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <Sk, Sv, Dk, Dv> Map<Dk, Dv> mapAsMap(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType,
@@ -672,7 +915,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, Dk, Dv> Map<Dk, Dv> mapAsMap(Iterable<S> source, Type<S> sourceType, Type<? extends Map<Dk, Dv>> destinationType) {
-        return mapAsMap(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsMap(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, Dk, Dv> Map<Dk, Dv> mapAsMap(Iterable<S> source, Type<S> sourceType, Type<? extends Map<Dk, Dv>> destinationType,
@@ -691,7 +939,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, Dk, Dv> Map<Dk, Dv> mapAsMap(S[] source, Type<S> sourceType, Type<? extends Map<Dk, Dv>> destinationType) {
-        return mapAsMap(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsMap(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, Dk, Dv> Map<Dk, Dv> mapAsMap(S[] source, Type<S> sourceType, Type<? extends Map<Dk, Dv>> destinationType,
@@ -712,7 +965,12 @@ public class MapperFacadeImpl implements MapperFacade {
      * New mapping type: Map to List, Set or Array
      */
     public <Sk, Sv, D> List<D> mapAsList(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType) {
-        return mapAsList(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsList(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <Sk, Sv, D> List<D> mapAsList(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType,
@@ -729,7 +987,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <Sk, Sv, D> Set<D> mapAsSet(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType) {
-        return mapAsSet(source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsSet(source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <Sk, Sv, D> Set<D> mapAsSet(Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType,
@@ -744,7 +1007,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <Sk, Sv, D> D[] mapAsArray(D[] destination, Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType) {
-        return mapAsArray(destination, source, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            return mapAsArray(destination, source, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <Sk, Sv, D> D[] mapAsArray(D[] destination, Map<Sk, Sv> source, Type<? extends Map<Sk, Sv>> sourceType, Type<D> destinationType,
@@ -756,7 +1024,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> void mapAsCollection(Iterable<S> source, Collection<D> destination, Class<D> destinationClass) {
-        mapAsCollection(source, destination, destinationClass, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            mapAsCollection(source, destination, destinationClass, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> void mapAsCollection(Iterable<S> source, Collection<D> destination, Class<D> destinationClass, MappingContext context) {
@@ -764,7 +1037,12 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> void mapAsCollection(S[] source, Collection<D> destination, Class<D> destinationClass) {
-        mapAsCollection(source, destination, destinationClass, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            mapAsCollection(source, destination, destinationClass, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     @SuppressWarnings("unchecked")
@@ -774,11 +1052,80 @@ public class MapperFacadeImpl implements MapperFacade {
     }
     
     public <S, D> void mapAsCollection(Iterable<S> source, Collection<D> destination, Type<S> sourceType, Type<D> destinationType) {
-        mapAsCollection(source, destination, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            mapAsCollection(source, destination, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
     public <S, D> void mapAsCollection(S[] source, Collection<D> destination, Type<S> sourceType, Type<D> destinationType) {
-        mapAsCollection(source, destination, sourceType, destinationType, new MappingContext());
+        MappingContext context = contextFactory.getContext();
+        try {
+            mapAsCollection(source, destination, sourceType, destinationType, context);
+        } finally {
+            contextFactory.release(context);
+        }
     }
     
+    /**
+     * BatchMapper maps the elements of a collection or array to the same
+     * destination type; the MappingStrategy resolved for the runtime class of
+     * an element is reused for each other element of that class in the batch
+     * (wherever it occurs), sparing the construction of a MappingStrategyKey
+     * and the strategy cache lookup made by
+     * {@link MapperFacadeImpl#map(Object, Type, Type, MappingContext)}.
+     */
+    private final class BatchMapper<S, D> {
+        
+        private final Type<S> sourceType;
+        private final Type<D> destinationType;
+        private final MappingContext context;
+        
+        /*
+         * The strategy of the most recent element is checked first, since
+         * most batches hold elements of a single class
+         */
+        private Class<?> strategyClass;
+        private MappingStrategy strategy;
+        private final Map<Class<?>, MappingStrategy> strategies = new IdentityHashMap<Class<?>, MappingStrategy>();
+        
+        BatchMapper(Type<S> sourceType, Type<D> destinationType, MappingContext context) {
+            this.sourceType = sourceType;
+            this.destinationType = destinationType;
+            this.context = context;
+        }
+        
+        @SuppressWarnings("unchecked")
+        D map(S sourceObject) {
+            if (sourceObject == null || destinationType == null) {
+                return MapperFacadeImpl.this.map(sourceObject, sourceType, destinationType, context);
+            }
+            
+            D existingResult = context.getMappedObject(sourceObject, destinationType);
+            if (existingResult != null) {
+                return existingResult;
+            }
+            try {
+                Class<?> sourceClass = sourceObject.getClass();
+                if (sourceClass != strategyClass) {
+                    strategy = strategies.get(sourceClass);
+                    if (strategy == null) {
+                        strategy = resolveMappingStrategy(sourceObject, (Type<Object>) sourceType, (Type<Object>) destinationType, false,
+                                context);
+                        strategies.put(sourceClass, strategy);
+                    }
+                    strategyClass = sourceClass;
+                }
+                D result = (D) strategy.map(sourceObject, null, context);
+                return result;
+            } catch (MappingException e) {
+                /* don't wrap our own exceptions */
+                throw e;
+            } catch (Exception e) {
+                throw mappingFailure(sourceObject, sourceType, destinationType, e);
+            }
+        }
+    }
 }
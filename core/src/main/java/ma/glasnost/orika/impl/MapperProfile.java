@@ -0,0 +1,87 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MapperProfile collects the runtime profile of a mapper generated in tiered
+ * mode: the number of times it has been invoked, and the runtime class of the
+ * source seen at each of its profiled nested mappings. Once the number of
+ * invocations reaches the threshold, the mapper is handed back to its factory
+ * to be regenerated (in the background) according to the profile.<br>
+ * <br>
+ * The observed classes are recorded without synchronization; a lost update
+ * can only make a nested mapping appear polymorphic (or not yet seen), in
+ * which case no fast path is generated for it.
+ */
+final class MapperProfile {
+
+    /**
+     * Marks a nested mapping at which more than one runtime class was seen
+     */
+    private static final Class<?> POLYMORPHIC = MapperProfile.class;
+
+    private final DefaultMapperFactory mapperFactory;
+    private final int threshold;
+    private final Class<?>[] observedClasses;
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    /**
+     * @param mapperFactory
+     *            the factory which regenerates the mapper
+     * @param profiledTypes
+     *            the number of profiled nested mappings
+     * @param threshold
+     *            the number of invocations after which the mapper is
+     *            regenerated
+     */
+    MapperProfile(DefaultMapperFactory mapperFactory, int profiledTypes, int threshold) {
+        this.mapperFactory = mapperFactory;
+        this.threshold = threshold;
+        this.observedClasses = new Class<?>[profiledTypes];
+    }
+
+    void recordInvocation(GeneratedMapperBase mapper) {
+        if (invocations.incrementAndGet() == threshold) {
+            mapperFactory.regenerateMapper(mapper, this);
+        }
+    }
+
+    void recordType(int site, Object source) {
+        Class<?> observed = observedClasses[site];
+        if (observed == null) {
+            observedClasses[site] = source.getClass();
+        } else if (observed != POLYMORPHIC && observed != source.getClass()) {
+            observedClasses[site] = POLYMORPHIC;
+        }
+    }
+
+    /**
+     * @return the single runtime class observed at each profiled nested
+     *         mapping, or null where none, or more than one, was observed
+     */
+    Class<?>[] getObservedClasses() {
+        Class<?>[] monomorphic = new Class<?>[observedClasses.length];
+        for (int i = 0; i < observedClasses.length; ++i) {
+            monomorphic[i] = observedClasses[i] != POLYMORPHIC ? observedClasses[i] : null;
+        }
+        return monomorphic;
+    }
+}
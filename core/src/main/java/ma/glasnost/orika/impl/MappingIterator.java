@@ -0,0 +1,90 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl;
+
+import java.util.Iterator;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * MappingIterator maps each element of a source Iterator as it is requested,
+ * so that no more than one mapped element need be held at a time.<br>
+ * <br>
+ * A MappingContext is obtained for the first element, and released (and a new
+ * one obtained) after every <code>contextResetInterval</code> elements, which
+ * bounds the number of objects held in its cache; a non-positive interval
+ * keeps a single context until the source is exhausted.
+ */
+final class MappingIterator<S, D> implements Iterator<D> {
+
+    private final Iterator<S> source;
+    private final Type<S> sourceType;
+    private final Type<D> destinationType;
+    private final MapperFacade mapperFacade;
+    private final MappingContextFactory contextFactory;
+    private final int contextResetInterval;
+
+    private MappingContext context;
+    private int mappedWithContext;
+
+    MappingIterator(Iterator<S> source, Type<S> sourceType, Type<D> destinationType, MapperFacade mapperFacade,
+            MappingContextFactory contextFactory, int contextResetInterval) {
+        this.source = source;
+        this.sourceType = sourceType;
+        this.destinationType = destinationType;
+        this.mapperFacade = mapperFacade;
+        this.contextFactory = contextFactory;
+        this.contextResetInterval = contextResetInterval;
+    }
+
+    public boolean hasNext() {
+        if (source.hasNext()) {
+            return true;
+        }
+        releaseContext();
+        return false;
+    }
+
+    public D next() {
+        S element = source.next();
+        if (context == null) {
+            context = contextFactory.getContext();
+        }
+        D result = mapperFacade.map(element, sourceType, destinationType, context);
+        if (++mappedWithContext == contextResetInterval) {
+            releaseContext();
+        }
+        return result;
+    }
+
+    public void remove() {
+        source.remove();
+    }
+
+    private void releaseContext() {
+        if (context != null) {
+            contextFactory.release(context);
+            context = null;
+            mappedWithContext = 0;
+        }
+    }
+}
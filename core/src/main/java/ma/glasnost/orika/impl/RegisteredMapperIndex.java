@@ -0,0 +1,370 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * RegisteredMapperIndex provides lookup of the registered mapper able to map
+ * between a pair of types, without scanning every registered mapper.<br>
+ * <br>
+ * The registry itself is still kept in its original (ordered) form, and the
+ * index always returns the same mapper which a linear scan of the registry
+ * would have returned (the first assignable match in registry order). The
+ * lookup first consults an exact-match hash on the pair of types, and then
+ * visits only those mappers whose A-type raw class appears in the
+ * super-type/interface closure of one of the requested types.<br>
+ * <br>
+ * The index is rebuilt lazily upon the first lookup following a change to
+ * the registry; lookups themselves read an immutable snapshot and require no
+ * locking.
+ */
+public class RegisteredMapperIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Map<MapperKey, Mapper<?, ?>> registry;
+    private final ConcurrentHashMap<Class<?>, Class<?>[]> closures = new ConcurrentHashMap<Class<?>, Class<?>[]>();
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong exactMatches = new AtomicLong();
+    private final AtomicLong assignableMatches = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs a new index over the provided registry; the registry should
+     * only be modified through {@link #register(MapperKey, Mapper)}.
+     *
+     * @param registry
+     *            the (ordered) registry of mappers
+     */
+    public RegisteredMapperIndex(Map<MapperKey, Mapper<?, ?>> registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registers the mapper with the underlying registry, invalidating the
+     * current index.
+     *
+     * @param key
+     * @param mapper
+     */
+    public void register(MapperKey key, Mapper<?, ?> mapper) {
+        synchronized (registry) {
+            registry.put(key, mapper);
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Replaces a registered mapper with another, keeping its position within
+     * the registry.
+     *
+     * @param registered
+     *            the mapper currently registered
+     * @param replacement
+     *            the mapper with which to replace it
+     * @throws IllegalArgumentException
+     *             if the mapper to replace is not registered
+     */
+    public void replace(Mapper<?, ?> registered, Mapper<?, ?> replacement) {
+        synchronized (registry) {
+            /*
+             * The entry is located by identity rather than by key, as the
+             * ordering of MapperKeys is not consistent enough to locate a
+             * given key reliably
+             */
+            for (Map.Entry<MapperKey, Mapper<?, ?>> entry : registry.entrySet()) {
+                if (entry.getValue() == registered) {
+                    entry.setValue(replacement);
+                    snapshot = null;
+                    return;
+                }
+            }
+        }
+        throw new IllegalArgumentException(registered + " is not registered");
+    }
+
+    /**
+     * Finds the first mapper (in registry order) which is able to map between
+     * the specified types, in either direction.
+     *
+     * @param typeA
+     * @param typeB
+     * @param includeAutoGeneratedMappers
+     *            whether mappers generated automatically (by auto-mapping)
+     *            should be considered
+     * @return the matching mapper, or null if none is registered
+     */
+    public Mapper<?, ?> find(Type<?> typeA, Type<?> typeB, boolean includeAutoGeneratedMappers) {
+
+        final Snapshot current = getSnapshot();
+        int best = Integer.MAX_VALUE;
+        int exact = -1;
+
+        if (typeA != null && typeB != null) {
+            Integer position = current.exact.get(new TypePair(typeA, typeB));
+            if (position != null && accept(current.mappers[position], typeA, typeB, includeAutoGeneratedMappers)) {
+                exact = position;
+                best = exact;
+            }
+            best = scan(current, closureOf(typeA.getRawType()), typeA, typeB, best, includeAutoGeneratedMappers);
+            best = scan(current, closureOf(typeB.getRawType()), typeA, typeB, best, includeAutoGeneratedMappers);
+            if (typeA.getRawType().isArray() || typeB.getRawType().isArray()) {
+                best = scan(current, current.arrayPositions, typeA, typeB, best, includeAutoGeneratedMappers);
+            }
+        }
+        best = scan(current, current.unindexedPositions, typeA, typeB, best, includeAutoGeneratedMappers);
+
+        if (best == Integer.MAX_VALUE) {
+            misses.incrementAndGet();
+            return null;
+        } else if (best == exact) {
+            exactMatches.incrementAndGet();
+        } else {
+            assignableMatches.incrementAndGet();
+        }
+        return current.mappers[best];
+    }
+
+    /**
+     * Finds the mapper registered for exactly the specified types (in either
+     * direction), ignoring any more general mapper which may precede it in
+     * registry order.
+     *
+     * @param typeA
+     * @param typeB
+     * @return the mapper registered for the types, or null if there is none
+     */
+    public Mapper<?, ?> findExact(Type<?> typeA, Type<?> typeB) {
+        final Snapshot current = getSnapshot();
+        Integer position = current.exact.get(new TypePair(typeA, typeB));
+        return position != null ? current.mappers[position] : null;
+    }
+
+    /**
+     * @return the number of lookups answered by the exact-match hash
+     */
+    public long getExactMatchCount() {
+        return exactMatches.get();
+    }
+
+    /**
+     * @return the number of lookups answered by an assignable (super-type)
+     *         match
+     */
+    public long getAssignableMatchCount() {
+        return assignableMatches.get();
+    }
+
+    /**
+     * @return the number of lookups for which no mapper was found
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "{exactMatches=" + exactMatches.get() + ", assignableMatches=" + assignableMatches.get()
+                + ", misses=" + misses.get() + "}";
+    }
+
+    private int scan(Snapshot current, Class<?>[] closure, Type<?> typeA, Type<?> typeB, int best, boolean includeAutoGeneratedMappers) {
+        for (Class<?> type : closure) {
+            int[] positions = current.byRawAType.get(type);
+            if (positions != null) {
+                best = scan(current, positions, typeA, typeB, best, includeAutoGeneratedMappers);
+            }
+        }
+        return best;
+    }
+
+    private int scan(Snapshot current, int[] positions, Type<?> typeA, Type<?> typeB, int best, boolean includeAutoGeneratedMappers) {
+        for (int position : positions) {
+            if (position >= best) {
+                break;
+            } else if (accept(current.mappers[position], typeA, typeB, includeAutoGeneratedMappers)) {
+                return position;
+            }
+        }
+        return best;
+    }
+
+    private static boolean accept(Mapper<?, ?> mapper, Type<?> typeA, Type<?> typeB, boolean includeAutoGeneratedMappers) {
+        if ((mapper.getAType().isAssignableFrom(typeA) && mapper.getBType().isAssignableFrom(typeB))
+                || (mapper.getAType().isAssignableFrom(typeB) && mapper.getBType().isAssignableFrom(typeA))) {
+            return includeAutoGeneratedMappers || !(mapper instanceof GeneratedMapperBase)
+                    || !((GeneratedMapperBase) mapper).isFromAutoMapping();
+        }
+        return false;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (registry) {
+                current = snapshot;
+                if (current == null) {
+                    current = new Snapshot(registry.values().toArray(new Mapper<?, ?>[registry.size()]));
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Resolves the set of raw types which are assignable from the specified
+     * raw type: the type itself, all of it's super-classes and all of the
+     * interfaces those implement (plus Object for any non-primitive type).
+     *
+     * @param rawType
+     * @return
+     */
+    private Class<?>[] closureOf(Class<?> rawType) {
+        Class<?>[] closure = closures.get(rawType);
+        if (closure == null) {
+            Set<Class<?>> types = new LinkedHashSet<Class<?>>();
+            for (Class<?> type = rawType; type != null; type = type.getSuperclass()) {
+                collectInterfaces(type, types);
+            }
+            if (!rawType.isPrimitive()) {
+                types.add(Object.class);
+            }
+            closure = types.toArray(new Class<?>[types.size()]);
+            closures.putIfAbsent(rawType, closure);
+        }
+        return closure;
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> types) {
+        if (types.add(type)) {
+            for (Class<?> anInterface : type.getInterfaces()) {
+                collectInterfaces(anInterface, types);
+            }
+        }
+    }
+
+    /**
+     * An immutable view of the registry at a given point in time
+     */
+    private static final class Snapshot {
+
+        private final Mapper<?, ?>[] mappers;
+        private final Map<TypePair, Integer> exact;
+        private final Map<Class<?>, int[]> byRawAType;
+        private final int[] arrayPositions;
+        private final int[] unindexedPositions;
+
+        private Snapshot(Mapper<?, ?>[] mappers) {
+            this.mappers = mappers;
+            this.exact = new HashMap<TypePair, Integer>(mappers.length * 2);
+
+            Map<Class<?>, List<Integer>> positionsByRawAType = new HashMap<Class<?>, List<Integer>>();
+            List<Integer> arrays = new ArrayList<Integer>();
+            List<Integer> unindexed = new ArrayList<Integer>();
+            for (int i = 0; i < mappers.length; ++i) {
+                Type<?> aType = mappers[i].getAType();
+                Type<?> bType = mappers[i].getBType();
+                if (aType == null || bType == null) {
+                    unindexed.add(i);
+                    continue;
+                }
+                TypePair forward = new TypePair(aType, bType);
+                if (!exact.containsKey(forward)) {
+                    exact.put(forward, i);
+                }
+                TypePair reverse = new TypePair(bType, aType);
+                if (!exact.containsKey(reverse)) {
+                    exact.put(reverse, i);
+                }
+                if (aType.getRawType().isArray()) {
+                    arrays.add(i);
+                } else {
+                    List<Integer> positions = positionsByRawAType.get(aType.getRawType());
+                    if (positions == null) {
+                        positions = new ArrayList<Integer>();
+                        positionsByRawAType.put(aType.getRawType(), positions);
+                    }
+                    positions.add(i);
+                }
+            }
+
+            this.byRawAType = new HashMap<Class<?>, int[]>(positionsByRawAType.size() * 2);
+            for (Map.Entry<Class<?>, List<Integer>> entry : positionsByRawAType.entrySet()) {
+                byRawAType.put(entry.getKey(), toArray(entry.getValue()));
+            }
+            this.arrayPositions = toArray(arrays);
+            this.unindexedPositions = toArray(unindexed);
+        }
+
+        private static int[] toArray(List<Integer> positions) {
+            if (positions.isEmpty()) {
+                return NO_POSITIONS;
+            }
+            int[] result = new int[positions.size()];
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = positions.get(i);
+            }
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /**
+     * An ordered pair of types, compared by equality of both members
+     */
+    private static final class TypePair {
+
+        private final Type<?> aType;
+        private final Type<?> bType;
+
+        private TypePair(Type<?> aType, Type<?> bType) {
+            this.aType = aType;
+            this.bType = bType;
+        }
+
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TypePair)) {
+                return false;
+            }
+            TypePair that = (TypePair) other;
+            return aType.equals(that.aType) && bType.equals(that.bType);
+        }
+
+        public int hashCode() {
+            return 31 * aType.hashCode() + bType.hashCode();
+        }
+    }
+}
@@ -18,6 +18,8 @@
 
 package ma.glasnost.orika.impl;
 
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
 import ma.glasnost.orika.OrikaSystemProperties;
 import ma.glasnost.orika.constructor.ConstructorResolverStrategy;
 import ma.glasnost.orika.constructor.SimpleConstructorResolverStrategy;
@@ -89,6 +91,16 @@ public abstract class UtilityResolver {
         return resolveUtility(OrikaSystemProperties.CLASSMAP_BUILDER_FACTORY, ma.glasnost.orika.metadata.ClassMapBuilder.Factory.class);
     }
     
+    /**
+     * Provides a default MappingContextFactory instance, favoring a type
+     * specified in the appropriate system property if found.
+     * 
+     * @return
+     */
+    public static MappingContextFactory getDefaultMappingContextFactory() {
+        return resolveUtility(OrikaSystemProperties.MAPPING_CONTEXT_FACTORY, MappingContext.Factory.class);
+    }
+    
     /**
      * Resolves a utility implementation, given a system property for customized
      * instance, and a default implementation class.
@@ -0,0 +1,407 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ * 
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import ma.glasnost.orika.OrikaSystemProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ByteCodeCacheCompilerStrategy keeps the compiled bytes of generated classes
+ * in a local directory, so that the classes generated by a later run (of this
+ * or another JVM) may be defined directly from those bytes, without invoking
+ * the compiler of the delegate strategy.<br>
+ * <br>
+ * Entries are keyed by a fingerprint of the generated source, together with
+ * a fingerprint of the class files of the types it references; a changed
+ * class map or mapped type therefore results in a new entry, and entries
+ * which have not been used for longer than the maximum age are deleted when
+ * the strategy is constructed. Entries are written to a temporary file and
+ * then renamed, so that several JVMs may share the same directory.<br>
+ * <br>
+ * Generated classes are named as by {@link PrecompiledCompilerStrategy},
+ * so classes which have already been loaded (or precompiled) are used as-is.
+ * <br>
+ * This strategy may be selected using the system property
+ * <code>ma.glasnost.orika.compilerStrategy</code>, in which case the cache
+ * directory is given by the system property
+ * <code>ma.glasnost.orika.byteCodeCachePath</code>.
+ */
+public class ByteCodeCacheCompilerStrategy extends CompilerStrategy {
+    
+    private final static Logger LOG = LoggerFactory.getLogger(ByteCodeCacheCompilerStrategy.class);
+    
+    /**
+     * The default maximum age of an unused entry: 30 days
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 30L * 24 * 60 * 60 * 1000;
+    
+    private static final String ENTRY_SUFFIX = ".class";
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    /*
+     * Temporary files older than this were left behind by a JVM which did not
+     * complete writing them
+     */
+    private static final long MAX_TEMP_AGE_MILLIS = 60L * 60 * 1000;
+    
+    /*
+     * Qualified names referenced from the generated source; nested types are
+     * referenced by their canonical names
+     */
+    private static final Pattern QUALIFIED_TYPE_NAME = Pattern.compile("\\b[a-z_][\\w]*(?:\\.[a-z_][\\w]*)*(?:\\.[A-Z][\\w]*)+");
+    
+    private static final String NOT_FOUND = "";
+    
+    private static Method defineClass;
+    
+    private final CompilerStrategy delegate;
+    private final File cacheDirectory;
+    private final long maxAgeMillis;
+    private final Map<String, String> typeFingerprints = new ConcurrentHashMap<String, String>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    /**
+     * Constructs a new ByteCodeCacheCompilerStrategy using the directory
+     * given by the system property <code>ma.glasnost.orika.byteCodeCachePath</code>
+     * (or a directory within <code>java.io.tmpdir</code> if not specified),
+     * which compiles sources using a JavassistCompilerStrategy.
+     */
+    public ByteCodeCacheCompilerStrategy() {
+        this(new File(System.getProperty(OrikaSystemProperties.BYTE_CODE_CACHE_PATH,
+                new File(System.getProperty("java.io.tmpdir"), "orika-bytecode-cache").getPath())));
+    }
+    
+    /**
+     * @param cacheDirectory
+     *            the directory in which compiled classes are kept
+     */
+    public ByteCodeCacheCompilerStrategy(File cacheDirectory) {
+        this(cacheDirectory, new JavassistCompilerStrategy());
+    }
+    
+    /**
+     * @param cacheDirectory
+     *            the directory in which compiled classes are kept
+     * @param delegate
+     *            the strategy used to compile sources not found in the cache
+     */
+    public ByteCodeCacheCompilerStrategy(File cacheDirectory, CompilerStrategy delegate) {
+        this(cacheDirectory, delegate, DEFAULT_MAX_AGE_MILLIS);
+    }
+    
+    /**
+     * @param cacheDirectory
+     *            the directory in which compiled classes are kept
+     * @param delegate
+     *            the strategy used to compile sources not found in the cache
+     * @param maxAgeMillis
+     *            the time after which an entry which has not been used is
+     *            deleted
+     */
+    public ByteCodeCacheCompilerStrategy(File cacheDirectory, CompilerStrategy delegate, long maxAgeMillis) {
+        super("false", "false");
+        this.cacheDirectory = cacheDirectory;
+        this.delegate = delegate;
+        this.maxAgeMillis = maxAgeMillis;
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            LOG.warn("Could not create byte-code cache directory " + cacheDirectory + "; generated classes will not be cached");
+        }
+        evictStaleEntries();
+    }
+    
+    /**
+     * @return the number of classes defined from the cache since this strategy
+     *         was constructed
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    /**
+     * @return the number of classes compiled by the delegate strategy since
+     *         this strategy was constructed
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    /**
+     * @return the directory in which compiled classes are kept
+     */
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#compileClass(ma.glasnost
+     * .orika.impl.generator.GeneratedSourceCode)
+     */
+    public Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+        
+        String className = PrecompiledCompilerStrategy.getPrecompiledClassName(sourceCode);
+        
+        synchronized (PrecompiledCompilerStrategy.getCompilationLock(className)) {
+            Class<?> loadedClass = PrecompiledCompilerStrategy.loadPrecompiledClass(className, sourceCode.getSuperClass());
+            if (loadedClass != null) {
+                return loadedClass;
+            }
+            
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            File entry = new File(cacheDirectory, getEntryKey(sourceCode, loader) + ENTRY_SUFFIX);
+            
+            Class<?> cachedClass = defineCachedClass(className, entry, loader);
+            if (cachedClass != null) {
+                hits.incrementAndGet();
+                return cachedClass;
+            }
+            
+            misses.incrementAndGet();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("No cached class found for " + sourceCode.getClassName() + "; compiling as " + className);
+            }
+            
+            GeneratedSourceCode renamedSource = sourceCode.copyAs(className, delegate);
+            byte[] byteCode = delegate.compileToByteCode(renamedSource);
+            if (byteCode == null) {
+                /*
+                 * The delegate does not provide the compiled bytes
+                 */
+                return delegate.compileClass(renamedSource);
+            }
+            writeEntry(entry, byteCode);
+            return defineClass(loader, className, byteCode);
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#assureTypeIsAccessible
+     * (java.lang.Class)
+     */
+    public void assureTypeIsAccessible(Class<?> type) throws SourceCodeGenerationException {
+        delegate.assureTypeIsAccessible(type);
+    }
+    
+    /**
+     * Deletes the entries which have not been used within the maximum age, as
+     * well as any temporary files left behind.
+     */
+    public void evictStaleEntries() {
+        File[] files = cacheDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            String name = file.getName();
+            long age = now - file.lastModified();
+            if ((name.endsWith(ENTRY_SUFFIX) && age > maxAgeMillis) || (name.endsWith(TEMP_SUFFIX) && age > MAX_TEMP_AGE_MILLIS)) {
+                if (!file.delete() && file.exists()) {
+                    LOG.warn("Could not delete stale byte-code cache entry " + file);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Computes the key of the entry for the generated source, from the source
+     * itself and the class files of the types it references.
+     */
+    private String getEntryKey(GeneratedSourceCode sourceCode, ClassLoader loader) {
+        MessageDigest digest = PrecompiledCompilerStrategy.newDigest();
+        PrecompiledCompilerStrategy.updateSource(digest, sourceCode);
+        
+        SortedSet<String> typeNames = new TreeSet<String>();
+        typeNames.add(sourceCode.getSuperClass().getName());
+        for (String field : sourceCode.getFields()) {
+            addReferencedTypeNames(field, typeNames);
+        }
+        for (String method : sourceCode.getMethods()) {
+            addReferencedTypeNames(method, typeNames);
+        }
+        for (String typeName : typeNames) {
+            PrecompiledCompilerStrategy.update(digest, typeName);
+            PrecompiledCompilerStrategy.update(digest, getTypeFingerprint(typeName, loader));
+        }
+        return PrecompiledCompilerStrategy.toHex(digest.digest());
+    }
+    
+    private static void addReferencedTypeNames(String source, SortedSet<String> typeNames) {
+        Matcher matcher = QUALIFIED_TYPE_NAME.matcher(source);
+        while (matcher.find()) {
+            String name = matcher.group();
+            /*
+             * Classes of the platform change only with the JVM itself
+             */
+            if (!name.startsWith("java.")) {
+                typeNames.add(name);
+            }
+        }
+    }
+    
+    /**
+     * @return a fingerprint of the class file for the named type, or an empty
+     *         string if the name does not refer to a class file visible to the
+     *         class-loader
+     */
+    private String getTypeFingerprint(String typeName, ClassLoader loader) {
+        String fingerprint = typeFingerprints.get(typeName);
+        if (fingerprint == null) {
+            fingerprint = NOT_FOUND;
+            URL resource = findClassFile(typeName, loader);
+            if (resource != null) {
+                try {
+                    MessageDigest digest = PrecompiledCompilerStrategy.newDigest();
+                    digest.update(readFully(resource.openStream()));
+                    fingerprint = PrecompiledCompilerStrategy.toHex(digest.digest());
+                } catch (IOException e) {
+                    LOG.warn("Could not read the class file of " + typeName, e);
+                }
+            }
+            typeFingerprints.put(typeName, fingerprint);
+        }
+        return fingerprint;
+    }
+    
+    /**
+     * Locates the class file for the named type, trying the outer segments of
+     * the name as enclosing classes when no top-level class is found.
+     */
+    private static URL findClassFile(String typeName, ClassLoader loader) {
+        String name = typeName;
+        URL resource = loader.getResource(name.replace('.', '/') + ENTRY_SUFFIX);
+        int dot = name.lastIndexOf('.');
+        while (resource == null && dot > 0) {
+            name = name.substring(0, dot) + '$' + name.substring(dot + 1);
+            resource = loader.getResource(name.replace('.', '/') + ENTRY_SUFFIX);
+            dot = name.lastIndexOf('.', dot - 1);
+        }
+        return resource;
+    }
+    
+    private Class<?> defineCachedClass(String className, File entry, ClassLoader loader) {
+        if (!entry.isFile()) {
+            return null;
+        }
+        try {
+            byte[] byteCode = readFully(new FileInputStream(entry));
+            Class<?> cachedClass = defineClass(loader, className, byteCode);
+            /*
+             * Entries are evicted by age, so record that this one is in use
+             */
+            entry.setLastModified(System.currentTimeMillis());
+            return cachedClass;
+        } catch (IOException e) {
+            LOG.warn("Could not read byte-code cache entry " + entry, e);
+        } catch (SourceCodeGenerationException e) {
+            LOG.warn("Byte-code cache entry " + entry + " could not be defined; it will be replaced", e);
+            entry.delete();
+        }
+        return null;
+    }
+    
+    private void writeEntry(File entry, byte[] byteCode) {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(entry.getName(), TEMP_SUFFIX, cacheDirectory);
+            FileOutputStream out = new FileOutputStream(tempFile);
+            try {
+                out.write(byteCode);
+            } finally {
+                out.close();
+            }
+            /*
+             * The rename fails if another JVM has written the same entry in
+             * the meantime; its content is identical
+             */
+            if (tempFile.renameTo(entry)) {
+                tempFile = null;
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write byte-code cache entry " + entry, e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+    
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+    
+    /**
+     * Defines the class in the specified class-loader, as the compiler
+     * strategies themselves do.
+     */
+    private static Class<?> defineClass(ClassLoader loader, String className, byte[] byteCode) throws SourceCodeGenerationException {
+        try {
+            synchronized (ByteCodeCacheCompilerStrategy.class) {
+                if (defineClass == null) {
+                    Method method = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class, int.class);
+                    method.setAccessible(true);
+                    defineClass = method;
+                }
+            }
+            return (Class<?>) defineClass.invoke(loader, className, byteCode, 0, byteCode.length);
+        } catch (NoSuchMethodException e) {
+            throw new SourceCodeGenerationException(e);
+        } catch (IllegalAccessException e) {
+            throw new SourceCodeGenerationException(e);
+        } catch (InvocationTargetException e) {
+            throw new SourceCodeGenerationException("Could not define " + className, e.getTargetException());
+        }
+    }
+}
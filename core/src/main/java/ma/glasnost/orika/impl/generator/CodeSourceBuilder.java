@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -32,16 +33,21 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import java.lang.reflect.Modifier;
+
 import ma.glasnost.orika.Converter;
 import ma.glasnost.orika.MapEntry;
 import ma.glasnost.orika.MapperFactory;
 import ma.glasnost.orika.MappingException;
 import ma.glasnost.orika.converter.ConverterFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
 import ma.glasnost.orika.impl.generator.MapEntryRef.EntryPart;
 import ma.glasnost.orika.impl.util.ClassUtil;
+import ma.glasnost.orika.metadata.ClassMap;
 import ma.glasnost.orika.metadata.ClassMapBuilder;
 import ma.glasnost.orika.metadata.FieldMap;
 import ma.glasnost.orika.metadata.FieldMapBuilder;
+import ma.glasnost.orika.metadata.MapperKey;
 import ma.glasnost.orika.metadata.Property;
 import ma.glasnost.orika.metadata.Type;
 import ma.glasnost.orika.metadata.TypeFactory;
@@ -56,7 +62,10 @@ public class CodeSourceBuilder {
     private final StringBuilder out = new StringBuilder();
     private final UsedTypesContext usedTypes;
     private final UsedConvertersContext usedConverters;
+    private final UsedBoundMappersContext usedBoundMappers;
+    private final ProfiledTypesContext profiledTypes;
     private final MapperFactory mapperFactory;
+    private final int nestedMappingInlineDepth;
     
     /**
      * Constructs a new instance of SourceCodeBuilder
@@ -70,25 +79,87 @@ public class CodeSourceBuilder {
      *            the mapper factory for which the mapper is being generated
      */
     public CodeSourceBuilder(UsedTypesContext usedTypes, UsedConvertersContext usedConverters, MapperFactory mapperFactory) {
+        this(usedTypes, usedConverters, null, mapperFactory, 0);
+    }
+    
+    /**
+     * Constructs a new instance of SourceCodeBuilder which may dispatch the
+     * mapping of nested objects directly to a BoundMapper
+     * 
+     * @param usedTypes
+     *            a context for tracking the types used in the generated mapper
+     * @param usedConverters
+     *            a context for tracking the converters used in the generated
+     *            mapper
+     * @param usedBoundMappers
+     *            a context for tracking the bound mappers used in the
+     *            generated mapper
+     * @param mapperFactory
+     *            the mapper factory for which the mapper is being generated
+     * @param nestedMappingInlineDepth
+     *            the maximum length of a chain of nested mappings which are
+     *            dispatched directly; 0 to always dispatch through the
+     *            MapperFacade
+     */
+    public CodeSourceBuilder(UsedTypesContext usedTypes, UsedConvertersContext usedConverters,
+            UsedBoundMappersContext usedBoundMappers, MapperFactory mapperFactory, int nestedMappingInlineDepth) {
+        this(usedTypes, usedConverters, usedBoundMappers, null, mapperFactory, nestedMappingInlineDepth);
+    }
+    
+    /**
+     * Constructs a new instance of SourceCodeBuilder for a mapper generated in
+     * tiered mode, which either profiles the runtime classes of its nested
+     * objects, or is regenerated with fast paths for the observed classes
+     * 
+     * @param usedTypes
+     *            a context for tracking the types used in the generated mapper
+     * @param usedConverters
+     *            a context for tracking the converters used in the generated
+     *            mapper
+     * @param usedBoundMappers
+     *            a context for tracking the bound mappers used in the
+     *            generated mapper
+     * @param profiledTypes
+     *            a context for tracking the profiled nested mappings, or null
+     *            if the mapper is not generated in tiered mode
+     * @param mapperFactory
+     *            the mapper factory for which the mapper is being generated
+     * @param nestedMappingInlineDepth
+     *            the maximum length of a chain of nested mappings which are
+     *            dispatched directly; 0 to always dispatch through the
+     *            MapperFacade
+     */
+    public CodeSourceBuilder(UsedTypesContext usedTypes, UsedConvertersContext usedConverters,
+            UsedBoundMappersContext usedBoundMappers, ProfiledTypesContext profiledTypes, MapperFactory mapperFactory,
+            int nestedMappingInlineDepth) {
         this.usedTypes = usedTypes;
         this.usedConverters = usedConverters;
+        this.usedBoundMappers = usedBoundMappers;
+        this.profiledTypes = usedBoundMappers != null ? profiledTypes : null;
         this.mapperFactory = mapperFactory;
+        this.nestedMappingInlineDepth = usedBoundMappers != null ? nestedMappingInlineDepth : 0;
     }
     
     private String usedConverter(Converter<?, ?> converter) {
-        int index = usedConverters.getIndex(converter);
-        return "((" + Converter.class.getCanonicalName() + ")usedConverters[" + index + "])";
+        return UsedConvertersContext.getFieldName(usedConverters.getIndex(converter));
     }
     
     private String usedType(Type<?> type) {
-        int index = usedTypes.getIndex(type);
-        return "((" + Type.class.getCanonicalName() + ")usedTypes[" + index + "])";
+        return UsedTypesContext.getFieldName(usedTypes.getIndex(type));
     }
     
     private String usedType(VariableRef r) {
         return usedType(r.type());
     }
     
+    private String usedBoundMapper(VariableRef s, VariableRef d) {
+        return usedBoundMapper(s.type(), d.type());
+    }
+    
+    private String usedBoundMapper(Type<?> sourceType, Type<?> destinationType) {
+        return UsedBoundMappersContext.getFieldName(usedBoundMappers.getIndex(sourceType, destinationType));
+    }
+    
     /**
      * Generate the code to use a specific converter from one type to another
      * 
@@ -148,22 +219,34 @@ public class CodeSourceBuilder {
             throw new MappingException("cannot determine runtime type of destination collection " + dc.getName() + "." + d.name());
         }
         
-        if (d.isAssignable()) {
-            statement("if (%s == null) %s", d, d.assign(d.newCollection()));
-        }
-        
         // Start check if source property ! = null
         ifNotNull(s).then();
-        if (s.isArray()) {
-            if (s.elementType().isPrimitive())
-                newLine().append("%s.addAll(asList(%s));", d, s);
-            else
-                newLine().append("%s.addAll(mapperFacade.mapAsList(asList(%s), %s.class));", d, s, d.typeName());
-        } else {
-            
+        if (d.isAssignable()) {
+            statement("if (%s == null) %s", d, d.assign(d.newCollection(s.size())));
+        }
+        if (!s.isArray()) {
             newLine().append("%s.clear();", d);
-            newLine().append("%s.addAll(mapperFacade.mapAs%s(%s, %s, %s, mappingContext));", d, d.collectionType(), s,
-                    usedType(s.elementType()), usedType(d.elementType()));
+        }
+        Converter<Object, Object> elementConverter = getElementConverter(s.elementType(), d.elementType());
+        if (s.isArray() && s.elementType().isPrimitive()) {
+            fromPrimitiveArrayToCollection(d, s);
+        } else if (canCopyElementsByReference(s.elementType(), d.elementType())) {
+            if (s.isArray()) {
+                newLine().append(forEachElement(s, d.name(), format("%s.add(%sElement);", d, d.name())));
+            } else {
+                statement("%s.addAll(%s)", d, s);
+            }
+        } else if (elementConverter != null) {
+            String element = d.name() + "Element";
+            newLine().append(forEachElement(s, d.name(), format("if (%s == null) { %s.add(null); } else { %s.add(%s.convert(%s, %s)); }",
+                    element, d, d, usedConverter(elementConverter), element, usedType(d.elementType()))));
+        } else {
+            /*
+             * The loop is emitted inline, as is done for converted elements,
+             * so that each mapper has its own call site to the MapperFacade
+             */
+            newLine().append(forEachElement(s, d.name(), format("%s.add(mapperFacade.map(%sElement, %s, %s, mappingContext));", d, d.name(),
+                    usedType(s.elementType()), usedType(d.elementType()))));
         }
         if (ip != null) {
             final MultiOccurrenceVariableRef inverse = new MultiOccurrenceVariableRef(ip, "orikaCollectionItem");
@@ -375,8 +458,27 @@ public class CodeSourceBuilder {
         final VariableRef arrayVar = d.elementRef(d.name());
         String newArray = format("%s[] %s = new %s[%s]", d.elementTypeName(), d.name(), d.elementTypeName(), s.size());
         String mapArray;
-        if (d.elementType().isPrimitive()) {
+        Class<?> sourceElementClass = s.elementType() != null ? s.elementType().getRawType() : null;
+        if (d.elementType().isPrimitive() && s.isArray() && sourceElementClass.isPrimitive()
+                && ClassUtil.isPrimitiveAssignable(sourceElementClass, d.elementType().getRawType())) {
+            mapArray = copyPrimitiveArray(d, s);
+        } else if (d.elementType().isPrimitive() && s.isCollection() && ClassUtil.isPrimitiveWrapper(sourceElementClass)
+                && ClassUtil.isPrimitiveAssignable(ClassUtil.getPrimitiveType(sourceElementClass), d.elementType().getRawType())) {
+            mapArray = unboxIntoPrimitiveArray(d, s);
+        } else if (d.elementType().isPrimitive()) {
             mapArray = format("mapArray(%s, asList(%s), %s.class, mappingContext)", arrayVar, s, arrayVar.typeName());
+        } else if (canCopyElementsByReference(s.elementType(), d.elementType())) {
+            if (s.isArray()) {
+                mapArray = format("System.arraycopy(%s, 0, %s, 0, %s.length)", s, d.name(), d.name());
+            } else {
+                mapArray = forEachElement(s, d.name(), format("%s[%sIndex] = (%s) %sElement;", d.name(), d.name(), d.elementTypeName(),
+                        d.name()));
+            }
+        } else if (getElementConverter(s.elementType(), d.elementType()) != null) {
+            String element = d.name() + "Element";
+            mapArray = forEachElement(s, d.name(), format("if (%s != null) { %s[%s] = (%s) %s.convert(%s, %s); }", element, d.name(),
+                    d.name() + "Index", d.elementTypeName(), usedConverter(getElementConverter(s.elementType(), d.elementType())),
+                    element, usedType(d.elementType())));
         } else {
             mapArray = format("mapperFacade.mapAsArray(%s, asList(%s), %s, %s, mappingContext)", d.name(), s, usedType(s.elementType()),
                     usedType(d.elementType()));
@@ -386,6 +488,122 @@ public class CodeSourceBuilder {
         return this;
     }
     
+    /**
+     * Generates the statements which copy a primitive array into the new
+     * (declared) destination array, whose component type is the same as or
+     * wider than that of the source; no elements are boxed, and no
+     * MapperFacade calls are made.
+     */
+    private String copyPrimitiveArray(VariableRef d, VariableRef s) {
+        if (s.elementType().equals(d.elementType())) {
+            return format("System.arraycopy(%s, 0, %s, 0, %s.length)", s, d.name(), d.name());
+        } else {
+            String sourceArray = d.name() + "Source";
+            String index = d.name() + "Index";
+            return format("%s[] %s = %s; for (int %s = 0; %s < %s.length; ++%s) { %s[%s] = (%s) %s[%s]; }", s.elementTypeName(),
+                    sourceArray, s, index, index, d.name(), index, d.name(), index, d.elementTypeName(), sourceArray, index);
+        }
+    }
+    
+    /**
+     * Generates the statements which unbox the elements of a collection of
+     * primitive wrappers into the new (declared) destination array, without
+     * MapperFacade calls; RandomAccess lists are read by index, other
+     * collections through their iterator.
+     */
+    private String unboxIntoPrimitiveArray(VariableRef d, VariableRef s) {
+        String primitiveName = ClassUtil.getPrimitiveType(s.elementType().getRawType()).getName();
+        return forEachElement(s, d.name(), format("%s[%sIndex] = (%s) ((%s) %sElement).%sValue();", d.name(), d.name(), d.elementTypeName(),
+                s.elementTypeName(), d.name(), primitiveName));
+    }
+    
+    /**
+     * Generates a loop over the elements of the source array or collection,
+     * which declares each element as the local <code>&lt;name&gt;Element</code>
+     * and its position as <code>&lt;name&gt;Index</code> before applying the
+     * specified body to it; RandomAccess lists are read by index, other
+     * collections through their iterator.
+     */
+    private String forEachElement(VariableRef s, String name, String body) {
+        String source = name + "Source";
+        String element = name + "Element";
+        String index = name + "Index";
+        if (s.isArray()) {
+            return format("%s[] %s = %s; ", s.elementTypeName(), source, s)
+                    + format("for (int %s = 0; %s < %s.length; ++%s) { ", index, index, source, index)
+                    + format("Object %s = %s[%s]; %s }", element, source, index, body);
+        }
+        String list = name + "List";
+        String iterator = name + "Iterator";
+        return format("java.util.Collection %s = %s; int %s = 0; ", source, s, index)
+                + format("if (%s instanceof java.util.RandomAccess && %s instanceof java.util.List) { ", source, source)
+                + format("java.util.List %s = (java.util.List) %s; for (; %s < %s.size(); ++%s) { ", list, source, index, list, index)
+                + format("Object %s = %s.get(%s); %s } } else { ", element, list, index, body)
+                + format("for (java.util.Iterator %s = %s.iterator(); %s.hasNext(); ++%s) { ", iterator, source, iterator, index)
+                + format("Object %s = %s.next(); %s } }", element, iterator, body);
+    }
+    
+    /**
+     * Determines whether elements of the source element type can only be of
+     * that exact class at runtime, so that the decision taken for them at
+     * generation time is the same as the one the facade would take for each
+     * element.
+     */
+    private boolean isExactElementType(Type<?> elementType) {
+        Class<?> rawType = elementType.getRawType();
+        return rawType.isPrimitive() || ClassUtil.isPrimitiveWrapper(rawType) || Modifier.isFinal(rawType.getModifiers());
+    }
+    
+    /**
+     * Determines, at generation time, whether the facade would copy elements
+     * of the source element type by reference into the destination element
+     * type; such elements may be copied in bulk, without any facade calls.
+     */
+    private boolean canCopyElementsByReference(Type<?> sourceElementType, Type<?> destinationElementType) {
+        if (sourceElementType == null || destinationElementType == null || !isExactElementType(sourceElementType)) {
+            return false;
+        }
+        return ClassUtil.isImmutable(sourceElementType) && sourceElementType.equals(destinationElementType);
+    }
+    
+    /**
+     * @return the converter which the facade would use to map elements of the
+     *         source element type into the destination element type, or null
+     *         if the elements are not converted (or may be copied by
+     *         reference), or may be of a subclass for which the facade could
+     *         resolve another converter
+     */
+    private Converter<Object, Object> getElementConverter(Type<?> sourceElementType, Type<?> destinationElementType) {
+        if (sourceElementType == null || destinationElementType == null || !isExactElementType(sourceElementType)
+                || canCopyElementsByReference(sourceElementType, destinationElementType)) {
+            return null;
+        }
+        ConverterFactory converterFactory = mapperFactory.getConverterFactory();
+        return converterFactory.canConvert(sourceElementType, destinationElementType) ? converterFactory.getConverter(sourceElementType,
+                destinationElementType) : null;
+    }
+    
+    /**
+     * Generates the code which adds the elements of a primitive array to the
+     * destination collection; each element is boxed directly into the wrapper
+     * of the destination element type when the element is assignable to it,
+     * or else into the wrapper of the source element type.
+     */
+    private void fromPrimitiveArrayToCollection(MultiOccurrenceVariableRef d, MultiOccurrenceVariableRef s) {
+        Class<?> sourceElementClass = s.elementType().getRawType();
+        Class<?> elementClass = sourceElementClass;
+        Class<?> destinationElementClass = d.elementType().getRawType();
+        if (ClassUtil.isPrimitiveWrapper(destinationElementClass)
+                && ClassUtil.isPrimitiveAssignable(sourceElementClass, ClassUtil.getPrimitiveType(destinationElementClass))) {
+            elementClass = ClassUtil.getPrimitiveType(destinationElementClass);
+        }
+        String sourceArray = d.name() + "Source";
+        String index = d.name() + "Index";
+        newLine().append("%s[] %s = %s;", s.elementTypeName(), sourceArray, s);
+        newLine().append("for (int %s = 0; %s < %s.length; ++%s) { %s.add(%s.valueOf((%s) %s[%s])); }", index, index, sourceArray, index, d,
+                ClassUtil.getWrapperType(elementClass).getCanonicalName(), elementClass.getName(), sourceArray, index);
+    }
+    
     /**
      * Generate code to map from a string or enum to another enum
      * 
@@ -417,10 +635,39 @@ public class CodeSourceBuilder {
      */
     public CodeSourceBuilder fromObjectToObject(VariableRef d, VariableRef s, Property ip) {
         
-        String mapNewObject = d.assign(format("(%s)mapperFacade.map(%s, %s, %s, mappingContext)", d.typeName(), s, usedType(s), usedType(d)));
-        String mapExistingObject = format("mapperFacade.map(%s, %s, %s, %s, mappingContext)", s, d, usedType(s), usedType(d));
+        String mapNewObject;
+        String mapExistingObject;
+        if (isDispatchedDirectly(s.type(), d.type())) {
+            /*
+             * The runtime class of the source is expected to be the
+             * declared type, so the strategy resolved by the bound mapper
+             * (object factory, mapper and direction) holds for every call
+             */
+            mapNewObject = d.assign(format("(%s)%s.map(%s, mappingContext)", d.typeName(), usedBoundMapper(s, d), s));
+            mapExistingObject = format("%s.map(%s, %s, mappingContext)", usedBoundMapper(s, d), s, d);
+        } else {
+            mapNewObject = d.assign(format("(%s)mapperFacade.map(%s, %s, %s, mappingContext)", d.typeName(), s, usedType(s), usedType(d)));
+            mapExistingObject = format("mapperFacade.map(%s, %s, %s, %s, mappingContext)", s, d, usedType(s), usedType(d));
+        }
         String mapStmt = format(" %s { %s; } else { %s; }", d.ifNull(), mapNewObject, mapExistingObject);
         
+        if (profiledTypes != null && !isDispatchedDirectly(s.type(), d.type()) && isDispatchable(s.type(), d.type())) {
+            Type<?> observedType = profiledTypes.getObservedType(s.type(), d.type());
+            if (profiledTypes.isProfiling()) {
+                mapStmt = format("profileType(%d, %s); %s", profiledTypes.getIndex(s.type(), d.type()), s, mapStmt);
+            } else if (observedType != null && isDispatchable(observedType, d.type())) {
+                /*
+                 * Only the observed runtime class has been seen during the
+                 * profiling, so a fast path guarded by it is dispatched 
+                 * directly to the bound mapper for that class
+                 */
+                String mapObserved = format(" %s { %s; } else { %s.map(%s, %s, mappingContext); }", d.ifNull(),
+                        d.assign(format("(%s)%s.map(%s, mappingContext)", d.typeName(), usedBoundMapper(observedType, d.type()), s)),
+                        usedBoundMapper(observedType, d.type()), s, d);
+                mapStmt = format("if (%s.getClass() == %s.getRawType()) { %s } else { %s }", s, usedType(observedType), mapObserved, mapStmt);
+            }
+        }
+        
         String ipStmt = "";
         if (ip != null) {
             VariableRef inverse = new VariableRef(ip, d);
@@ -441,6 +688,92 @@ public class CodeSourceBuilder {
         return this;
     }
     
+    /**
+     * Determines whether the mapping of a nested object from the source type
+     * to the destination type should be dispatched directly to a BoundMapper;
+     * this is the case when the source type is final, or concrete with no
+     * registered subtypes (so that its mapping strategy is not expected to
+     * vary with the runtime class), and the chain of such
+     * direct dispatches starting from it is no longer than the configured
+     * depth.
+     */
+    private boolean isDispatchedDirectly(Type<?> sourceType, Type<?> destinationType) {
+        return nestedMappingInlineDepth > 0 && isDirectlyDispatchable(sourceType, destinationType)
+                && getDirectDispatchDepth(sourceType, destinationType, new HashSet<Type<?>>()) <= nestedMappingInlineDepth;
+    }
+    
+    private boolean isDirectlyDispatchable(Type<?> sourceType, Type<?> destinationType) {
+        return isMonomorphic(sourceType) && isDispatchable(sourceType, destinationType);
+    }
+    
+    /**
+     * Determines whether the runtime class of a source declared with the
+     * specified type is expected to be that type itself: either the type is
+     * final, or it is concrete and none of its subtypes has been registered
+     * for mapping. In the latter case an unexpected subclass remains mapped
+     * correctly, since the BoundMapper resolves its strategy again whenever
+     * the runtime class changes.
+     */
+    private boolean isMonomorphic(Type<?> type) {
+        int modifiers = type.getRawType().getModifiers();
+        if (Modifier.isFinal(modifiers)) {
+            return true;
+        }
+        return mapperFactory instanceof DefaultMapperFactory && ClassUtil.isConcrete(type)
+                && !((DefaultMapperFactory) mapperFactory).existsRegisteredSubtype(type);
+    }
+    
+    /**
+     * Determines whether the mapping of a nested object from the source type
+     * to the destination type could be dispatched to a BoundMapper, given that
+     * the runtime class of the source is known.
+     */
+    private boolean isDispatchable(Type<?> sourceType, Type<?> destinationType) {
+        Class<?> rawType = sourceType.getRawType();
+        return !rawType.isArray() && !ClassUtil.isImmutable(rawType)
+                && !Collection.class.isAssignableFrom(rawType) && !Map.class.isAssignableFrom(rawType)
+                && !destinationType.getRawType().isArray() && mapperFactory.getConverterFactory().getConverter(sourceType, destinationType) == null;
+    }
+    
+    /**
+     * Computes the length of the chain of direct dispatches which begins by
+     * mapping the source type to the destination type, based on the class map
+     * registered for the pair (if any); returns Integer.MAX_VALUE for cyclic
+     * chains, which are never dispatched directly.
+     */
+    private int getDirectDispatchDepth(Type<?> sourceType, Type<?> destinationType, Set<Type<?>> visited) {
+        
+        ClassMap<?, ?> classMap = mapperFactory.getClassMap(new MapperKey(sourceType, destinationType));
+        if (classMap == null) {
+            return 1;
+        }
+        boolean aToB = classMap.getAType().equals(sourceType);
+        if (!visited.add(sourceType)) {
+            return Integer.MAX_VALUE;
+        }
+        int nestedDepth = 0;
+        for (FieldMap fieldMap : classMap.getFieldsMapping()) {
+            if (!aToB) {
+                fieldMap = fieldMap.flip();
+            }
+            if (fieldMap.isExcluded() || fieldMap.isIgnored() || fieldMap.getElementMap() != null || fieldMap.getConverterId() != null) {
+                continue;
+            }
+            Type<?> nestedSourceType = fieldMap.getSource().getType();
+            Type<?> nestedDestinationType = fieldMap.getDestination().getType();
+            if (isDirectlyDispatchable(nestedSourceType, nestedDestinationType)) {
+                int depth = getDirectDispatchDepth(nestedSourceType, nestedDestinationType, visited);
+                if (depth == Integer.MAX_VALUE) {
+                    return depth;
+                } else if (depth <= nestedMappingInlineDepth && depth > nestedDepth) {
+                    nestedDepth = depth;
+                }
+            }
+        }
+        visited.remove(sourceType);
+        return nestedDepth + 1;
+    }
+    
     /**
      * Generate code for testing that the given variable reference is not null
      * 
@@ -531,15 +864,26 @@ public class CodeSourceBuilder {
         ifNotNull(s).then();
         
         if (d.isAssignable()) {
-            statement("if (%s == null) %s", d, d.assign(d.newMap()));
+            statement("if (%s == null) %s", d, d.assign(d.newMap(s.size())));
         }
         
         statement("%s.clear()", d);
-        if (d.mapKeyType().equals(s.mapKeyType()) && d.mapValueType().equals(s.mapValueType())) {
+        if (canCopyElementsByReference(s.mapKeyType(), d.mapKeyType()) && canCopyElementsByReference(s.mapValueType(), d.mapValueType())) {
+            /*
+             * Keys and values are both copied by reference
+             */
+            statement("%s.putAll(%s)", d, s);
+        } else if (d.mapKeyType().equals(s.mapKeyType()) && d.mapValueType().equals(s.mapValueType())) {
             /*
              * Simple map-to-map case: both key and value types are identical
              */
-            statement("%s.putAll(mapperFacade.mapAsMap(%s, %s, %s, mappingContext));", d, s, usedType(s.type()), usedType(d.type()));
+            String keys = d.name() + "Keys";
+            String key = d.name() + "Key";
+            newLine().append("for (java.util.Iterator %s = %s.keySet().iterator(); %s.hasNext();) { ", keys, s, keys)
+                    .append("Object %s = %s.next(); ", key, keys)
+                    .append("%s.put(mapperFacade.map(%s, %s, %s, mappingContext), ", d, key, usedType(s.mapKeyType()), usedType(d.mapKeyType()))
+                    .append("mapperFacade.map(%s.get(%s), %s, %s, mappingContext)); }", s, key, usedType(s.mapValueType()),
+                            usedType(d.mapValueType()));
         } else {
             VariableRef newKey = new VariableRef(d.mapKeyType(), "_$_key");
             VariableRef newVal = new VariableRef(d.mapValueType(), "_$_val");
@@ -581,7 +925,7 @@ public class CodeSourceBuilder {
         ifNotNull(s).then();
         
         if (d.isAssignable()) {
-            statement("if (%s == null) %s", d, d.assign(d.newMap()));
+            statement("if (%s == null) %s", d, d.assign(d.newMap(s.size())));
         }
         statement("%s.clear()", d);
         
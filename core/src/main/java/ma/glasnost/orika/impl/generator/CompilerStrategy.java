@@ -41,6 +41,20 @@ public abstract class CompilerStrategy {
      */
     public abstract Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException;
 
+    /**
+     * Compile the (generated) class into the bytes of a class file, without
+     * loading it; any (optional) source and/or class files are written as
+     * with {@link #compileClass(GeneratedSourceCode)}.<br>
+     * Strategies which are unable to provide the compiled bytes return null,
+     * which is the default.
+     * 
+     * @return the bytes of the compiled class file, or null if not supported
+     * @throws SourceCodeGenerationException
+     */
+    public byte[] compileToByteCode(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+        return null;
+    }
+
     /**
      * Verify that the Class provided is accessible to the compiler/generator.
      * 
@@ -0,0 +1,334 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ * 
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javassist.CannotCompileException;
+import javassist.CtClass;
+import javassist.bytecode.AccessFlag;
+import javassist.bytecode.Bytecode;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.DuplicateMemberException;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.impl.GeneratedMapperBase;
+import ma.glasnost.orika.impl.Specifications;
+import ma.glasnost.orika.metadata.ClassMap;
+import ma.glasnost.orika.metadata.FieldMap;
+import ma.glasnost.orika.metadata.Property;
+
+/**
+ * DirectByteCodeCompilerStrategy emits the byte-code of mappers directly from
+ * the field maps of a class map, using the Javassist byte-code API, rather
+ * than generating Java source and compiling it.<br>
+ * <br>
+ * Only mappers whose field maps all copy an immutable value from a getter
+ * method to a setter method (the most common case) are emitted directly;
+ * source is generated and compiled (using Javassist) for any other mapper,
+ * and for object factories.
+ * 
+ * @see MapperGenerator
+ */
+public class DirectByteCodeCompilerStrategy extends JavassistCompilerStrategy {
+    
+    private static final String GENERATED_PACKAGE = "ma.glasnost.orika.generated";
+    private static final String MAP_METHOD_DESCRIPTOR = "(Ljava/lang/Object;Ljava/lang/Object;" + descriptor(MappingContext.class) + ")V";
+    private static final Pattern GETTER = Pattern.compile("(\\w+)\\(\\)");
+    private static final Pattern SETTER = Pattern.compile("(\\w+)\\(%s\\)");
+    
+    /*
+     * Local variable slots of the emitted map methods
+     */
+    private static final int THIS = 0;
+    private static final int SOURCE_PARAMETER = 1;
+    private static final int DESTINATION_PARAMETER = 2;
+    private static final int CONTEXT_PARAMETER = 3;
+    private static final int SOURCE = 4;
+    private static final int DESTINATION = 5;
+    
+    private static final AtomicInteger classCount = new AtomicInteger();
+    
+    /**
+     * Emits and loads the mapper class for the specified class map, if all of
+     * the field maps can be emitted directly.
+     * 
+     * @param classMap
+     *            the class map for which to emit a mapper
+     * @param fieldMapsAtoB
+     *            the field maps to be mapped from A to B
+     * @param fieldMapsBtoA
+     *            the field maps to be mapped from B to A (already flipped)
+     * @return the mapper class, or null if any of the field maps cannot be
+     *         emitted directly, or if either map method would be too large
+     *         to be JIT-compiled
+     * @throws SourceCodeGenerationException
+     */
+    public Class<?> compileMapperClass(ClassMap<?, ?> classMap, List<FieldMap> fieldMapsAtoB, List<FieldMap> fieldMapsBtoA)
+            throws SourceCodeGenerationException {
+        
+        Class<?> aType = classMap.getAType().getRawType();
+        Class<?> bType = classMap.getBType().getRawType();
+        Method[] accessorsAtoB = resolveAccessors(fieldMapsAtoB, aType, bType);
+        Method[] accessorsBtoA = resolveAccessors(fieldMapsBtoA, bType, aType);
+        if (accessorsAtoB == null || accessorsBtoA == null) {
+            return null;
+        }
+        
+        String className = GENERATED_PACKAGE + "." + classMap.getMapperClassName() + "_" + classCount.incrementAndGet();
+        ClassFile classFile = new ClassFile(false, className, GeneratedMapperBase.class.getName());
+        /*
+         * Class files of this version are verified without stack map frames
+         */
+        classFile.setMajorVersion(ClassFile.JAVA_5);
+        classFile.setAccessFlags(AccessFlag.PUBLIC);
+        
+        try {
+            MethodInfo mapAtoB = mapMethod(classFile.getConstPool(), "mapAtoB", aType, bType, accessorsAtoB);
+            MethodInfo mapBtoA = mapMethod(classFile.getConstPool(), "mapBtoA", bType, aType, accessorsBtoA);
+            if (mapAtoB.getCodeAttribute().getCodeLength() > MapperGenerator.HUGE_METHOD_LIMIT
+                    || mapBtoA.getCodeAttribute().getCodeLength() > MapperGenerator.HUGE_METHOD_LIMIT) {
+                /*
+                 * Too large to be JIT-compiled; the generated source is split
+                 * into several methods instead
+                 */
+                return null;
+            }
+            classFile.addMethod(constructor(classFile.getConstPool()));
+            classFile.addMethod(mapAtoB);
+            classFile.addMethod(mapBtoA);
+            
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            classFile.write(out);
+            out.close();
+            
+            synchronized (classPool) {
+                CtClass byteCodeClass = classPool.makeClass(new ByteArrayInputStream(bytes.toByteArray()));
+                try {
+                    return byteCodeClass.toClass();
+                } finally {
+                    byteCodeClass.detach();
+                }
+            }
+        } catch (DuplicateMemberException e) {
+            throw new SourceCodeGenerationException(e);
+        } catch (CannotCompileException e) {
+            throw new SourceCodeGenerationException(e);
+        } catch (IOException e) {
+            throw new SourceCodeGenerationException(e);
+        }
+    }
+    
+    /**
+     * Resolves the getter and setter methods for each of the field maps.
+     * 
+     * @return consecutive (getter, setter) pairs, or null if any field map
+     *         cannot be emitted directly
+     */
+    private static Method[] resolveAccessors(List<FieldMap> fieldMaps, Class<?> sourceType, Class<?> destinationType) {
+        Method[] accessors = new Method[fieldMaps.size() * 2];
+        int i = 0;
+        for (FieldMap fieldMap : fieldMaps) {
+            if (fieldMap.getElementMap() != null || !fieldMap.is(Specifications.immutable())) {
+                return null;
+            }
+            Method getter = resolveAccessor(sourceType, fieldMap.getSource(), fieldMap.getSource().getGetter(), GETTER);
+            Method setter = resolveAccessor(destinationType, fieldMap.getDestination(), fieldMap.getDestination().getSetter(), SETTER);
+            if (getter == null || setter == null) {
+                return null;
+            }
+            Class<?> valueType = getter.getReturnType();
+            Class<?> parameterType = setter.getParameterTypes()[0];
+            if ((valueType.isPrimitive() || parameterType.isPrimitive()) && valueType != parameterType) {
+                return null;
+            }
+            accessors[i++] = getter;
+            accessors[i++] = setter;
+        }
+        return accessors;
+    }
+    
+    private static Method resolveAccessor(Class<?> type, Property property, String expression, Pattern pattern) {
+        if (property.hasPath() || expression == null) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(expression);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            Method method;
+            if (pattern == GETTER) {
+                method = type.getMethod(matcher.group(1));
+            } else {
+                method = type.getMethod(matcher.group(1), property.getRawType());
+            }
+            return Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+    
+    private static MethodInfo constructor(ConstPool constPool) {
+        Bytecode code = new Bytecode(constPool, 0, 1);
+        code.addAload(THIS);
+        code.addInvokespecial(GeneratedMapperBase.class.getName(), MethodInfo.nameInit, "()V");
+        code.addOpcode(Opcode.RETURN);
+        
+        MethodInfo method = new MethodInfo(constPool, MethodInfo.nameInit, "()V");
+        method.setAccessFlags(AccessFlag.PUBLIC);
+        method.setCodeAttribute(code.toCodeAttribute());
+        return method;
+    }
+    
+    /**
+     * Emits the equivalent of the source generated by MapperGenerator for
+     * field maps which copy by reference:
+     * 
+     * <pre>
+     * super.mapAtoB(a, b, mappingContext);
+     * A source = (A) a;
+     * B destination = (B) b;
+     * destination.setX(source.getX());
+     * ...
+     * if (customMapper != null) {
+     *     customMapper.mapAtoB(source, destination, mappingContext);
+     * }
+     * </pre>
+     */
+    private static MethodInfo mapMethod(ConstPool constPool, String name, Class<?> sourceType, Class<?> destinationType,
+            Method[] accessors) {
+        
+        Bytecode code = new Bytecode(constPool, 0, DESTINATION + 1);
+        code.addAload(THIS);
+        code.addAload(SOURCE_PARAMETER);
+        code.addAload(DESTINATION_PARAMETER);
+        code.addAload(CONTEXT_PARAMETER);
+        code.addInvokespecial(GeneratedMapperBase.class.getName(), name, MAP_METHOD_DESCRIPTOR);
+        
+        code.addAload(SOURCE_PARAMETER);
+        code.addCheckcast(sourceType.getName());
+        code.addAstore(SOURCE);
+        code.addAload(DESTINATION_PARAMETER);
+        code.addCheckcast(destinationType.getName());
+        code.addAstore(DESTINATION);
+        
+        for (int i = 0; i < accessors.length; i += 2) {
+            Method getter = accessors[i];
+            Method setter = accessors[i + 1];
+            Class<?> parameterType = setter.getParameterTypes()[0];
+            
+            code.addAload(DESTINATION);
+            code.addAload(SOURCE);
+            addInvoke(code, sourceType, getter);
+            if (!parameterType.isAssignableFrom(getter.getReturnType())) {
+                code.addCheckcast(parameterType.getName());
+            }
+            addInvoke(code, destinationType, setter);
+            if (setter.getReturnType() == long.class || setter.getReturnType() == double.class) {
+                code.addOpcode(Opcode.POP2);
+            } else if (setter.getReturnType() != void.class) {
+                code.addOpcode(Opcode.POP);
+            }
+        }
+        
+        code.addAload(THIS);
+        code.addGetfield(GeneratedMapperBase.class.getName(), "customMapper", descriptor(Mapper.class));
+        code.addOpcode(Opcode.IFNULL);
+        int branch = code.currentPc();
+        code.addIndex(0);
+        code.addAload(THIS);
+        code.addGetfield(GeneratedMapperBase.class.getName(), "customMapper", descriptor(Mapper.class));
+        code.addAload(SOURCE);
+        code.addAload(DESTINATION);
+        code.addAload(CONTEXT_PARAMETER);
+        code.addInvokeinterface(Mapper.class.getName(), name, MAP_METHOD_DESCRIPTOR, 4);
+        /*
+         * The branch offset is relative to the IFNULL instruction itself
+         */
+        code.write16bit(branch, code.currentPc() - (branch - 1));
+        code.addOpcode(Opcode.RETURN);
+        
+        MethodInfo method = new MethodInfo(constPool, name, MAP_METHOD_DESCRIPTOR);
+        method.setAccessFlags(AccessFlag.PUBLIC);
+        method.setCodeAttribute(code.toCodeAttribute());
+        return method;
+    }
+    
+    /**
+     * Invokes the method through the mapped type (rather than the type
+     * declaring it), which is known to be accessible
+     */
+    private static void addInvoke(Bytecode code, Class<?> owner, Method method) {
+        StringBuilder methodDescriptor = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            methodDescriptor.append(descriptor(parameterType));
+        }
+        methodDescriptor.append(')').append(descriptor(method.getReturnType()));
+        
+        if (owner.isInterface()) {
+            int argumentSlots = 1;
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                argumentSlots += (parameterType == long.class || parameterType == double.class) ? 2 : 1;
+            }
+            code.addInvokeinterface(owner.getName(), method.getName(), methodDescriptor.toString(), argumentSlots);
+        } else {
+            code.addInvokevirtual(owner.getName(), method.getName(), methodDescriptor.toString());
+        }
+    }
+    
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        } else if (!type.isPrimitive()) {
+            return "L" + type.getName().replace('.', '/') + ";";
+        } else if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == byte.class) {
+            return "B";
+        } else if (type == char.class) {
+            return "C";
+        } else if (type == short.class) {
+            return "S";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type == long.class) {
+            return "J";
+        } else if (type == float.class) {
+            return "F";
+        } else {
+            return "D";
+        }
+    }
+}
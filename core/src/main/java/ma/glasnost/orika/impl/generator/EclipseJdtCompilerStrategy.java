@@ -67,7 +67,13 @@ public class EclipseJdtCompilerStrategy extends CompilerStrategy {
     
     private String formatSource(String rawSource) {
         try {
-            return (String)formatSource.invoke(compiler, rawSource);
+            /*
+             * The JDT code formatter is not thread-safe; compilation is
+             * already synchronized by the compiler itself
+             */
+            synchronized (compiler) {
+                return (String)formatSource.invoke(compiler, rawSource);
+            }
         } catch (IllegalAccessException e) {
             throw new RuntimeException(e);
         } catch (IllegalArgumentException e) {
@@ -189,6 +195,27 @@ public class EclipseJdtCompilerStrategy extends CompilerStrategy {
         throws SourceCodeGenerationException {
 
         Class<?> compiledClass = null;
+        byte[] data = compileToByteCode(sourceCode);
+        
+        try {
+            compiledClass = load(sourceCode.getClassName(), data);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+
+        return compiledClass;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#compileToByteCode
+     * (ma.glasnost.orika.impl.generator.GeneratedSourceCode)
+     */
+    public byte[] compileToByteCode(GeneratedSourceCode sourceCode)
+        throws SourceCodeGenerationException {
+        
         String sourceText = formatSource(sourceCode.toSourceFile());
         String packageName = sourceCode.getPackageName();
         String classSimpleName = sourceCode.getClassSimpleName();
@@ -211,13 +238,7 @@ public class EclipseJdtCompilerStrategy extends CompilerStrategy {
             throw new RuntimeException("Failed to write files for " + className, e);
         } 
         
-        try {
-            compiledClass = load(className, data);
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        }
-
-        return compiledClass;
+        return data;
     }
 
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ package ma.glasnost.orika.impl.generator;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javassist.CannotCompileException;
 import javassist.NotFoundException;
@@ -55,6 +57,16 @@ public class GeneratedSourceCode {
     private List<String> methods;
     private List<String> fields;
     private Class<?> superClass;
+    /*
+     * The length of the byte-code of each method, where measured by the
+     * compiler strategy; shared with the copies of this source
+     */
+    private Map<String, Integer> codeLengths = new ConcurrentHashMap<String, Integer>();
+    /*
+     * The length of byte-code beyond which a compiler strategy which measures
+     * it should refuse to load the class, or 0 for no limit
+     */
+    private int maxCodeLength;
 
     /**
      * @param baseClassName
@@ -80,7 +92,7 @@ public class GeneratedSourceCode {
 
 		int namePos = baseClassName.lastIndexOf(".");
 		if (namePos > 0) {
-			this.packageName = baseClassName.substring(0, namePos - 1);
+			this.packageName = baseClassName.substring(0, namePos);
 			this.classSimpleName = baseClassName.substring(namePos + 1);
 		} else {
 			this.packageName = "ma.glasnost.orika.generated";
@@ -125,6 +137,78 @@ public class GeneratedSourceCode {
 		return methods;
 	}
 
+	/**
+	 * Records the length of the byte-code compiled for a method
+	 * 
+	 * @param methodName
+	 * @param codeLength
+	 */
+	void setCodeLength(String methodName, int codeLength) {
+		codeLengths.put(methodName, Integer.valueOf(codeLength));
+	}
+
+	/**
+	 * @return the length of the byte-code compiled for each method, by name;
+	 *         empty if the compiler strategy does not measure it
+	 */
+	Map<String, Integer> getCodeLengths() {
+		return codeLengths;
+	}
+
+	/**
+	 * Sets the length of byte-code beyond which a compiler strategy which
+	 * measures the byte-code of each method should refuse to load the class
+	 * (by throwing a SourceCodeGenerationException); other strategies
+	 * ignore it.
+	 * 
+	 * @param maxCodeLength
+	 *            the maximum length of the byte-code of a method, or 0 for
+	 *            no limit
+	 */
+	void setMaxCodeLength(int maxCodeLength) {
+		this.maxCodeLength = maxCodeLength;
+	}
+
+	/**
+	 * @return the name of a method whose measured byte-code exceeds the
+	 *         maximum code length, or null if there is none (or no limit)
+	 */
+	String getHugeMethod() {
+		if (maxCodeLength > 0) {
+			for (Map.Entry<String, Integer> codeLength : codeLengths.entrySet()) {
+				if (codeLength.getValue() > maxCodeLength) {
+					return codeLength.getKey();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates a copy of this source code, declaring the same fields and
+	 * methods, for a class of the specified (fully-qualified) name; the
+	 * code lengths measured when compiling the copy are also recorded
+	 * on this source code.
+	 * 
+	 * @param className
+	 *            the fully-qualified name of the class to be generated
+	 * @param compilerStrategy
+	 *            the strategy to use when compiling the copy
+	 * @return a copy of this source code for the specified class name
+	 */
+	GeneratedSourceCode copyAs(String className, CompilerStrategy compilerStrategy) {
+		GeneratedSourceCode copy = new GeneratedSourceCode(className, superClass, compilerStrategy);
+		for (String field : fields) {
+			copy.addField(field);
+		}
+		for (String method : methods) {
+			copy.addMethod(method);
+		}
+		copy.codeLengths = codeLengths;
+		copy.maxCodeLength = maxCodeLength;
+		return copy;
+	}
+
     
 	/**
 	 * Adds a method definition to the class based on the provided source.
@@ -33,9 +33,11 @@ import javassist.ClassClassPath;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtField;
+import javassist.CtMethod;
 import javassist.CtNewMethod;
 import javassist.LoaderClassPath;
 import javassist.NotFoundException;
+import javassist.bytecode.CodeAttribute;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +59,12 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
     private final static Logger LOG = LoggerFactory.getLogger(JavassistCompilerStrategy.class);
     private final static Map<Class<?>, Boolean> superClasses = new ConcurrentHashMap<Class<?>,Boolean>(3);
     
-    private ClassPool classPool;
+    /**
+     * The class-pool is not thread-safe, while mappers may be compiled
+     * concurrently during a parallel build; all use of it is therefore
+     * synchronized on the class-pool itself
+     */
+    protected final ClassPool classPool;
     
     /**
      * Keep a set of class-loaders that have already been added to the javassist class-pool
@@ -122,16 +129,17 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
      * if the class-loader was already registered
      */
     private boolean registerClassLoader(ClassLoader cl) {
-    	Boolean found = referencedLoaders.get(cl);
-    	if (found==null) {
-    		synchronized(cl) {
-    			found = referencedLoaders.get(cl);
-    			if (found==null) {
-    				referencedLoaders.put(cl,Boolean.TRUE);
-    			}
+    	/*
+    	 * WeakHashMap is not safe for concurrent reads and writes, and classes
+    	 * may be compiled concurrently during a parallel build
+    	 */
+    	synchronized(referencedLoaders) {
+    		Boolean found = referencedLoaders.get(cl);
+    		if (found==null) {
+    			referencedLoaders.put(cl,Boolean.TRUE);
     		}
+    		return found==null || !found;
     	}
-    	return found==null || !found;
     }
     
     /*
@@ -182,6 +190,69 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
      */
     public Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
         
+        synchronized (classPool) {
+            CtClass byteCodeClass = makeClass(sourceCode);
+            Class<?> compiledClass;
+            
+            try {
+                compiledClass = byteCodeClass.toClass();
+                
+                writeClassFile(sourceCode, byteCodeClass);
+                
+            } catch (CannotCompileException e) {
+                throw new SourceCodeGenerationException(e);
+            } catch (IOException e) {
+                throw new SourceCodeGenerationException("Could not write files for " + sourceCode.getClassName(), e);
+            }
+            
+            return compiledClass;
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#compileToByteCode
+     * (ma.glasnost.orika.impl.generator.GeneratedSourceCode)
+     */
+    public byte[] compileToByteCode(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+        
+        synchronized (classPool) {
+            CtClass byteCodeClass = makeClass(sourceCode);
+            byte[] byteCode;
+            
+            try {
+                byteCode = byteCodeClass.toBytecode();
+                
+                writeClassFile(sourceCode, byteCodeClass);
+                
+            } catch (CannotCompileException e) {
+                throw new SourceCodeGenerationException(e);
+            } catch (IOException e) {
+                throw new SourceCodeGenerationException("Could not write files for " + sourceCode.getClassName(), e);
+            } finally {
+                /*
+                 * The class is never loaded through the class-pool, so it 
+                 * should not be retained there either
+                 */
+                byteCodeClass.detach();
+            }
+            
+            return byteCode;
+        }
+    }
+    
+    /**
+     * Creates the (not yet loaded) class for the generated source, writing 
+     * the source file if requested; must be called while holding the lock
+     * on the class-pool.<br>
+     * The byte-code of each method is measured here, before the class is
+     * loaded, so that a class with a method beyond the maximum code length
+     * of the source is discarded rather than loaded.
+     */
+    private CtClass makeClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+        
         String className = sourceCode.getClassName();
         CtClass byteCodeClass = null;
         int attempts = 0;
@@ -200,7 +271,6 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
     	}
         
         CtClass abstractMapperClass;
-        Class<?> compiledClass;
         
         try {
         	writeSourceFile(sourceCode);
@@ -232,7 +302,12 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
             
             for (String methodDef : sourceCode.getMethods()) {
                 try {
-                    byteCodeClass.addMethod(CtNewMethod.make(methodDef, byteCodeClass));
+                    CtMethod method = CtNewMethod.make(methodDef, byteCodeClass);
+                    byteCodeClass.addMethod(method);
+                    CodeAttribute code = method.getMethodInfo().getCodeAttribute();
+                    if (code != null) {
+                        sourceCode.setCodeLength(method.getName(), code.getCodeLength());
+                    }
                 } catch (CannotCompileException e) {
                     throw new SourceCodeGenerationException(
                     		"An exception occured while compiling the following method:\n\n " + methodDef + 
@@ -241,9 +316,13 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
                 }
                 
             }
-            compiledClass = byteCodeClass.toClass();
             
-            writeClassFile(sourceCode, byteCodeClass);
+            String hugeMethod = sourceCode.getHugeMethod();
+            if (hugeMethod != null) {
+                byteCodeClass.detach();
+                throw new SourceCodeGenerationException("The byte-code of " + sourceCode.getClassName() + "." + hugeMethod + " ("
+                        + sourceCode.getCodeLengths().get(hugeMethod) + " bytes) is too large; the class is not loaded");
+            }
             
         } catch (NotFoundException e) {
             throw new SourceCodeGenerationException(e);
@@ -253,7 +332,7 @@ public class JavassistCompilerStrategy extends CompilerStrategy {
             throw new SourceCodeGenerationException("Could not write files for " + sourceCode.getClassName(), e);
         }
         
-        return compiledClass;
+        return byteCodeClass;
     }
     
 }
\ No newline at end of file
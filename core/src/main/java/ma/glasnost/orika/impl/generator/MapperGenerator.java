@@ -18,8 +18,11 @@
 
 package ma.glasnost.orika.impl.generator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 import javassist.CannotCompileException;
@@ -28,9 +31,11 @@ import ma.glasnost.orika.MapperFactory;
 import ma.glasnost.orika.MappingContext;
 import ma.glasnost.orika.MappingException;
 import ma.glasnost.orika.impl.GeneratedMapperBase;
+import ma.glasnost.orika.impl.generator.CompilerStrategy.SourceCodeGenerationException;
 import ma.glasnost.orika.metadata.ClassMap;
 import ma.glasnost.orika.metadata.FieldMap;
 import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.Property;
 import ma.glasnost.orika.metadata.Type;
 
 import org.slf4j.Logger;
@@ -40,26 +45,131 @@ public final class MapperGenerator {
     
     private static Logger LOGGER = LoggerFactory.getLogger(MapperGenerator.class);
     
+    /**
+     * HotSpot's default HugeMethodLimit: methods with more bytes of byte-code
+     * than this are never JIT-compiled
+     */
+    static final int HUGE_METHOD_LIMIT = 8000;
+    
+    /**
+     * The length of source beyond which the field mappings of a map method
+     * are split into several helper methods. Generated source averages more
+     * than four characters per byte of byte-code, so methods of this length
+     * usually stay well below the {@link #HUGE_METHOD_LIMIT}; where the
+     * compiler strategy measures the byte-code of a method to exceed it
+     * nonetheless (before loading the class), the mapper is generated again
+     * with half the length. Strategies which do not measure the byte-code
+     * rely on this length alone.
+     */
+    static final int MAX_METHOD_SOURCE_LENGTH = 16000;
+    
+    /**
+     * The length of source below which the field mappings are not split any
+     * further, since a single field mapping may exceed the limit on its own
+     */
+    static final int MIN_METHOD_SOURCE_LENGTH = 1000;
+    
     private final MapperFactory mapperFactory;
     private final CompilerStrategy compilerStrategy;
+    private final int nestedMappingInlineDepth;
     
     public MapperGenerator(MapperFactory mapperFactory, CompilerStrategy compilerStrategy) {
+        this(mapperFactory, compilerStrategy, 0);
+    }
+    
+    /**
+     * @param mapperFactory
+     *            the mapper factory for which mappers are generated
+     * @param compilerStrategy
+     *            the compiler strategy used to compile the mappers
+     * @param nestedMappingInlineDepth
+     *            the maximum length of a chain of nested mappings which the
+     *            generated mappers dispatch directly to one another, rather
+     *            than through the MapperFacade; 0 to disable
+     */
+    public MapperGenerator(MapperFactory mapperFactory, CompilerStrategy compilerStrategy, int nestedMappingInlineDepth) {
         this.mapperFactory = mapperFactory;
         this.compilerStrategy = compilerStrategy;
+        this.nestedMappingInlineDepth = nestedMappingInlineDepth;
     }
     
     public GeneratedMapperBase build(ClassMap<?, ?> classMap) {
+        return compile(generateSource(classMap));
+    }
+    
+    /**
+     * Builds a mapper in tiered mode, which either profiles the runtime classes
+     * of its nested objects, or is specialized for the classes observed by
+     * such a profile.
+     * 
+     * @param classMap
+     *            the class map for which to generate a mapper
+     * @param profiledTypes
+     *            the context describing the profile to collect or apply
+     * @return a new instance of the compiled mapper
+     */
+    public GeneratedMapperBase build(ClassMap<?, ?> classMap, ProfiledTypesContext profiledTypes) {
+        return compile(generateSource(classMap, profiledTypes));
+    }
+    
+    /**
+     * Generates the source of the mapper for the specified class map, without
+     * compiling it; the source is generated according to the mappers and
+     * converters registered with the mapper factory at the time of the call.<br>
+     * When using a {@link DirectByteCodeCompilerStrategy}, the mapper class is
+     * emitted (and loaded) directly by this method where possible, in which
+     * case no source is generated.
+     * 
+     * @param classMap
+     *            the class map for which to generate a mapper
+     * @return the generated source, to be passed to
+     *         {@link #compile(MapperSource)}
+     */
+    public MapperSource generateSource(ClassMap<?, ?> classMap) {
+        return generateSource(classMap, null);
+    }
+    
+    /**
+     * Generates the source of the mapper for the specified class map, as
+     * {@link #generateSource(ClassMap)}, in tiered mode.
+     * 
+     * @param classMap
+     *            the class map for which to generate a mapper
+     * @param profiledTypes
+     *            the context describing the profile to collect or apply, or
+     *            null if the mapper is not generated in tiered mode
+     * @return the generated source, to be passed to
+     *         {@link #compile(MapperSource)}
+     */
+    public MapperSource generateSource(ClassMap<?, ?> classMap, ProfiledTypesContext profiledTypes) {
+        return generateSource(classMap, profiledTypes, MAX_METHOD_SOURCE_LENGTH);
+    }
+    
+    private MapperSource generateSource(ClassMap<?, ?> classMap, ProfiledTypesContext profiledTypes, int maxMethodSourceLength) {
         
         try {
             compilerStrategy.assureTypeIsAccessible(classMap.getAType().getRawType());
             compilerStrategy.assureTypeIsAccessible(classMap.getBType().getRawType());
             
+            if (compilerStrategy instanceof DirectByteCodeCompilerStrategy) {
+                Class<?> mapperClass = ((DirectByteCodeCompilerStrategy) compilerStrategy).compileMapperClass(classMap,
+                        getMappedFields(classMap, true), getMappedFields(classMap, false));
+                if (mapperClass != null) {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Emitted byte-code of new mapper for (" + classMap.getAType() + ", " + classMap.getBTypeName() + ")");
+                    }
+                    return new MapperSource(classMap, null, mapperClass, new UsedTypesContext(), new UsedConvertersContext(),
+                            new UsedBoundMappersContext(), null, null, maxMethodSourceLength);
+                }
+            }
+            
             final GeneratedSourceCode mapperCode = new GeneratedSourceCode(
                     classMap.getMapperClassName(), GeneratedMapperBase.class,
                     compilerStrategy);
             
             UsedTypesContext usedTypes = new UsedTypesContext();
             UsedConvertersContext usedConverters = new UsedConvertersContext();
+            UsedBoundMappersContext usedBoundMappers = new UsedBoundMappersContext();
             
             StringBuilder logDetails;
             if (LOGGER.isDebugEnabled()) {
@@ -70,15 +180,68 @@ public final class MapperGenerator {
             }
             
             
-            addMapMethod(mapperCode, true, classMap, usedTypes, usedConverters, logDetails);
-            addMapMethod(mapperCode, false, classMap, usedTypes, usedConverters, logDetails);
+            addMapMethod(mapperCode, true, classMap, usedTypes, usedConverters, usedBoundMappers, profiledTypes, maxMethodSourceLength,
+                    logDetails);
+            addMapMethod(mapperCode, false, classMap, usedTypes, usedConverters, usedBoundMappers, profiledTypes, maxMethodSourceLength,
+                    logDetails);
+            usedTypes.declareFields(mapperCode);
+            usedConverters.declareFields(mapperCode);
+            usedBoundMappers.declareFields(mapperCode);
+            
+            return new MapperSource(classMap, mapperCode, null, usedTypes, usedConverters, usedBoundMappers, profiledTypes, logDetails,
+                    maxMethodSourceLength);
             
-            GeneratedMapperBase instance = mapperCode.getInstance();
-            instance.setAType(classMap.getAType());
-            instance.setBType(classMap.getBType());
+        } catch (final Exception e) {
+            throw new MappingException(e);
+        }
+    }
+    
+    /**
+     * Compiles and instantiates a mapper from its generated source; this
+     * method may be called concurrently for different sources, provided the
+     * compiler strategy supports concurrent compilation.
+     * 
+     * @param source
+     *            the source generated by {@link #generateSource(ClassMap)}
+     * @return a new instance of the compiled mapper
+     */
+    public GeneratedMapperBase compile(MapperSource source) {
+        
+        try {
+            GeneratedMapperBase instance;
+            if (source.mapperClass != null) {
+                instance = (GeneratedMapperBase) source.mapperClass.newInstance();
+            } else {
+                boolean canSplitFurther = source.maxMethodSourceLength / 2 >= MIN_METHOD_SOURCE_LENGTH;
+                if (canSplitFurther) {
+                    /*
+                     * Strategies which measure the byte-code (Javassist)
+                     * refuse to load a class with a huge method; others
+                     * (Eclipse JDT) rely on the split by length of source
+                     */
+                    source.mapperCode.setMaxCodeLength(HUGE_METHOD_LIMIT);
+                }
+                try {
+                    instance = source.mapperCode.getInstance();
+                } catch (SourceCodeGenerationException e) {
+                    String hugeMethod = source.mapperCode.getHugeMethod();
+                    if (hugeMethod == null) {
+                        throw e;
+                    }
+                    LOGGER.warn("The byte-code of " + source.mapperCode.getClassSimpleName() + "." + hugeMethod + " for ("
+                            + source.classMap.getAType() + ", " + source.classMap.getBTypeName()
+                            + ") is too large to be JIT-compiled; the mapper is generated again with smaller methods");
+                    ProfiledTypesContext profiledTypes = source.profiledTypes != null ? source.profiledTypes.copy() : null;
+                    return compile(generateSource(source.classMap, profiledTypes, source.maxMethodSourceLength / 2));
+                }
+            }
+            instance.setAType(source.classMap.getAType());
+            instance.setBType(source.classMap.getBType());
             
-            Type<Object>[] usedTypesArray = usedTypes.toArray();
-            Converter<Object,Object>[] usedConvertersArray = usedConverters.toArray();
+            Type<Object>[] usedTypesArray = source.usedTypes.toArray();
+            Converter<Object,Object>[] usedConvertersArray = source.usedConverters.toArray();
+            Type<?>[][] usedBoundMapperTypesArray = source.usedBoundMappers.toArray();
+            StringBuilder logDetails = source.logDetails;
             if (logDetails != null) {
             	if (usedTypesArray.length > 0) {
             		logDetails.append("\n\tTypes used: " + Arrays.toString(usedTypesArray));
@@ -86,10 +249,22 @@ public final class MapperGenerator {
             	if (usedConvertersArray.length > 0) {
             		logDetails.append("\n\tConverters used: " + Arrays.toString(usedConvertersArray));
             	}
+            	if (usedBoundMapperTypesArray.length > 0) {
+            		logDetails.append("\n\tNested mappings dispatched directly: " + Arrays.deepToString(usedBoundMapperTypesArray));
+            	}
             	// TODO: what about doing the same thing for custom mappers?
             } 
             instance.setUsedTypes(usedTypesArray);
             instance.setUsedConverters(usedConvertersArray);
+            if (usedBoundMapperTypesArray.length > 0) {
+                instance.setUsedBoundMapperTypes(usedBoundMapperTypesArray);
+            }
+            if (source.profiledTypes != null && source.profiledTypes.isProfiling()) {
+                Type<?>[][] profiledTypesArray = source.profiledTypes.toArray();
+                if (profiledTypesArray.length > 0) {
+                    instance.setProfiledTypes(profiledTypesArray);
+                }
+            }
             if (logDetails != null) {
             	LOGGER.debug(logDetails.toString());
             }
@@ -101,11 +276,49 @@ public final class MapperGenerator {
         }
     }
     
+    /**
+     * MapperSource holds the generated (but not yet compiled) source of a
+     * mapper, along with the types and converters it uses.
+     */
+    public static final class MapperSource {
+        
+        private final ClassMap<?, ?> classMap;
+        private final GeneratedSourceCode mapperCode;
+        private final Class<?> mapperClass;
+        private final UsedTypesContext usedTypes;
+        private final UsedConvertersContext usedConverters;
+        private final UsedBoundMappersContext usedBoundMappers;
+        private final ProfiledTypesContext profiledTypes;
+        private final StringBuilder logDetails;
+        private final int maxMethodSourceLength;
+        
+        private MapperSource(ClassMap<?, ?> classMap, GeneratedSourceCode mapperCode, Class<?> mapperClass, UsedTypesContext usedTypes,
+                UsedConvertersContext usedConverters, UsedBoundMappersContext usedBoundMappers, ProfiledTypesContext profiledTypes,
+                StringBuilder logDetails, int maxMethodSourceLength) {
+            this.classMap = classMap;
+            this.mapperCode = mapperCode;
+            this.mapperClass = mapperClass;
+            this.usedTypes = usedTypes;
+            this.usedConverters = usedConverters;
+            this.usedBoundMappers = usedBoundMappers;
+            this.profiledTypes = profiledTypes;
+            this.logDetails = logDetails;
+            this.maxMethodSourceLength = maxMethodSourceLength;
+        }
+        
+        /**
+         * @return the class map from which the source was generated
+         */
+        public ClassMap<?, ?> getClassMap() {
+            return classMap;
+        }
+    }
+    
     private String getFieldTag(FieldMap fieldMap) {
     	return "\n\t Field(" + fieldMap.getSource() + ", " + fieldMap.getDestination() + ") : ";
     }
     
-    private void addMapMethod(GeneratedSourceCode context, boolean aToB, ClassMap<?, ?> classMap, UsedTypesContext usedTypes, UsedConvertersContext usedConverters, StringBuilder logDetails) throws CannotCompileException {
+    private void addMapMethod(GeneratedSourceCode context, boolean aToB, ClassMap<?, ?> classMap, UsedTypesContext usedTypes, UsedConvertersContext usedConverters, UsedBoundMappersContext usedBoundMappers, ProfiledTypesContext profiledTypes, int maxMethodSourceLength, StringBuilder logDetails) throws CannotCompileException {
         
     	if (logDetails != null) {
         	if (aToB) {
@@ -115,7 +328,8 @@ public final class MapperGenerator {
         	}
         }
     	
-        final CodeSourceBuilder out = new CodeSourceBuilder(usedTypes, usedConverters, mapperFactory);
+        final CodeSourceBuilder out = new CodeSourceBuilder(usedTypes, usedConverters, usedBoundMappers, profiledTypes, mapperFactory,
+                nestedMappingInlineDepth);
         final String mapMethod = "map" + (aToB ? "AtoB" : "BtoA");
         out.append("\tpublic void ")
                 .append(mapMethod)
@@ -137,6 +351,7 @@ public final class MapperGenerator {
         out.statement(source.declare("a"));
         out.statement(destination.declare("b"));
         LinkedList<FieldMap> nestedFieldMaps = new LinkedList<FieldMap>();
+        LinkedList<FieldMap> fieldMaps = new LinkedList<FieldMap>();
         
         for (FieldMap fieldMap : classMap.getFieldsMapping()) {
             
@@ -165,30 +380,61 @@ public final class MapperGenerator {
             	continue;
             }
             
-            if (logDetails != null) {
-        		logDetails.append(getFieldTag(fieldMap));
-        	}
-            
-            if (!fieldMap.isIgnored()) {
-                try {
-                    generateFieldMapCode(out, fieldMap, destination.type(), logDetails);
-                } catch (final Exception e) {
-                    MappingException me = new MappingException(e);
-                    me.setSourceProperty(fieldMap.getSource());
-                    me.setDestinationProperty(fieldMap.getDestination());
-                    me.setSourceType(source.type());
-                    me.setDestinationType(destination.type());
-                    throw me;
+            if (fieldMap.isIgnored()) {
+                if (logDetails != null) {
+                    logDetails.append(getFieldTag(fieldMap) + "ignored for this mapping direction");
                 }
-            } else if (logDetails !=null) {
-            	logDetails.append("ignored for this mapping direction");
+                continue;
+            }
+            
+            fieldMaps.add(fieldMap);
+        }
+        
+        /*
+         * Field maps reading a nested source property are generated together
+         * with all others sharing the same path, so that each intermediate 
+         * object is read (and null-checked) only once
+         */
+        List<String> fieldMapCode = new ArrayList<String>();
+        while (!fieldMaps.isEmpty()) {
+            FieldMap fieldMap = fieldMaps.getFirst();
+            CodeSourceBuilder code = new CodeSourceBuilder(usedTypes, usedConverters, usedBoundMappers, profiledTypes, mapperFactory,
+                    nestedMappingInlineDepth);
+            if (fieldMap.getSource().hasPath()) {
+                List<FieldMap> sharingPath = removeFieldMapsSharingPath(fieldMaps, fieldMap.getSource().getPath()[0], 0);
+                generateSharedPathFieldMapCode(code, sharingPath, source, source, 0, destination, logDetails);
+            } else {
+                fieldMaps.removeFirst();
+                generateFieldMapCode(code, fieldMap, new VariableRef(fieldMap.getSource(), "source"), source, destination, logDetails);
             }
+            fieldMapCode.add(code.toString());
         }
         
         while (!nestedFieldMaps.isEmpty()) {
-        	Set<FieldMap> associated = out.getAssociatedMappings(nestedFieldMaps, nestedFieldMaps.getFirst());
+            CodeSourceBuilder code = new CodeSourceBuilder(usedTypes, usedConverters, usedBoundMappers, profiledTypes, mapperFactory,
+                    nestedMappingInlineDepth);
+        	Set<FieldMap> associated = code.getAssociatedMappings(nestedFieldMaps, nestedFieldMaps.getFirst());
         	nestedFieldMaps.removeAll(associated);
-        	out.fromMultiOccurrenceToMultiOccurrence(associated, logDetails);
+        	code.fromMultiOccurrenceToMultiOccurrence(associated, logDetails);
+        	fieldMapCode.add(code.toString());
+        }
+        
+        int codeLength = 0;
+        for (String code : fieldMapCode) {
+            codeLength += code.length();
+        }
+        if (codeLength > maxMethodSourceLength) {
+            List<String> helperMethods = addHelperMethods(context, mapMethod, fieldMapCode, source, destination, maxMethodSourceLength);
+            LOGGER.warn("The field mappings of " + context.getClassSimpleName() + "." + mapMethod + " for (" + classMap.getAType() + ", "
+                    + classMap.getBTypeName() + ") are too large to be JIT-compiled as a single method; they have been split into "
+                    + helperMethods.size() + " methods");
+            for (String helperMethod : helperMethods) {
+                out.statement("%s(source, destination, mappingContext)", helperMethod);
+            }
+        } else {
+            for (String code : fieldMapCode) {
+                out.append(code);
+            }
         }
         
         out.append("\n\t\tif(customMapper != null) { \n\t\t\t customMapper.")
@@ -205,6 +451,69 @@ public final class MapperGenerator {
         
     }
     
+    /**
+     * Adds the code of the field mappings to the generated class as a
+     * sequence of private helper methods, each of which receives the (typed)
+     * source and destination, and is at most <code>maxMethodSourceLength</code>
+     * long unless a single field mapping is longer; helper methods are added before the map method which calls
+     * them, as some compiler strategies compile each method on its own.
+     * 
+     * @return the names of the helper methods, in the order in which they are
+     *         to be called
+     */
+    private List<String> addHelperMethods(GeneratedSourceCode context, String mapMethod, List<String> fieldMapCode,
+            VariableRef source, VariableRef destination, int maxMethodSourceLength) {
+        
+        List<String> helperMethods = new ArrayList<String>();
+        int next = 0;
+        while (next < fieldMapCode.size()) {
+            String helperMethod = mapMethod + "Part" + helperMethods.size();
+            StringBuilder method = new StringBuilder();
+            method.append(String.format("\tprivate void %s(%s source, %s destination, %s mappingContext) {\n", helperMethod,
+                    source.typeName(), destination.typeName(), MappingContext.class.getCanonicalName()));
+            int methodLength = 0;
+            do {
+                String code = fieldMapCode.get(next++);
+                method.append(code);
+                methodLength += code.length();
+            } while (next < fieldMapCode.size() && methodLength + fieldMapCode.get(next).length() <= maxMethodSourceLength);
+            method.append("\n\t}");
+            context.addMethod(method.toString());
+            helperMethods.add(helperMethod);
+        }
+        return helperMethods;
+    }
+    
+    /**
+     * Collects the field maps which are mapped in the specified direction,
+     * applying the same exclusions as the generated source.
+     */
+    private List<FieldMap> getMappedFields(ClassMap<?, ?> classMap, boolean aToB) throws SourceCodeGenerationException {
+        List<FieldMap> fieldMaps = new ArrayList<FieldMap>();
+        for (FieldMap fieldMap : classMap.getFieldsMapping()) {
+            if (fieldMap.isExcluded() || isAlreadyExistsInUsedMappers(fieldMap, classMap)) {
+                continue;
+            }
+            if (!aToB) {
+                fieldMap = fieldMap.flip();
+            }
+            if (fieldMap.getElementMap() == null) {
+                if (fieldMap.isIgnored()) {
+                    continue;
+                }
+                VariableRef sourceProperty = new VariableRef(fieldMap.getSource(), "source");
+                VariableRef destinationProperty = new VariableRef(fieldMap.getDestination(), "destination");
+                if (!sourceProperty.isReadable() || ((!destinationProperty.isAssignable()) && !destinationProperty.isCollection())) {
+                    continue;
+                }
+                compilerStrategy.assureTypeIsAccessible(sourceProperty.rawType());
+                compilerStrategy.assureTypeIsAccessible(destinationProperty.rawType());
+            }
+            fieldMaps.add(fieldMap);
+        }
+        return fieldMaps;
+    }
+    
     private boolean isAlreadyExistsInUsedMappers(FieldMap fieldMap, ClassMap<?, ?> classMap) {
         
         Set<ClassMap<Object, Object>> usedClassMapSet = mapperFactory.lookupUsedClassMap(new MapperKey(classMap.getAType(),
@@ -226,9 +535,75 @@ public final class MapperGenerator {
         return false;
     }
     
-    private void generateFieldMapCode(CodeSourceBuilder code, FieldMap fieldMap, Type<?> destinationType, StringBuilder logDetails) throws Exception {
+    /**
+     * Removes from the list, and returns, those field maps whose source path
+     * passes through the specified property at the specified depth
+     */
+    private List<FieldMap> removeFieldMapsSharingPath(List<FieldMap> fieldMaps, Property pathElement, int depth) {
+        List<FieldMap> sharingPath = new LinkedList<FieldMap>();
+        for (Iterator<FieldMap> iter = fieldMaps.iterator(); iter.hasNext();) {
+            FieldMap fieldMap = iter.next();
+            if (fieldMap.getSource().hasPath()) {
+                Property[] path = fieldMap.getSource().getPath();
+                if (path.length > depth && path[depth].getName().equals(pathElement.getName())) {
+                    sharingPath.add(fieldMap);
+                    iter.remove();
+                }
+            }
+        }
+        return sharingPath;
+    }
+    
+    /**
+     * Generates the code for a group of field maps whose source properties share
+     * the same path up to (and including) the specified depth; the intermediate
+     * object at that depth is read once into a local variable, and the field maps 
+     * (or deeper groups) are generated relative to it.
+     */
+    private void generateSharedPathFieldMapCode(CodeSourceBuilder code, List<FieldMap> fieldMaps, VariableRef owner, VariableRef source,
+            int depth, VariableRef destination, StringBuilder logDetails) {
+        
+        Property pathElement = fieldMaps.get(0).getSource().getPath()[depth];
+        VariableRef element = new VariableRef(pathElement.getType(), owner.name() + "_" + pathElement.getName());
+        code.statement(element.declare(new VariableRef(pathElement, owner.name()).toString()));
+        code.ifNotNull(element).then();
+        
+        LinkedList<FieldMap> remaining = new LinkedList<FieldMap>(fieldMaps);
+        while (!remaining.isEmpty()) {
+            FieldMap fieldMap = remaining.getFirst();
+            Property[] path = fieldMap.getSource().getPath();
+            if (path.length > depth + 1) {
+                List<FieldMap> sharingPath = removeFieldMapsSharingPath(remaining, path[depth + 1], depth + 1);
+                generateSharedPathFieldMapCode(code, sharingPath, element, source, depth + 1, destination, logDetails);
+            } else {
+                remaining.removeFirst();
+                VariableRef sourceProperty = new VariableRef(fieldMap.getSource(), "source").pathLeaf(element.name());
+                generateFieldMapCode(code, fieldMap, sourceProperty, source, destination, logDetails);
+            }
+        }
+        code.end();
+    }
+    
+    private void generateFieldMapCode(CodeSourceBuilder code, FieldMap fieldMap, VariableRef sourceProperty, VariableRef source,
+            VariableRef destination, StringBuilder logDetails) {
+        
+        if (logDetails != null) {
+            logDetails.append(getFieldTag(fieldMap));
+        }
+        try {
+            generateFieldMapCode(code, fieldMap, sourceProperty, destination.type(), logDetails);
+        } catch (final Exception e) {
+            MappingException me = new MappingException(e);
+            me.setSourceProperty(fieldMap.getSource());
+            me.setDestinationProperty(fieldMap.getDestination());
+            me.setSourceType(source.type());
+            me.setDestinationType(destination.type());
+            throw me;
+        }
+    }
+    
+    private void generateFieldMapCode(CodeSourceBuilder code, FieldMap fieldMap, VariableRef sourceProperty, Type<?> destinationType, StringBuilder logDetails) throws Exception {
         
-        final VariableRef sourceProperty = new VariableRef(fieldMap.getSource(), "source");
         final VariableRef destinationProperty = new VariableRef(fieldMap.getDestination(), "destination");
         
         if (!sourceProperty.isReadable() || ((!destinationProperty.isAssignable()) && !destinationProperty.isCollection())) {
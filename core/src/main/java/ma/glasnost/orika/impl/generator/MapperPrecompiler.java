@@ -0,0 +1,143 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ * 
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.impl.generator;
+
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ma.glasnost.orika.OrikaSystemProperties;
+import ma.glasnost.orika.impl.ConfigurableMapper;
+
+/**
+ * MapperPrecompiler is a build-time entry point which writes the compiled
+ * mappers and object factories for one or more {@link ConfigurableMapper}
+ * configurations into an output directory (typically the output directory of
+ * the project's classes), so that they are packaged into the artifact and
+ * loaded by {@link PrecompiledCompilerStrategy} at run time instead of being
+ * compiled again.<br>
+ * <br>
+ * Each configuration is built using PrecompiledCompilerStrategy, with class
+ * files written to the output directory; mappers which are only generated
+ * upon first use (through auto-mapping) are not precompiled.<br>
+ * <br>
+ * For example, using the exec-maven-plugin:
+ * 
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *   &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;phase&gt;process-classes&lt;/phase&gt;
+ *       &lt;goals&gt;&lt;goal&gt;java&lt;/goal&gt;&lt;/goals&gt;
+ *       &lt;configuration&gt;
+ *         &lt;mainClass&gt;ma.glasnost.orika.impl.generator.MapperPrecompiler&lt;/mainClass&gt;
+ *         &lt;arguments&gt;
+ *           &lt;argument&gt;${project.build.outputDirectory}&lt;/argument&gt;
+ *           &lt;argument&gt;com.example.MyConfigurableMapper&lt;/argument&gt;
+ *         &lt;/arguments&gt;
+ *       &lt;/configuration&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+public final class MapperPrecompiler {
+    
+    private MapperPrecompiler() {
+        
+    }
+    
+    /**
+     * @param args
+     *            the output directory, followed by the fully-qualified names
+     *            of the ConfigurableMapper sub-classes to precompile
+     * @throws ClassNotFoundException
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws ClassNotFoundException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: " + MapperPrecompiler.class.getName()
+                    + " <outputDirectory> <configurableMapperClass> [<configurableMapperClass>...]");
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        List<Class<? extends ConfigurableMapper>> mappers = new ArrayList<Class<? extends ConfigurableMapper>>();
+        for (int i = 1; i < args.length; ++i) {
+            Class<?> mapperClass = Class.forName(args[i], true, classLoader);
+            if (!ConfigurableMapper.class.isAssignableFrom(mapperClass)) {
+                throw new IllegalArgumentException(mapperClass + " is not a ConfigurableMapper");
+            }
+            mappers.add((Class<? extends ConfigurableMapper>) mapperClass);
+        }
+        precompile(new File(args[0]), mappers);
+    }
+    
+    /**
+     * Builds each of the specified ConfigurableMapper types, writing the
+     * classes compiled for them into the output directory.
+     * 
+     * @param outputDirectory
+     *            the root directory into which the class files are written
+     * @param mappers
+     *            the ConfigurableMapper types to build; each must declare a
+     *            constructor without parameters
+     */
+    public static void precompile(File outputDirectory, List<Class<? extends ConfigurableMapper>> mappers) {
+        
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Could not create output directory " + outputDirectory);
+        }
+        
+        Map<String, String> properties = new LinkedHashMap<String, String>();
+        properties.put(OrikaSystemProperties.COMPILER_STRATEGY, PrecompiledCompilerStrategy.class.getName());
+        properties.put(OrikaSystemProperties.WRITE_CLASS_FILES, "true");
+        properties.put(OrikaSystemProperties.WRITE_CLASS_FILES_TO_PATH, outputDirectory.getAbsolutePath());
+        properties.put(OrikaSystemProperties.WRITE_SOURCE_FILES, "false");
+        
+        Map<String, String> originalProperties = new LinkedHashMap<String, String>();
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            originalProperties.put(property.getKey(), System.getProperty(property.getKey()));
+            System.setProperty(property.getKey(), property.getValue());
+        }
+        try {
+            for (Class<? extends ConfigurableMapper> mapperClass : mappers) {
+                try {
+                    Constructor<? extends ConfigurableMapper> constructor = mapperClass.getDeclaredConstructor();
+                    constructor.setAccessible(true);
+                    constructor.newInstance();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not precompile mappers for " + mapperClass, e);
+                }
+            }
+        } finally {
+            for (Map.Entry<String, String> property : originalProperties.entrySet()) {
+                if (property.getValue() == null) {
+                    System.clearProperty(property.getKey());
+                } else {
+                    System.setProperty(property.getKey(), property.getValue());
+                }
+            }
+        }
+    }
+}
@@ -154,26 +154,47 @@ public class MultiOccurrenceVariableRef extends VariableRef {
         return newInstance("");
     }
     
+    /**
+     * Generates java code for a new instance of this collection (or map)
+     * type, sized to hold the specified number of elements without growing
+     * 
+     * @param sizeExpr
+     *            an expression for the number of elements
+     * @return the java code for the new instance
+     */
+    public String newCollection(String sizeExpr) {
+        return newInstance(sizeExpr);
+    }
+    
     public String newInstance(String sizeExpr) {
     	if (isArray()) {
     		return "new " + rawType().getComponentType().getCanonicalName() + "[" + sizeExpr + "]"; 
     	} else if (isMap()) {
-    		return "new java.util.LinkedHashMap(" + sizeExpr + ")";
+    		return newMap(sizeExpr);
     	} else if ("Set".equals(collectionType())) {
-            return "new java.util.LinkedHashSet(" + sizeExpr + ")";
+            return "new java.util.LinkedHashSet(" + hashCapacity(sizeExpr) + ")";
         } else {
             return "new java.util.ArrayList(" + sizeExpr + ")";
         }
     }
     
     public String newMap(String sizeExpr) {
-    	return "new java.util.LinkedHashMap(" + sizeExpr + ")";
+    	return "new java.util.LinkedHashMap(" + hashCapacity(sizeExpr) + ")";
     }
     
     public String newMap() {
     	return newMap("");
     }
     
+    /**
+     * Converts an expression for a number of elements into the initial
+     * capacity of a hash-based collection which holds that many elements
+     * without rehashing, given the default load factor.
+     */
+    private static String hashCapacity(String sizeExpr) {
+        return "".equals(sizeExpr) ? sizeExpr : "(" + sizeExpr + ") * 4 / 3 + 1";
+    }
+    
     /**
      * Generates java code for a reference to the "size" of this VariableRef
      * @return
@@ -78,6 +78,8 @@ public class ObjectFactoryGenerator {
             UsedConvertersContext usedConverters = new UsedConvertersContext();
             
             addCreateMethod(factoryCode, usedTypes, usedConverters, type, logDetails);
+            usedTypes.declareFields(factoryCode);
+            usedConverters.declareFields(factoryCode);
             
             GeneratedObjectFactory objectFactory = (GeneratedObjectFactory) factoryCode.getInstance();
             objectFactory.setMapperFacade(mapperFactory.getMapperFacade());
@@ -0,0 +1,204 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ * 
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ma.glasnost.orika.impl.generator;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PrecompiledCompilerStrategy gives each generated class a stable name,
+ * derived from a fingerprint of its generated source, and loads a previously
+ * compiled class of that name when one is available, rather than compiling
+ * the source again.<br>
+ * <br>
+ * Classes may be precompiled into an artifact at build time using
+ * {@link MapperPrecompiler}; when the source generated for a class map no
+ * longer matches the fingerprint of any precompiled class (because the class
+ * map, or the classes it maps, have changed), the source is compiled at run
+ * time by the delegate strategy, as usual.<br>
+ * <br>
+ * This strategy may be selected using the system property
+ * <code>ma.glasnost.orika.compilerStrategy</code>, or through
+ * {@link ma.glasnost.orika.impl.DefaultMapperFactory.Builder#compilerStrategy(CompilerStrategy)}.
+ */
+public class PrecompiledCompilerStrategy extends CompilerStrategy {
+    
+    private final static Logger LOG = LoggerFactory.getLogger(PrecompiledCompilerStrategy.class);
+    
+    /**
+     * The package in which classes are generated by this strategy
+     */
+    public static final String PRECOMPILED_PACKAGE = "ma.glasnost.orika.generated.precompiled";
+    
+    /*
+     * Locks per class name, so that a class is not compiled (and defined)
+     * twice when requested concurrently
+     */
+    private static final ConcurrentHashMap<String, Object> compilationLocks = new ConcurrentHashMap<String, Object>();
+    
+    private final CompilerStrategy delegate;
+    
+    /**
+     * Constructs a new PrecompiledCompilerStrategy which compiles sources for
+     * which no precompiled class is found using a JavassistCompilerStrategy.
+     */
+    public PrecompiledCompilerStrategy() {
+        this(new JavassistCompilerStrategy());
+    }
+    
+    /**
+     * @param delegate
+     *            the strategy used to compile sources for which no
+     *            precompiled class is found; classes written by the delegate
+     *            (if enabled) are written using their stable names
+     */
+    public PrecompiledCompilerStrategy(CompilerStrategy delegate) {
+        super("false", "false");
+        this.delegate = delegate;
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#compileClass(ma.glasnost
+     * .orika.impl.generator.GeneratedSourceCode)
+     */
+    public Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+        
+        String className = getPrecompiledClassName(sourceCode);
+        
+        synchronized (getCompilationLock(className)) {
+            Class<?> precompiledClass = loadPrecompiledClass(className, sourceCode.getSuperClass());
+            if (precompiledClass != null) {
+                return precompiledClass;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("No precompiled class found for " + sourceCode.getClassName() + "; compiling as " + className);
+            }
+            return delegate.compileClass(sourceCode.copyAs(className, delegate));
+        }
+    }
+    
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * ma.glasnost.orika.impl.generator.CompilerStrategy#assureTypeIsAccessible
+     * (java.lang.Class)
+     */
+    public void assureTypeIsAccessible(Class<?> type) throws SourceCodeGenerationException {
+        delegate.assureTypeIsAccessible(type);
+    }
+    
+    static Class<?> loadPrecompiledClass(String className, Class<?> superClass) {
+        try {
+            Class<?> precompiledClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            if (superClass.isAssignableFrom(precompiledClass)) {
+                return precompiledClass;
+            }
+            LOG.warn(className + " does not extend " + superClass.getName() + "; it will not be used");
+        } catch (ClassNotFoundException e) {
+            /* not precompiled */
+        } catch (LinkageError e) {
+            LOG.warn("Precompiled class " + className + " could not be loaded; it will not be used", e);
+        }
+        return null;
+    }
+    
+    /**
+     * Computes the stable name of the class generated from the specified
+     * source, which is derived from the super-class, fields and methods of the
+     * generated source, but not from the name originally chosen for it.
+     * 
+     * @param sourceCode
+     *            the generated source
+     * @return the fully-qualified name to be used for the class
+     */
+    public static String getPrecompiledClassName(GeneratedSourceCode sourceCode) {
+        MessageDigest digest = newDigest();
+        updateSource(digest, sourceCode);
+        return PRECOMPILED_PACKAGE + "." + sourceCode.getSuperClass().getSimpleName() + "_" + toHex(digest.digest());
+    }
+    
+    /**
+     * @return the lock to be held while loading or compiling the class with
+     *         the specified name
+     */
+    static Object getCompilationLock(String className) {
+        Object lock = compilationLocks.get(className);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = compilationLocks.putIfAbsent(className, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+    
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Updates the digest with the super-class, fields and methods of the
+     * generated source, but not with the name originally chosen for it.
+     */
+    static void updateSource(MessageDigest digest, GeneratedSourceCode sourceCode) {
+        update(digest, sourceCode.getSuperClass().getName());
+        for (String field : sourceCode.getFields()) {
+            update(digest, field);
+        }
+        for (String method : sourceCode.getMethods()) {
+            update(digest, method);
+        }
+    }
+    
+    static void update(MessageDigest digest, String text) {
+        try {
+            digest.update(text.getBytes("UTF-8"));
+            /*
+             * Separate the parts, so that moving text from one part to the
+             * next cannot produce the same fingerprint
+             */
+            digest.update((byte) 0);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl.generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+/**
+ * Tracks the nested mappings (as ordered pairs of declared types) at which a
+ * mapper generated in tiered mode profiles the runtime class of the source.<br>
+ * A context created from a collected profile instead describes the mapper to
+ * be regenerated: it provides the single runtime class observed for each
+ * profiled nested mapping, for which a guarded fast path is generated.
+ */
+public class ProfiledTypesContext {
+
+    private final Map<List<Type<?>>, Integer> profiledTypes = new HashMap<List<Type<?>>, Integer>();
+    private final Map<List<Type<?>>, Type<?>> observedTypes;
+    private int profiledTypeIndex = 0;
+
+    /**
+     * Creates a context for the generation of a profiling mapper
+     */
+    public ProfiledTypesContext() {
+        this.observedTypes = null;
+    }
+
+    /**
+     * Creates a context for the regeneration of a profiled mapper
+     *
+     * @param profiledTypes
+     *            the (source, destination) pairs of types which were profiled,
+     *            in index order
+     * @param observedClasses
+     *            the single runtime class observed for each of them, or null
+     *            where none (or several) were observed
+     */
+    public ProfiledTypesContext(Type<?>[][] profiledTypes, Class<?>[] observedClasses) {
+        this.observedTypes = new HashMap<List<Type<?>>, Type<?>>();
+        for (int i = 0; i < profiledTypes.length; ++i) {
+            if (observedClasses[i] != null) {
+                observedTypes.put(Arrays.<Type<?>> asList(profiledTypes[i]), TypeFactory.valueOf(observedClasses[i]));
+            }
+        }
+    }
+
+    private ProfiledTypesContext(Map<List<Type<?>>, Type<?>> observedTypes) {
+        this.observedTypes = observedTypes;
+    }
+
+    /**
+     * @return a new context describing the same profile, for generating the
+     *         mapper again
+     */
+    ProfiledTypesContext copy() {
+        return new ProfiledTypesContext(observedTypes);
+    }
+
+    /**
+     * @return true if the generated mapper should profile its nested mappings,
+     *         false if it is being regenerated from a profile
+     */
+    public boolean isProfiling() {
+        return observedTypes == null;
+    }
+
+    public int getIndex(Type<?> sourceType, Type<?> destinationType) {
+        if (sourceType == null || destinationType == null) {
+            throw new NullPointerException("types must not be null");
+        }
+        List<Type<?>> key = Arrays.<Type<?>> asList(sourceType, destinationType);
+        Integer index = profiledTypes.get(key);
+        if (index == null) {
+            index = Integer.valueOf(profiledTypeIndex++);
+            profiledTypes.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return the single runtime class observed as source of the nested mapping
+     *         between the specified declared types, or null if none is known
+     */
+    public Type<?> getObservedType(Type<?> sourceType, Type<?> destinationType) {
+        return observedTypes != null ? observedTypes.get(Arrays.<Type<?>> asList(sourceType, destinationType)) : null;
+    }
+
+    /**
+     * @return the profiled (source, destination) pairs of types, in index order
+     */
+    public Type<?>[][] toArray() {
+        Type<?>[][] typePairs = new Type<?>[profiledTypes.size()][];
+        for (Entry<List<Type<?>>, Integer> entry : profiledTypes.entrySet()) {
+            typePairs[entry.getValue()] = entry.getKey().toArray(new Type<?>[2]);
+        }
+        return typePairs;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ * 
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.impl.generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import ma.glasnost.orika.BoundMapper;
+import ma.glasnost.orika.impl.DefaultBoundMapper;
+import ma.glasnost.orika.metadata.Type;
+
+/**
+ * Tracks the pairs of types for which a generated mapper dispatches nested
+ * mappings directly through a BoundMapper, rather than through the
+ * MapperFacade.<br>
+ * Note that the pairs are ordered (unlike MapperKey), since each BoundMapper
+ * maps in one direction only.
+ */
+public class UsedBoundMappersContext {
+    
+    private Map<List<Type<?>>, Integer> usedBoundMappers = new HashMap<List<Type<?>>, Integer>();
+    private int usedBoundMapperIndex = 0;
+    
+    public int getIndex(Type<?> sourceType, Type<?> destinationType) {
+        if (sourceType == null || destinationType == null) {
+            throw new NullPointerException("types must not be null");
+        }
+        List<Type<?>> key = Arrays.<Type<?>> asList(sourceType, destinationType);
+        Integer index = usedBoundMappers.get(key);
+        if (index == null) {
+            index = Integer.valueOf(usedBoundMapperIndex++);
+            usedBoundMappers.put(key, index);
+        }
+        return index;
+    }
+    
+    /**
+     * @return the (source, destination) pairs of types, in index order
+     */
+    public Type<?>[][] toArray() {
+        Type<?>[][] typePairs = new Type<?>[usedBoundMappers.size()][];
+        for (Entry<List<Type<?>>, Integer> entry : usedBoundMappers.entrySet()) {
+            typePairs[entry.getValue()] = entry.getKey().toArray(new Type<?>[2]);
+        }
+        return typePairs;
+    }
+    
+    /**
+     * @return the name of the field of the generated class which holds the
+     *         BoundMapper with the specified index
+     */
+    public static String getFieldName(int index) {
+        return "usedBoundMapper" + index;
+    }
+    
+    /**
+     * Declares a field on the generated class for each of the used
+     * BoundMappers, along with an override of <code>setUsedBoundMappers</code>
+     * which assigns those fields.<br>
+     * The fields are declared with the (final) class DefaultBoundMapper, which
+     * is the only implementation bound by GeneratedMapperBase, so that each
+     * call is bound statically rather than through the BoundMapper interface.
+     * 
+     * @param code
+     *            the generated source of the class
+     */
+    public void declareFields(GeneratedSourceCode code) {
+        if (usedBoundMappers.isEmpty()) {
+            return;
+        }
+        String typeName = BoundMapper.class.getCanonicalName();
+        String fieldTypeName = DefaultBoundMapper.class.getCanonicalName();
+        StringBuilder setter = new StringBuilder();
+        setter.append("public void setUsedBoundMappers(" + typeName + "[] mappers) {\n");
+        setter.append("super.setUsedBoundMappers(mappers);\n");
+        for (int i = 0; i < usedBoundMappers.size(); ++i) {
+            code.addField("private " + fieldTypeName + " " + getFieldName(i) + ";");
+            setter.append(getFieldName(i) + " = (" + fieldTypeName + ") mappers[" + i + "];\n");
+        }
+        setter.append("}");
+        code.addMethod(setter.toString());
+    }
+}
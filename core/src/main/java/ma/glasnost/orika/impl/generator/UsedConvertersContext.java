@@ -54,4 +54,38 @@ public class UsedConvertersContext {
         }
         return converters;
     }
+    
+    /**
+     * @return the name of the field of the generated class which holds the
+     *         used converter with the specified index
+     */
+    public static String getFieldName(int index) {
+        return "usedConverter" + index;
+    }
+    
+    /**
+     * Declares a field on the generated class for each of the used
+     * converters, along with an override of <code>setUsedConverters</code>
+     * which assigns those fields, so that generated code invokes each
+     * converter through its own (typed) field rather than casting it from an
+     * element of the array.
+     * 
+     * @param code
+     *            the generated source of the class
+     */
+    public void declareFields(GeneratedSourceCode code) {
+        if (usedConverters.isEmpty()) {
+            return;
+        }
+        String converterName = Converter.class.getCanonicalName();
+        StringBuilder setter = new StringBuilder();
+        setter.append("public void setUsedConverters(" + converterName + "[] converters) {\n");
+        setter.append("super.setUsedConverters(converters);\n");
+        for (int i = 0; i < usedConverters.size(); ++i) {
+            code.addField("private " + converterName + " " + getFieldName(i) + ";");
+            setter.append(getFieldName(i) + " = converters[" + i + "];\n");
+        }
+        setter.append("}");
+        code.addMethod(setter.toString());
+    }
 }
@@ -54,4 +54,37 @@ public class UsedTypesContext {
         }
         return types;
     }
+    
+    /**
+     * @return the name of the field of the generated class which holds the
+     *         used type with the specified index
+     */
+    public static String getFieldName(int index) {
+        return "usedType" + index;
+    }
+    
+    /**
+     * Declares a field on the generated class for each of the used types,
+     * along with an override of <code>setUsedTypes</code> which assigns those
+     * fields, so that generated code reads each type from its own (typed)
+     * field rather than casting it from an element of the array.
+     * 
+     * @param code
+     *            the generated source of the class
+     */
+    public void declareFields(GeneratedSourceCode code) {
+        if (usedTypes.isEmpty()) {
+            return;
+        }
+        String typeName = Type.class.getCanonicalName();
+        StringBuilder setter = new StringBuilder();
+        setter.append("public void setUsedTypes(" + typeName + "[] types) {\n");
+        setter.append("super.setUsedTypes(types);\n");
+        for (int i = 0; i < usedTypes.size(); ++i) {
+            code.addField("private " + typeName + " " + getFieldName(i) + ";");
+            setter.append(getFieldName(i) + " = types[" + i + "];\n");
+        }
+        setter.append("}");
+        code.addMethod(setter.toString());
+    }
 }
@@ -379,6 +379,30 @@ public class VariableRef {
         }
     }
     
+    /**
+     * Returns a reference to the final element of this (nested) property which
+     * is read directly from the provided variable, rather than by walking the
+     * full path from the owner; the variable is expected to already hold the
+     * value of the last element of the path.
+     *
+     * @param variable
+     *            the name of the variable holding the parent of the final element
+     * @return a reference to the final element of this property's path
+     */
+    public VariableRef pathLeaf(String variable) {
+        if (!isNestedProperty()) {
+            return new VariableRef(property, variable);
+        }
+        Property leaf = new Property();
+        leaf.setExpression(property.getName());
+        leaf.setName(property.getName());
+        leaf.setGetter(property.getGetter());
+        leaf.setSetter(property.getSetter());
+        leaf.setType(property.getType());
+        leaf.setDeclared(property.isDeclared());
+        return new VariableRef(leaf, variable);
+    }
+
     private static String join(Object[] array, String separator, int startIndex, int endIndex) {
         if (array == null) {
             return null;
@@ -52,6 +52,14 @@ public abstract class UseCustomMapperStrategy implements MappingStrategy {
     
     protected abstract Object getInstance(Object sourceObject, Object destinationObject, MappingContext context);
     
+    /**
+     * @param mapper
+     * @return true if this strategy maps by means of the specified mapper
+     */
+    public boolean usesMapper(Mapper<?, ?> mapper) {
+        return customMapper instanceof ForwardMapperReference && ((ForwardMapperReference) customMapper).getCustomMapper() == mapper;
+    }
+    
     public static interface DirectionalCustomMapperReference {
     	public void map(Object sourceObject,
     			Object destinationObject, MappingContext context); 
@@ -65,6 +73,10 @@ public abstract class UseCustomMapperStrategy implements MappingStrategy {
     		this.customMapper = customMapper;
     	}
     	
+    	public Mapper<Object, Object> getCustomMapper() {
+    		return customMapper;
+    	}
+    	
 		public void map(Object sourceObject,
 				Object destinationObject, MappingContext context) {
 			customMapper.mapAtoB(sourceObject, destinationObject, context);
@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import ma.glasnost.orika.metadata.Type;
@@ -36,6 +37,8 @@ public final class ClassUtil {
     private static final String JAVASSIST_NAME = "_$$_javassist_";
     private static final Set<Class<?>> IMMUTABLES_TYPES = getImmutablesTypes();
     private static final Set<Class<?>> PRIMITIVE_WRAPPER_TYPES = getWrapperTypes();
+    private static final List<Class<?>> PRIMITIVE_WIDENING_ORDER = Arrays.<Class<?>> asList(Byte.TYPE, Short.TYPE, Character.TYPE,
+            Integer.TYPE, Long.TYPE, Float.TYPE, Double.TYPE);
     
     private ClassUtil() {
         
@@ -172,6 +175,31 @@ public final class ClassUtil {
 		}
     }
     
+    /**
+     * Verifies whether values of the primitive type <code>from</code> can be
+     * assigned to the primitive type <code>to</code> without narrowing; that
+     * is, whether the types are the same or <code>from</code> widens to
+     * <code>to</code>.
+     * 
+     * @param from
+     *            the primitive type of the values
+     * @param to
+     *            the primitive type to which the values are assigned
+     * @return true if the values can be assigned without narrowing
+     */
+    public static boolean isPrimitiveAssignable(Class<?> from, Class<?> to) {
+        if (from == to) {
+            return from.isPrimitive();
+        } else if (!from.isPrimitive() || !to.isPrimitive() || from == Boolean.TYPE || to == Boolean.TYPE
+                || to == Byte.TYPE || to == Character.TYPE) {
+            return false;
+        } else if (to == Short.TYPE) {
+            return from == Byte.TYPE;
+        } else {
+            return PRIMITIVE_WIDENING_ORDER.indexOf(from) < PRIMITIVE_WIDENING_ORDER.indexOf(to);
+        }
+    }
+    
     public static boolean[] booleanArray(Collection<Boolean> collection) {
     	boolean[] primitives = new boolean[collection.size()];
     	int index = -1;
@@ -0,0 +1,200 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ma.glasnost.orika.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CacheConcurrentClock is a bounded, thread-safe cache which approximates LRU
+ * eviction using the CLOCK (second-chance) algorithm.<br>
+ * <br>
+ * Reads never take a lock and never modify the structure of the cache; a hit
+ * only marks the entry as recently referenced. When an insertion pushes the
+ * cache beyond it's maximum size, the inserting thread sweeps the entries
+ * (if no other thread is already doing so), clearing the referenced mark of
+ * recently used entries and evicting those which have not been referenced
+ * since the previous sweep. New entries start out marked, and the sweep
+ * never evicts the entry whose insertion triggered it, so that a value is
+ * not discarded as soon as it has been cached. Inserting threads only wait for a sweep in
+ * progress when the cache has outgrown it's maximum size by more than 10%.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class CacheConcurrentClock<K, V> implements Cache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+    private final int maxSize;
+    private final int tolerance;
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /*
+     * The position of the clock hand; only accessed while holding the
+     * eviction lock
+     */
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+    /**
+     * @param maxSize
+     *            the maximum number of entries to retain
+     */
+    public CacheConcurrentClock(int maxSize) {
+        this.maxSize = maxSize;
+        this.tolerance = maxSize / 10 + 1;
+        this.entries = new ConcurrentHashMap<K, Entry<V>>(maxSize + maxSize / 3 + 1);
+    }
+
+    public V get(Object key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry.value;
+    }
+
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    public void cache(K key, V value) {
+        Entry<V> entry = new Entry<V>(value);
+        Entry<V> previous = entries.put(key, entry);
+        if (previous == null && size.incrementAndGet() > maxSize) {
+            evict(entry);
+        }
+    }
+
+    /**
+     * @return the current number of entries in the cache
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return a (weakly consistent) view of the keys currently in the cache
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Removes the entry for the specified key, if any
+     * 
+     * @param key
+     * @return true if an entry was removed
+     */
+    public boolean remove(Object key) {
+        if (entries.remove(key) != null) {
+            size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all entries from the cache
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (K key : entries.keySet()) {
+                if (entries.remove(key) != null) {
+                    size.decrementAndGet();
+                }
+            }
+            hand = null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evict(Entry<V> inserted) {
+        /*
+         * If another thread is already sweeping, the cache may briefly exceed
+         * it's maximum size, and the inserting thread does not wait; only once
+         * the overflow grows beyond the tolerance (because the sweeping thread
+         * cannot keep up) do inserting threads wait their turn. The size is
+         * checked again after releasing the lock, since entries may have been
+         * inserted after the sweeping thread's last check
+         */
+        while (size.get() > maxSize) {
+            if (evictionLock.tryLock()) {
+                /* got it */
+            } else if (size.get() > maxSize + tolerance) {
+                evictionLock.lock();
+            } else {
+                return;
+            }
+            try {
+                sweep(inserted);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void sweep(Entry<V> inserted) {
+        /*
+         * Referenced entries get a second chance for one full turn of the
+         * clock; after that, entries are evicted regardless, so that readers
+         * which keep marking entries cannot stall the sweep. The inserted
+         * entry is always passed over; since the cache holds more than
+         * maxSize entries, there is at least one other to evict (unless the
+         * cache retains nothing at all)
+         */
+        int secondChances = size.get();
+        while (size.get() > maxSize) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.entrySet().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<K, Entry<V>> candidate = hand.next();
+            Entry<V> entry = candidate.getValue();
+            if (entry == inserted && maxSize > 0) {
+                continue;
+            } else if (entry.referenced && secondChances-- > 0) {
+                entry.referenced = false;
+            } else if (entries.remove(candidate.getKey(), entry)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(V value) {
+            this.value = value;
+            this.referenced = true;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ma.glasnost.orika.test.array;
 
 import java.util.Arrays;
+import java.util.LinkedList;
 
 import ma.glasnost.orika.MapperFacade;
 import ma.glasnost.orika.test.MappingUtil;
@@ -65,4 +66,71 @@ public class ArrayTestCase {
         Assert.assertArrayEquals(new byte[] {(byte)1,(byte)2,(byte)3,(byte)4}, destination.getBuffer());
     	
     }
+    
+    @Test
+    public void testPrimitiveArrayIsCopied() {
+        MapperFacade mapperFacade = MappingUtil.getMapperFactory().getMapperFacade();
+        
+        ArrayTestCaseClasses.E source = new ArrayTestCaseClasses.E();
+        source.setValues(new int[] {1, -2, Integer.MAX_VALUE});
+        source.setRatios(new double[] {0.5, 1.5});
+        
+        ArrayTestCaseClasses.E destination = mapperFacade.map(source, ArrayTestCaseClasses.E.class);
+        
+        Assert.assertArrayEquals(source.getValues(), destination.getValues());
+        Assert.assertArrayEquals(source.getRatios(), destination.getRatios(), 0.0);
+        Assert.assertNotSame(source.getValues(), destination.getValues());
+        Assert.assertNotSame(source.getRatios(), destination.getRatios());
+    }
+    
+    @Test
+    public void testPrimitiveArrayIsWidened() {
+        MapperFacade mapperFacade = MappingUtil.getMapperFactory().getMapperFacade();
+        
+        ArrayTestCaseClasses.E source = new ArrayTestCaseClasses.E();
+        source.setValues(new int[] {1, -2, Integer.MAX_VALUE});
+        
+        ArrayTestCaseClasses.F destination = mapperFacade.map(source, ArrayTestCaseClasses.F.class);
+        
+        Assert.assertArrayEquals(new long[] {1L, -2L, Integer.MAX_VALUE}, destination.getValues());
+        Assert.assertNull(destination.getRatios());
+    }
+    
+    @Test
+    public void testPrimitiveArrayToWrapperList() {
+        MapperFacade mapperFacade = MappingUtil.getMapperFactory().getMapperFacade();
+        
+        ArrayTestCaseClasses.E source = new ArrayTestCaseClasses.E();
+        source.setValues(new int[] {1, -2, 3});
+        source.setRatios(new double[] {0.5, 1.5});
+        
+        ArrayTestCaseClasses.G destination = mapperFacade.map(source, ArrayTestCaseClasses.G.class);
+        
+        Assert.assertEquals(Arrays.asList(1L, -2L, 3L), destination.getValues());
+        Assert.assertEquals(Arrays.asList(0.5, 1.5), destination.getRatios());
+    }
+    
+    @Test
+    public void testWrapperListToPrimitiveArray() {
+        MapperFacade mapperFacade = MappingUtil.getMapperFactory().getMapperFacade();
+        
+        ArrayTestCaseClasses.H source = new ArrayTestCaseClasses.H();
+        source.setValues(Arrays.asList(4, 5, -6));
+        
+        ArrayTestCaseClasses.F destination = mapperFacade.map(source, ArrayTestCaseClasses.F.class);
+        
+        Assert.assertArrayEquals(new long[] {4L, 5L, -6L}, destination.getValues());
+    }
+    
+    @Test
+    public void testWrapperLinkedListToPrimitiveArray() {
+        MapperFacade mapperFacade = MappingUtil.getMapperFactory().getMapperFacade();
+        
+        ArrayTestCaseClasses.H source = new ArrayTestCaseClasses.H();
+        source.setValues(new LinkedList<Integer>(Arrays.asList(4, 5, -6)));
+        
+        ArrayTestCaseClasses.F destination = mapperFacade.map(source, ArrayTestCaseClasses.F.class);
+        
+        Assert.assertArrayEquals(new long[] {4L, 5L, -6L}, destination.getValues());
+    }
 }
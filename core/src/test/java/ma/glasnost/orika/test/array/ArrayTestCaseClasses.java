@@ -53,4 +53,79 @@ public class ArrayTestCaseClasses {
 
     	
     }
+    
+    public static class E {
+        private int[] values;
+        private double[] ratios;
+
+        public int[] getValues() {
+            return values;
+        }
+
+        public void setValues(int[] values) {
+            this.values = values;
+        }
+
+        public double[] getRatios() {
+            return ratios;
+        }
+
+        public void setRatios(double[] ratios) {
+            this.ratios = ratios;
+        }
+    }
+    
+    public static class F {
+        private long[] values;
+        private double[] ratios;
+
+        public long[] getValues() {
+            return values;
+        }
+
+        public void setValues(long[] values) {
+            this.values = values;
+        }
+
+        public double[] getRatios() {
+            return ratios;
+        }
+
+        public void setRatios(double[] ratios) {
+            this.ratios = ratios;
+        }
+    }
+    
+    public static class G {
+        private List<Long> values;
+        private List<Double> ratios;
+
+        public List<Long> getValues() {
+            return values;
+        }
+
+        public void setValues(List<Long> values) {
+            this.values = values;
+        }
+
+        public List<Double> getRatios() {
+            return ratios;
+        }
+
+        public void setRatios(List<Double> ratios) {
+            this.ratios = ratios;
+        }
+    }
+    
+    public static class H {
+        private List<Integer> values;
+
+        public List<Integer> getValues() {
+            return values;
+        }
+
+        public void setValues(List<Integer> values) {
+            this.values = values;
+        }
+    }
 }
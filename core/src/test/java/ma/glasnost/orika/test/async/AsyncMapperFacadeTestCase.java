@@ -0,0 +1,172 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.async;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.AsyncMapperFacade;
+import ma.glasnost.orika.metadata.TypeFactory;
+import ma.glasnost.orika.test.MappingUtil;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncMapperFacadeTestCase {
+
+    private ThreadPoolExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMapperGenerationIsOffloaded() throws Exception {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        AsyncMapperFacade mapper = new AsyncMapperFacade(factory, executor, 10);
+
+        Future<PersonDto> first = mapper.map(createPerson("Alice"), PersonDto.class);
+        Assert.assertEquals("Alice", first.get().getName());
+        Assert.assertEquals(1, executor.getTaskCount());
+
+        Future<PersonDto> second = mapper.map(createPerson("Bob"), PersonDto.class);
+        Assert.assertTrue(second.isDone());
+        Assert.assertEquals("Bob", second.get().getName());
+        Assert.assertEquals(1, executor.getTaskCount());
+
+        Assert.assertNull(mapper.map(null, PersonDto.class).get());
+    }
+
+    @Test
+    public void testLargeIterablesAreOffloaded() throws Exception {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        AsyncMapperFacade mapper = new AsyncMapperFacade(factory, executor, 10);
+        mapper.map(createPerson("Alice"), PersonDto.class).get();
+        long tasks = executor.getTaskCount();
+
+        Future<List<PersonDto>> small = mapper.mapAsList(createPeople(10), PersonDto.class);
+        Assert.assertTrue(small.isDone());
+        Assert.assertEquals(10, small.get().size());
+        Assert.assertEquals(tasks, executor.getTaskCount());
+
+        Future<List<PersonDto>> large = mapper.mapAsList(createPeople(11), PersonDto.class);
+        List<PersonDto> result = large.get();
+        Assert.assertEquals(11, result.size());
+        Assert.assertEquals("person10", result.get(10).getName());
+        Assert.assertEquals(tasks + 1, executor.getTaskCount());
+    }
+
+    @Test
+    public void testEveryElementClassIsChecked() throws Exception {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        AsyncMapperFacade mapper = new AsyncMapperFacade(factory, executor, 10);
+        mapper.map(createPerson("Alice"), PersonDto.class).get();
+        long tasks = executor.getTaskCount();
+
+        Customer customer = new Customer();
+        customer.setName("Carol");
+        List<Object> source = new ArrayList<Object>();
+        source.add(createPerson("Bob"));
+        source.add(null);
+        source.add(customer);
+
+        /*
+         * No mapper has been generated for the second class of element yet
+         */
+        List<PersonDto> result = mapper.mapAsList(source, TypeFactory.valueOf(Object.class), TypeFactory.valueOf(PersonDto.class)).get();
+        Assert.assertEquals("Carol", result.get(2).getName());
+        Assert.assertEquals(tasks + 1, executor.getTaskCount());
+
+        Future<List<PersonDto>> prepared = mapper.mapAsList(source, TypeFactory.valueOf(Object.class), TypeFactory.valueOf(PersonDto.class));
+        Assert.assertTrue(prepared.isDone());
+        Assert.assertEquals(tasks + 1, executor.getTaskCount());
+    }
+
+    @Test
+    public void testDefaultExecutor() throws Exception {
+        AsyncMapperFacade mapper = new AsyncMapperFacade(MappingUtil.getMapperFactory());
+        Assert.assertEquals("Alice", mapper.map(createPerson("Alice"), PersonDto.class).get().getName());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testExecutorIsRequired() {
+        new AsyncMapperFacade(MappingUtil.getMapperFactory(), null);
+    }
+
+    private static List<Person> createPeople(int count) {
+        List<Person> people = new ArrayList<Person>(count);
+        for (int i = 0; i < count; ++i) {
+            people.add(createPerson("person" + i));
+        }
+        return people;
+    }
+
+    private static Person createPerson(String name) {
+        Person person = new Person();
+        person.setName(name);
+        return person;
+    }
+
+    public static class Person {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Customer {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class PersonDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.boundmapper;
+
+import ma.glasnost.orika.BoundMapper;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.metadata.TypeFactory;
+import ma.glasnost.orika.test.MappingUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoundMapperTestCase {
+
+    @Test
+    public void testMapNewInstance() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        BoundMapper<Person, PersonDTO> mapper = factory.getBoundMapper(TypeFactory.valueOf(Person.class),
+                TypeFactory.valueOf(PersonDTO.class));
+
+        for (int i = 0; i < 3; ++i) {
+            Person person = new Person();
+            person.setName("Person " + i);
+            person.setAge(20 + i);
+
+            PersonDTO dto = mapper.map(person);
+
+            Assert.assertEquals(person.getName(), dto.getName());
+            Assert.assertEquals(person.getAge(), dto.getAge());
+        }
+        Assert.assertNull(mapper.map(null));
+    }
+
+    @Test
+    public void testMapInPlace() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        BoundMapper<Person, PersonDTO> mapper = factory.getBoundMapper(TypeFactory.valueOf(Person.class),
+                TypeFactory.valueOf(PersonDTO.class));
+
+        Person person = new Person();
+        person.setName("Somebody");
+        person.setAge(42);
+
+        PersonDTO dto = new PersonDTO();
+        Assert.assertSame(dto, mapper.map(person, dto));
+        Assert.assertEquals(person.getName(), dto.getName());
+        Assert.assertEquals(person.getAge(), dto.getAge());
+    }
+
+    @Test
+    public void testMapReverse() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        factory.registerClassMap(factory.classMap(Person.class, PersonDTO.class).byDefault());
+
+        BoundMapper<PersonDTO, Person> mapper = factory.getBoundMapper(TypeFactory.valueOf(PersonDTO.class),
+                TypeFactory.valueOf(Person.class));
+
+        PersonDTO dto = new PersonDTO();
+        dto.setName("Somebody");
+        dto.setAge(42);
+
+        Person person = mapper.map(dto);
+        Assert.assertEquals(dto.getName(), person.getName());
+        Assert.assertEquals(dto.getAge(), person.getAge());
+    }
+
+    @Test
+    public void testResolvesAgainForDifferentSourceClass() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        factory.registerClassMap(factory.classMap(Employee.class, PersonDTO.class).field("employer", "name").byDefault());
+        BoundMapper<Person, PersonDTO> mapper = factory.getBoundMapper(TypeFactory.valueOf(Person.class),
+                TypeFactory.valueOf(PersonDTO.class));
+
+        Person person = new Person();
+        person.setName("Somebody");
+
+        Employee employee = new Employee();
+        employee.setName("Somebody else");
+        employee.setEmployer("Acme");
+
+        Assert.assertEquals("Somebody", mapper.map(person).getName());
+        Assert.assertEquals("Acme", mapper.map(employee).getName());
+        Assert.assertEquals("Somebody", mapper.map(person).getName());
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    public static class Employee extends Person {
+        private String employer;
+
+        public String getEmployer() {
+            return employer;
+        }
+
+        public void setEmployer(String employer) {
+            this.employer = employer;
+        }
+    }
+
+    public static class PersonDTO {
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+}
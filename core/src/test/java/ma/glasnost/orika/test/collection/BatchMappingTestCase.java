@@ -0,0 +1,193 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.OrikaSystemProperties;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+import ma.glasnost.orika.test.MappingUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchMappingTestCase {
+
+    @Test
+    public void testRepeatedElementsMapToSameInstance() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+
+        Shape shape = new Shape();
+        shape.setName("shared");
+        List<Shape> source = new ArrayList<Shape>();
+        for (int i = 0; i < 5; ++i) {
+            source.add(shape);
+        }
+
+        List<ShapeDto> destination = mapper.mapAsList(source, ShapeDto.class);
+        Assert.assertEquals(5, destination.size());
+        for (ShapeDto dto : destination) {
+            Assert.assertSame(destination.get(0), dto);
+        }
+        Assert.assertEquals("shared", destination.get(0).getName());
+    }
+
+    @Test
+    public void testMixedRuntimeClasses() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        factory.registerClassMap(factory.classMap(Shape.class, ShapeDto.class).byDefault().toClassMap());
+        factory.registerClassMap(factory.classMap(Circle.class, CircleDto.class).byDefault().toClassMap());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        List<Shape> source = new ArrayList<Shape>();
+        for (int i = 0; i < 6; ++i) {
+            Shape shape;
+            if (i % 3 == 0) {
+                Circle circle = new Circle();
+                circle.setRadius(i);
+                shape = circle;
+            } else {
+                shape = new Shape();
+            }
+            shape.setName("shape" + i);
+            source.add(shape);
+            source.add(null);
+        }
+
+        ShapeDto[] destination = mapper.mapAsArray(new ShapeDto[source.size()], source, TypeFactory.valueOf(Shape.class),
+                TypeFactory.valueOf(ShapeDto.class));
+        for (int i = 0; i < 6; ++i) {
+            ShapeDto dto = destination[2 * i];
+            Assert.assertEquals("shape" + i, dto.getName());
+            if (i % 3 == 0) {
+                Assert.assertEquals(i, ((CircleDto) dto).getRadius());
+            } else {
+                Assert.assertEquals(ShapeDto.class, dto.getClass());
+            }
+            Assert.assertNull(destination[2 * i + 1]);
+        }
+    }
+
+    @Test
+    public void testStrategiesAreResolvedOncePerClassInBatch() {
+        /*
+         * Without the strategy cache, every resolution of a strategy looks up
+         * the concrete destination type
+         */
+        System.setProperty(OrikaSystemProperties.USE_STRATEGY_CACHE, "false");
+        final AtomicInteger lookups = new AtomicInteger();
+        MapperFactory factory;
+        try {
+            factory = new DefaultMapperFactory(new DefaultMapperFactory.Builder()) {
+                @Override
+                public <S, D> Type<? extends D> lookupConcreteDestinationType(Type<S> sourceType, Type<D> destinationType,
+                        MappingContext context) {
+                    lookups.incrementAndGet();
+                    return super.lookupConcreteDestinationType(sourceType, destinationType, context);
+                }
+            };
+            factory.registerClassMap(factory.classMap(Shape.class, ShapeDto.class).byDefault().toClassMap());
+            factory.registerClassMap(factory.classMap(Circle.class, CircleDto.class).byDefault().toClassMap());
+            factory.getMapperFacade();
+        } finally {
+            System.clearProperty(OrikaSystemProperties.USE_STRATEGY_CACHE);
+        }
+        MapperFacade mapper = factory.getMapperFacade();
+
+        mapper.mapAsList(newShapes(2), ShapeDto.class);
+        int lookupsPerClass = lookups.get() / 2;
+        Assert.assertTrue(lookupsPerClass > 0);
+
+        lookups.set(0);
+        List<ShapeDto> destination = mapper.mapAsList(newShapes(8), ShapeDto.class);
+        Assert.assertEquals(2 * lookupsPerClass, lookups.get());
+        for (int i = 0; i < 8; ++i) {
+            Assert.assertEquals(i % 2 == 0 ? ShapeDto.class : CircleDto.class, destination.get(i).getClass());
+            Assert.assertEquals("shape" + i, destination.get(i).getName());
+        }
+    }
+
+    /**
+     * @return the specified number of shapes, alternately of class Shape and
+     *         Circle
+     */
+    private static List<Shape> newShapes(int count) {
+        List<Shape> shapes = new ArrayList<Shape>();
+        for (int i = 0; i < count; ++i) {
+            Shape shape = i % 2 == 0 ? new Shape() : new Circle();
+            shape.setName("shape" + i);
+            shapes.add(shape);
+        }
+        return shapes;
+    }
+
+    public static class Shape {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Circle extends Shape {
+        private int radius;
+
+        public int getRadius() {
+            return radius;
+        }
+
+        public void setRadius(int radius) {
+            this.radius = radius;
+        }
+    }
+
+    public static class ShapeDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class CircleDto extends ShapeDto {
+        private int radius;
+
+        public int getRadius() {
+            return radius;
+        }
+
+        public void setRadius(int radius) {
+            this.radius = radius;
+        }
+    }
+}
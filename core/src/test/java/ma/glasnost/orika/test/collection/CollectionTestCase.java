@@ -20,10 +20,16 @@ package ma.glasnost.orika.test.collection;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import ma.glasnost.orika.CustomConverter;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.Type;
 import ma.glasnost.orika.test.MappingUtil;
+import ma.glasnost.orika.unenhance.UnenhanceStrategy;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -52,6 +58,120 @@ public class CollectionTestCase {
 		Assert.assertEquals(3, destination.getTags().size());
 	}
 	
+	@Test
+	public void testListToSetPreservesOrder() {
+		D source = new D();
+		source.setTags(Arrays.asList("soa", "java", "rest", "xml", "json", "orika"));
+
+		A destination = MappingUtil.getMapperFactory().getMapperFacade().map(source, A.class);
+
+		Assert.assertEquals(source.getTags(), new ArrayList<String>(destination.getTags()));
+	}
+	
+	@Test
+	public void testArrayToList() {
+		E source = new E();
+		source.setTags(new String[] {"soa", "java", "rest"});
+
+		D destination = MappingUtil.getMapperFactory().getMapperFacade().map(source, D.class);
+
+		Assert.assertEquals(Arrays.asList("soa", "java", "rest"), destination.getTags());
+	}
+	
+	@Test
+	public void testListToArray() {
+		D source = new D();
+		source.setTags(Arrays.asList("soa", "java", "rest"));
+
+		E destination = MappingUtil.getMapperFactory().getMapperFacade().map(source, E.class);
+
+		Assert.assertArrayEquals(new String[] {"soa", "java", "rest"}, destination.getTags());
+	}
+	
+	@Test
+	public void testConvertedElements() {
+		MapperFactory factory = MappingUtil.getMapperFactory();
+		factory.getConverterFactory().registerConverter(new CodeConverter());
+		
+		F source = new F();
+		source.setCodes(Arrays.asList(1, null, 3));
+		source.setLabels(new LinkedList<Integer>(Arrays.asList(4, 5)));
+
+		G destination = factory.getMapperFacade().map(source, G.class);
+
+		Assert.assertEquals(Arrays.asList("#1", null, "#3"), destination.getCodes());
+		Assert.assertArrayEquals(new String[] {"#4", "#5"}, destination.getLabels());
+	}
+	
+	@Test
+	public void testConvertedElementsOfNonFinalType() {
+		MapperFactory factory = new DefaultMapperFactory.Builder().unenhanceStrategy(new ProxiedNumberUnenhancer()).build();
+		factory.getConverterFactory().registerConverter(new NumberConverter());
+		
+		H source = new H();
+		source.setCodes(Arrays.<Number> asList(1, new ProxiedNumber(2), 3L));
+
+		G destination = factory.getMapperFacade().map(source, G.class);
+
+		/*
+		 * Elements of a subclass of the declared element type are unenhanced
+		 * before being converted, as they would be by the MapperFacade
+		 */
+		Assert.assertEquals(Arrays.asList("n1", "n2", "n3"), destination.getCodes());
+	}
+	
+	public static class NumberConverter extends CustomConverter<Number, String> {
+		public String convert(Number source, Type<? extends String> destinationType) {
+			return "n" + source;
+		}
+	}
+	
+	public static class ProxiedNumber extends Number {
+		private static final long serialVersionUID = 1L;
+		private final int value;
+		
+		public ProxiedNumber(int value) {
+			this.value = value;
+		}
+		
+		public int intValue() {
+			return value;
+		}
+		
+		public long longValue() {
+			return value;
+		}
+		
+		public float floatValue() {
+			return value;
+		}
+		
+		public double doubleValue() {
+			return value;
+		}
+		
+		public String toString() {
+			return "proxy";
+		}
+	}
+	
+	public static class ProxiedNumberUnenhancer implements UnenhanceStrategy {
+		public <T> Type<T> unenhanceType(T object, Type<T> type) {
+			return type;
+		}
+		
+		@SuppressWarnings("unchecked")
+		public <T> T unenhanceObject(T object, Type<T> type) {
+			return object instanceof ProxiedNumber ? (T) Integer.valueOf(((ProxiedNumber) object).intValue()) : object;
+		}
+	}
+	
+	public static class CodeConverter extends CustomConverter<Integer, String> {
+		public String convert(Integer source, Type<? extends String> destinationType) {
+			return "#" + source;
+		}
+	}
+	
 	static public class A {
 		private Set<String> tags;
 
@@ -89,4 +209,70 @@ public class CollectionTestCase {
 		}
 		
 	}
+	
+	public static class E {
+		private String[] tags;
+
+		public String[] getTags() {
+			return tags;
+		}
+
+		public void setTags(String[] tags) {
+			this.tags = tags;
+		}
+	}
+	
+	public static class F {
+		private List<Integer> codes;
+		private List<Integer> labels;
+
+		public List<Integer> getCodes() {
+			return codes;
+		}
+
+		public void setCodes(List<Integer> codes) {
+			this.codes = codes;
+		}
+
+		public List<Integer> getLabels() {
+			return labels;
+		}
+
+		public void setLabels(List<Integer> labels) {
+			this.labels = labels;
+		}
+	}
+	
+	public static class G {
+		private List<String> codes;
+		private String[] labels;
+
+		public List<String> getCodes() {
+			return codes;
+		}
+
+		public void setCodes(List<String> codes) {
+			this.codes = codes;
+		}
+
+		public String[] getLabels() {
+			return labels;
+		}
+
+		public void setLabels(String[] labels) {
+			this.labels = labels;
+		}
+	}
+	
+	public static class H {
+		private List<Number> codes;
+
+		public List<Number> getCodes() {
+			return codes;
+		}
+
+		public void setCodes(List<Number> codes) {
+			this.codes = codes;
+		}
+	}
 }
@@ -0,0 +1,172 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.collection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+import ma.glasnost.orika.test.MappingUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LazyMappingTestCase {
+
+    private static final Type<Item> ITEM = TypeFactory.valueOf(Item.class);
+    private static final Type<ItemDto> ITEM_DTO = TypeFactory.valueOf(ItemDto.class);
+
+    @Test
+    public void testElementsAreMappedOnDemand() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+
+        final int[] consumed = new int[1];
+        final Iterator<Item> items = createItems(3, new Group()).iterator();
+        Iterator<Item> source = new Iterator<Item>() {
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            public Item next() {
+                ++consumed[0];
+                return items.next();
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        Iterator<ItemDto> destination = mapper.mapAsIterator(source, ITEM, ITEM_DTO);
+        Assert.assertEquals(0, consumed[0]);
+        Assert.assertEquals("item0", destination.next().getName());
+        Assert.assertEquals(1, consumed[0]);
+        Assert.assertEquals("item1", destination.next().getName());
+        Assert.assertEquals("item2", destination.next().getName());
+        Assert.assertFalse(destination.hasNext());
+
+        Assert.assertNull(mapper.mapAsIterator((Iterator<Item>) null, ITEM, ITEM_DTO));
+    }
+
+    @Test
+    public void testContextResetInterval() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+        List<Item> items = createItems(4, new Group());
+
+        List<ItemDto> perElement = toList(mapper.mapLazily(items, ItemDto.class));
+        Assert.assertNotSame(perElement.get(0).getGroup(), perElement.get(1).getGroup());
+
+        List<ItemDto> perPair = toList(mapper.mapLazily(items, ITEM, ITEM_DTO, 2));
+        Assert.assertSame(perPair.get(0).getGroup(), perPair.get(1).getGroup());
+        Assert.assertNotSame(perPair.get(1).getGroup(), perPair.get(2).getGroup());
+        Assert.assertSame(perPair.get(2).getGroup(), perPair.get(3).getGroup());
+
+        List<ItemDto> whole = toList(mapper.mapLazily(items, ITEM, ITEM_DTO, 0));
+        for (ItemDto dto : whole) {
+            Assert.assertSame(whole.get(0).getGroup(), dto.getGroup());
+        }
+    }
+
+    @Test
+    public void testLazyViewCanBeIteratedRepeatedly() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+        List<Item> items = createItems(2, new Group());
+
+        Iterable<ItemDto> view = mapper.mapLazily(items, ITEM, ITEM_DTO);
+        Assert.assertEquals(2, toList(view).size());
+
+        items.add(createItems(1, new Group()).get(0));
+        Assert.assertEquals(3, toList(view).size());
+    }
+
+    private static <T> List<T> toList(Iterable<T> iterable) {
+        List<T> list = new ArrayList<T>();
+        for (T element : iterable) {
+            list.add(element);
+        }
+        return list;
+    }
+
+    private static List<Item> createItems(int count, Group group) {
+        List<Item> items = new ArrayList<Item>(count);
+        for (int i = 0; i < count; ++i) {
+            Item item = new Item();
+            item.setName("item" + i);
+            item.setGroup(group);
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static class Group {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Item {
+        private String name;
+        private Group group;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Group getGroup() {
+            return group;
+        }
+
+        public void setGroup(Group group) {
+            this.group = group;
+        }
+    }
+
+    public static class ItemDto {
+        private String name;
+        private Group group;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Group getGroup() {
+            return group;
+        }
+
+        public void setGroup(Group group) {
+            this.group = group;
+        }
+    }
+}
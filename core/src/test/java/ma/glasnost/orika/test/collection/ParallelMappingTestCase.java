@@ -0,0 +1,150 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.collection;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ma.glasnost.orika.CustomMapper;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.MappingException;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.test.MappingUtil;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelMappingTestCase {
+
+    private static final int ELEMENTS = 10000;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMapAsListParallel() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+
+        List<Item> source = createItems();
+        List<ItemDto> destination = mapper.mapAsListParallel(source, ItemDto.class, executor);
+
+        Assert.assertEquals(ELEMENTS, destination.size());
+        for (int i = 0; i < ELEMENTS; ++i) {
+            Assert.assertEquals("item" + i, destination.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testMapAsListParallelFromSequentialSource() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+
+        List<ItemDto> destination = mapper.mapAsListParallel(new LinkedList<Item>(createItems()), ItemDto.class, executor);
+
+        Assert.assertEquals(ELEMENTS, destination.size());
+        for (int i = 0; i < ELEMENTS; ++i) {
+            Assert.assertEquals("item" + i, destination.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testMapAsSetAndArrayParallel() {
+        MapperFacade mapper = MappingUtil.getMapperFactory().getMapperFacade();
+
+        List<Item> source = createItems();
+        Set<ItemDto> set = mapper.mapAsSetParallel(source, ItemDto.class, executor);
+        Assert.assertEquals(ELEMENTS, set.size());
+
+        ItemDto[] array = mapper.mapAsArrayParallel(new ItemDto[ELEMENTS], source, ItemDto.class, executor);
+        for (int i = 0; i < ELEMENTS; ++i) {
+            Assert.assertEquals("item" + i, array[i].getName());
+        }
+
+        Assert.assertNull(mapper.mapAsListParallel((List<Item>) null, ItemDto.class, executor));
+    }
+
+    @Test
+    public void testFailureIsRethrown() {
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        factory.registerClassMap(factory.classMap(Item.class, ItemDto.class).byDefault().customize(new CustomMapper<Item, ItemDto>() {
+            public void mapAtoB(Item a, ItemDto b, MappingContext context) {
+                if (("item" + (ELEMENTS - 1)).equals(a.getName())) {
+                    throw new IllegalStateException(a.getName());
+                }
+            }
+        }).toClassMap());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        try {
+            mapper.mapAsListParallel(createItems(), ItemDto.class, executor);
+            Assert.fail("expected the failure of the last chunk to be rethrown");
+        } catch (MappingException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertEquals("item" + (ELEMENTS - 1), e.getCause().getMessage());
+        }
+    }
+
+    private static List<Item> createItems() {
+        List<Item> items = new ArrayList<Item>(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; ++i) {
+            Item item = new Item();
+            item.setName("item" + i);
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static class Item {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class ItemDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -55,19 +55,25 @@ import org.junit.Test;
 public class Issue25TestCase extends BaseManufacturingFacilityTest{
 
 	private MapperFacade mapper = null; 
+	private String previousCompilerStrategy;
 	
     public Issue25TestCase() {
     }
 
     @Before
     public void setUp() throws Exception {
-    	System.setProperty(OrikaSystemProperties.COMPILER_STRATEGY,EclipseJdtCompilerStrategy.class.getName());
+    	previousCompilerStrategy = System.setProperty(OrikaSystemProperties.COMPILER_STRATEGY,EclipseJdtCompilerStrategy.class.getName());
         
         mapper = new CustomOrikaMapper();
     }
 
     @After
     public void tearDown() throws Exception {
+    	if (previousCompilerStrategy == null) {
+    		System.clearProperty(OrikaSystemProperties.COMPILER_STRATEGY);
+    	} else {
+    		System.setProperty(OrikaSystemProperties.COMPILER_STRATEGY, previousCompilerStrategy);
+    	}
     }
 
     @Test
@@ -0,0 +1,90 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.converter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import junit.framework.Assert;
+import ma.glasnost.orika.CustomConverter;
+import ma.glasnost.orika.converter.BidirectionalConverter;
+import ma.glasnost.orika.converter.DefaultConverterFactory;
+import ma.glasnost.orika.converter.builtin.ToStringConverter;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Test;
+
+/**
+ * Verifies converter resolution by the DefaultConverterFactory, including
+ * remembered negative lookups.
+ *
+ */
+public class ConverterResolutionTestCase {
+
+    @Test
+    public void testResolveByDestination() {
+        DefaultConverterFactory factory = new DefaultConverterFactory();
+        LongToDateConverter longToDate = new LongToDateConverter();
+        DateToBigDecimalConverter dateToBigDecimal = new DateToBigDecimalConverter();
+        factory.registerConverter(longToDate);
+        factory.registerConverter(dateToBigDecimal);
+
+        Assert.assertSame(longToDate, factory.getConverter(TypeFactory.valueOf(Long.class), TypeFactory.valueOf(Date.class)));
+        Assert.assertSame(longToDate, factory.getConverter(TypeFactory.valueOf(long.class), TypeFactory.valueOf(Date.class)));
+        Assert.assertSame(dateToBigDecimal, factory.getConverter(TypeFactory.valueOf(Date.class), TypeFactory.valueOf(BigDecimal.class)));
+        Assert.assertSame(dateToBigDecimal, factory.getConverter(TypeFactory.valueOf(BigDecimal.class), TypeFactory.valueOf(Date.class)));
+        Assert.assertNull(factory.getConverter(TypeFactory.valueOf(Long.class), TypeFactory.valueOf(BigDecimal.class)));
+    }
+
+    @Test
+    public void testNegativeLookupIsForgottenOnRegistration() {
+        DefaultConverterFactory factory = new DefaultConverterFactory();
+        factory.registerConverter(new LongToDateConverter());
+
+        Type<Integer> integerType = TypeFactory.valueOf(Integer.class);
+        Type<String> stringType = TypeFactory.valueOf(String.class);
+
+        Assert.assertFalse(factory.canConvert(integerType, stringType));
+        Assert.assertFalse(factory.canConvert(integerType, stringType));
+
+        factory.registerConverter(new ToStringConverter());
+
+        Assert.assertTrue(factory.canConvert(integerType, stringType));
+        Assert.assertEquals(ToStringConverter.class, factory.getConverter(integerType, stringType).getClass());
+        Assert.assertEquals(LongToDateConverter.class, factory.getConverter(TypeFactory.valueOf(Long.class), TypeFactory.valueOf(Date.class)).getClass());
+    }
+
+    public static class LongToDateConverter extends CustomConverter<Long, Date> {
+
+        public Date convert(Long source, Type<? extends Date> destinationType) {
+            return new Date(source);
+        }
+    }
+
+    public static class DateToBigDecimalConverter extends BidirectionalConverter<Date, BigDecimal> {
+
+        public BigDecimal convertTo(Date source, Type<BigDecimal> destinationType) {
+            return new BigDecimal(source.getTime());
+        }
+
+        public Date convertFrom(BigDecimal source, Type<Date> destinationType) {
+            return new Date(source.longValue());
+        }
+    }
+}
@@ -57,6 +57,40 @@ public class NestedExpressionTestCase {
         
     }
     
+    @Test
+    public void testNestedPropertiesSharingPath() {
+        
+        MapperFactory factory = MappingUtil.getMapperFactory();
+        factory.registerClassMap(ClassMapBuilder.map(CountingOrder.class, OrderDTO.class).field("product.state.type.label", "stateLabel")
+                .field("product.name", "productName").toClassMap());
+        
+        StateType type = new StateType();
+        type.setLabel("Open");
+        
+        State state = new State();
+        state.setType(type);
+        
+        Product product = new Product();
+        product.setState(state);
+        product.setName("Glasnost Platform");
+        
+        CountingOrder order = new CountingOrder();
+        order.setProduct(product);
+        
+        OrderDTO dto = factory.getMapperFacade().map(order, OrderDTO.class);
+        
+        Assert.assertEquals("Open", dto.getStateLabel());
+        Assert.assertEquals("Glasnost Platform", dto.getProductName());
+        Assert.assertEquals(1, order.getProductCalls());
+        
+        product.setState(null);
+        
+        dto = factory.getMapperFacade().map(order, OrderDTO.class);
+        
+        Assert.assertNull(dto.getStateLabel());
+        Assert.assertEquals("Glasnost Platform", dto.getProductName());
+    }
+    
     public static class StateType {
         private String label;
         
@@ -117,6 +151,24 @@ public class NestedExpressionTestCase {
         }
     }
     
+    public static class CountingOrder {
+        private Product product;
+        private int productCalls;
+        
+        public Product getProduct() {
+            ++productCalls;
+            return product;
+        }
+        
+        public void setProduct(Product product) {
+            this.product = product;
+        }
+        
+        public int getProductCalls() {
+            return productCalls;
+        }
+    }
+    
     public static class OrderDTO {
         private String stateLabel;
         private String productName;
@@ -0,0 +1,178 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.generator.ByteCodeCacheCompilerStrategy;
+import ma.glasnost.orika.impl.generator.JavassistCompilerStrategy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteCodeCacheCompilerStrategyTestCase {
+
+    @Test
+    public void testCachedClassesAreDefinedFromCache() throws Exception {
+        File cacheDirectory = createTempDirectory();
+
+        ByteCodeCacheCompilerStrategy first = new ByteCodeCacheCompilerStrategy(cacheDirectory);
+        assertMapping(first);
+        Assert.assertEquals(0, first.getHitCount());
+        Assert.assertTrue(first.getMissCount() > 0);
+        Assert.assertEquals(first.getMissCount(), listEntries(cacheDirectory).length);
+
+        ByteCodeCacheCompilerStrategy second = new ByteCodeCacheCompilerStrategy(cacheDirectory);
+        assertMapping(second);
+        Assert.assertEquals(first.getMissCount(), second.getHitCount());
+        Assert.assertEquals(0, second.getMissCount());
+    }
+
+    @Test
+    public void testUnreadableEntriesAreReplaced() throws Exception {
+        File cacheDirectory = createTempDirectory();
+
+        ByteCodeCacheCompilerStrategy first = new ByteCodeCacheCompilerStrategy(cacheDirectory);
+        assertMapping(first);
+        for (File entry : listEntries(cacheDirectory)) {
+            FileOutputStream out = new FileOutputStream(entry);
+            out.write(new byte[] { 1, 2, 3 });
+            out.close();
+        }
+
+        ByteCodeCacheCompilerStrategy second = new ByteCodeCacheCompilerStrategy(cacheDirectory);
+        assertMapping(second);
+        Assert.assertEquals(0, second.getHitCount());
+        Assert.assertEquals(first.getMissCount(), second.getMissCount());
+
+        ByteCodeCacheCompilerStrategy third = new ByteCodeCacheCompilerStrategy(cacheDirectory);
+        assertMapping(third);
+        Assert.assertEquals(first.getMissCount(), third.getHitCount());
+    }
+
+    @Test
+    public void testStaleEntriesAreEvicted() throws Exception {
+        File cacheDirectory = createTempDirectory();
+        long day = 24L * 60 * 60 * 1000;
+
+        File staleEntry = new File(cacheDirectory, "stale.class");
+        File recentEntry = new File(cacheDirectory, "recent.class");
+        Assert.assertTrue(staleEntry.createNewFile());
+        Assert.assertTrue(recentEntry.createNewFile());
+        Assert.assertTrue(staleEntry.setLastModified(System.currentTimeMillis() - 10 * day));
+
+        new ByteCodeCacheCompilerStrategy(cacheDirectory, new JavassistCompilerStrategy(), 5 * day);
+
+        Assert.assertFalse(staleEntry.exists());
+        Assert.assertTrue(recentEntry.exists());
+    }
+
+    /**
+     * Builds a mapper using the strategy in a fresh class-loader, as if in a
+     * new JVM, so that no generated class has been defined beforehand
+     */
+    private static void assertMapping(ByteCodeCacheCompilerStrategy compilerStrategy) {
+        Thread currentThread = Thread.currentThread();
+        ClassLoader original = currentThread.getContextClassLoader();
+        try {
+            URLClassLoader loader = new URLClassLoader(new URL[0], original);
+            currentThread.setContextClassLoader(loader);
+
+            MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(compilerStrategy).build();
+            factory.registerClassMap(factory.classMap(Source.class, Destination.class).field("name", "title").byDefault());
+            MapperFacade mapper = factory.getMapperFacade();
+
+            Source source = new Source();
+            source.setName("cached");
+            source.setCount(3);
+            Destination destination = mapper.map(source, Destination.class);
+
+            Assert.assertEquals("cached", destination.getTitle());
+            Assert.assertEquals(3, destination.getCount());
+        } finally {
+            currentThread.setContextClassLoader(original);
+        }
+    }
+
+    private static File[] listEntries(File cacheDirectory) {
+        return cacheDirectory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".class");
+            }
+        });
+    }
+
+    private static File createTempDirectory() throws IOException {
+        File directory = File.createTempFile("orika-bytecode-cache", "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    public static class Source {
+        private String name;
+        private int count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public static class Destination {
+        private String title;
+        private int count;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.GeneratedMapperBase;
+import ma.glasnost.orika.impl.generator.DirectByteCodeCompilerStrategy;
+import ma.glasnost.orika.impl.generator.GeneratedSourceCode;
+import ma.glasnost.orika.impl.generator.JavassistCompilerStrategy;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentBuildTestCase {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentBuildMatchesSerialBuild() {
+        MapperFactory serialFactory = newMapperFactory(new DefaultMapperFactory.Builder());
+        MapperFactory concurrentFactory = newMapperFactory(new DefaultMapperFactory.Builder().buildExecutor(executor));
+
+        MapperFacade serial = serialFactory.getMapperFacade();
+        MapperFacade concurrent = concurrentFactory.getMapperFacade();
+
+        for (Class<?> type : new Class<?>[] { Base.class, Derived.class, Address.class }) {
+            Assert.assertEquals(serialFactory.lookupMappedClasses(TypeFactory.valueOf(type)),
+                    concurrentFactory.lookupMappedClasses(TypeFactory.valueOf(type)));
+        }
+
+        Derived source = new Derived();
+        source.setId(7L);
+        source.setName("derived");
+        source.setAddress(new Address());
+        source.getAddress().setCity("Rabat");
+
+        DerivedDto fromSerial = serial.map(source, DerivedDto.class);
+        DerivedDto fromConcurrent = concurrent.map(source, DerivedDto.class);
+
+        Assert.assertEquals(7L, fromConcurrent.getId());
+        Assert.assertEquals(fromSerial.getId(), fromConcurrent.getId());
+        Assert.assertEquals(fromSerial.getName(), fromConcurrent.getName());
+        Assert.assertEquals(fromSerial.getAddress().getCity(), fromConcurrent.getAddress().getCity());
+
+        Derived reversed = concurrent.map(fromConcurrent, Derived.class);
+        Assert.assertEquals(7L, reversed.getId());
+        Assert.assertEquals("Rabat", reversed.getAddress().getCity());
+    }
+
+    @Test
+    public void testConcurrentBuildOfManyClassMaps() {
+        DefaultMapperFactory.Builder builder = new DefaultMapperFactory.Builder().buildExecutor(executor);
+        MapperFactory factory = builder.build();
+        Class<?>[] sources = { Base.class, Derived.class, Address.class, DerivedDto.class, AddressDto.class };
+        Class<?>[] destinations = { BaseCopy.class, DerivedCopy.class, AddressCopy.class, DerivedCopy.class, AddressCopy.class };
+        for (int i = 0; i < sources.length; ++i) {
+            factory.registerClassMap(factory.classMap(sources[i], destinations[i]).byDefault());
+        }
+        MapperFacade mapper = factory.getMapperFacade();
+
+        Address address = new Address();
+        address.setCity("Casablanca");
+        Assert.assertEquals("Casablanca", mapper.map(address, AddressCopy.class).getCity());
+
+        DerivedDto dto = new DerivedDto();
+        dto.setName("dto");
+        Assert.assertEquals("dto", mapper.map(dto, DerivedCopy.class).getName());
+    }
+
+    /**
+     * Builds mappers whose byte-code is emitted directly (as none of the
+     * types involved are related) during a concurrent build.
+     */
+    @Test
+    public void testConcurrentBuildOfDirectlyEmittedMappers() {
+        final AtomicInteger mapperSourcesCompiled = new AtomicInteger();
+        DirectByteCodeCompilerStrategy compilerStrategy = new DirectByteCodeCompilerStrategy() {
+            @Override
+            public Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+                if (GeneratedMapperBase.class.equals(sourceCode.getSuperClass())) {
+                    mapperSourcesCompiled.incrementAndGet();
+                }
+                return super.compileClass(sourceCode);
+            }
+        };
+        MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(compilerStrategy).buildExecutor(executor).build();
+        factory.registerClassMap(factory.classMap(Base.class, BaseView.class).byDefault());
+        factory.registerClassMap(factory.classMap(Address.class, AddressView.class).byDefault());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        Base base = new Base();
+        base.setId(11L);
+        Assert.assertEquals(11L, mapper.map(base, BaseView.class).getId());
+
+        AddressView view = new AddressView();
+        view.setCity("Fes");
+        Assert.assertEquals("Fes", mapper.map(view, Address.class).getCity());
+
+        Assert.assertEquals(0, mapperSourcesCompiled.get());
+    }
+
+    /**
+     * Compiles many distinct classes in parallel through Javassist compiler
+     * strategies, whose class-pool is shared between the threads; each round
+     * uses a new strategy, so that the classes referenced by the compiled
+     * methods are first loaded into the class-pool concurrently.
+     */
+    @Test
+    public void testParallelCompilationOfManyClasses() throws Exception {
+        ExecutorService compilers = Executors.newFixedThreadPool(16);
+        try {
+            for (int round = 0; round < 10; ++round) {
+                final JavassistCompilerStrategy compilerStrategy = new JavassistCompilerStrategy();
+                final CountDownLatch start = new CountDownLatch(1);
+                List<Future<Class<?>>> compiled = new ArrayList<Future<Class<?>>>();
+                for (int i = 0; i < 64; ++i) {
+                    final int value = i;
+                    compiled.add(compilers.submit(new Callable<Class<?>>() {
+                        public Class<?> call() throws Exception {
+                            GeneratedSourceCode source = new GeneratedSourceCode("StressCompiled_" + value,
+                                    GeneratedMapperBase.class, compilerStrategy);
+                            source.addField("private int value = " + value + ";");
+                            source.addMethod("public String toString() {\n"
+                                    + "java.util.List values = new java.util.ArrayList();\n"
+                                    + "values.add(new StringBuilder(\"compiled\").append(value).toString());\n"
+                                    + "java.util.Map byName = new java.util.HashMap();\n"
+                                    + "byName.put(getClass().getName(), values);\n"
+                                    + "return (String) ((java.util.List) byName.get(getClass().getName())).get(0);\n"
+                                    + "}");
+                            start.await();
+                            return compilerStrategy.compileClass(source);
+                        }
+                    }));
+                }
+                start.countDown();
+
+                for (int i = 0; i < compiled.size(); ++i) {
+                    Assert.assertEquals("compiled" + i, compiled.get(i).get().newInstance().toString());
+                }
+            }
+        } finally {
+            compilers.shutdownNow();
+        }
+    }
+
+    private static MapperFactory newMapperFactory(DefaultMapperFactory.Builder builder) {
+        MapperFactory factory = builder.build();
+        factory.registerClassMap(factory.classMap(Base.class, BaseDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Derived.class, DerivedDto.class).use(Base.class, BaseDto.class).byDefault());
+        factory.registerClassMap(factory.classMap(Address.class, AddressDto.class).byDefault());
+        return factory;
+    }
+
+    public static class Base {
+        private long id;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+    }
+
+    public static class Derived extends Base {
+        private String name;
+        private Address address;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+    }
+
+    public static class Address {
+        private String city;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    public static class BaseDto extends Base {
+    }
+
+    public static class DerivedDto extends BaseDto {
+        private String name;
+        private AddressDto address;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public AddressDto getAddress() {
+            return address;
+        }
+
+        public void setAddress(AddressDto address) {
+            this.address = address;
+        }
+    }
+
+    public static class AddressDto extends Address {
+    }
+
+    public static class BaseView {
+        private long id;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+    }
+
+    public static class AddressView {
+        private String city;
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    public static class BaseCopy extends Base {
+    }
+
+    public static class DerivedCopy extends Derived {
+    }
+
+    public static class AddressCopy extends Address {
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentLookupTestCase {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSamePairIsGeneratedOnce() throws Exception {
+        final MapperFactory factory = new DefaultMapperFactory.Builder().build();
+        factory.getMapperFacade();
+        final MapperKey key = new MapperKey(TypeFactory.valueOf(Person.class), TypeFactory.valueOf(PersonDto.class));
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Mapper<Object, Object>>> lookups = new ArrayList<Future<Mapper<Object, Object>>>();
+        for (int i = 0; i < 8; ++i) {
+            lookups.add(executor.submit(new Callable<Mapper<Object, Object>>() {
+                public Mapper<Object, Object> call() throws Exception {
+                    start.await();
+                    return factory.lookupMapper(key);
+                }
+            }));
+        }
+        start.countDown();
+
+        Mapper<Object, Object> mapper = lookups.get(0).get(30, TimeUnit.SECONDS);
+        Assert.assertNotNull(mapper);
+        for (Future<Mapper<Object, Object>> lookup : lookups) {
+            Assert.assertSame(mapper, lookup.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testGenerationDoesNotLockFactory() throws Exception {
+        final MapperFactory factory = new DefaultMapperFactory.Builder().build();
+        factory.getMapperFacade();
+
+        /*
+         * Generating a mapper used to hold the monitor of the whole factory
+         */
+        synchronized (factory) {
+            Future<PersonDto> mapping = executor.submit(new Callable<PersonDto>() {
+                public PersonDto call() {
+                    Person person = new Person();
+                    person.setName("Alice");
+                    return factory.getMapperFacade().map(person, PersonDto.class);
+                }
+            });
+            Assert.assertEquals("Alice", mapping.get(30, TimeUnit.SECONDS).getName());
+        }
+    }
+
+    public static class Person {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class PersonDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
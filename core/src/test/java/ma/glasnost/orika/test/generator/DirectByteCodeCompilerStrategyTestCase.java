@@ -0,0 +1,204 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import ma.glasnost.orika.CustomMapper;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.GeneratedMapperBase;
+import ma.glasnost.orika.impl.generator.DirectByteCodeCompilerStrategy;
+import ma.glasnost.orika.impl.generator.GeneratedSourceCode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DirectByteCodeCompilerStrategyTestCase {
+
+    @Test
+    public void testSimplePropertiesAreEmittedDirectly() {
+        CountingCompilerStrategy compilerStrategy = new CountingCompilerStrategy();
+        MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(compilerStrategy).build();
+        factory.registerClassMap(factory.classMap(Source.class, Destination.class).field("name", "title").byDefault());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        Source source = new Source();
+        source.setName("direct");
+        source.setCount(7);
+        source.setTotal(Long.MAX_VALUE);
+        source.setRatio(Double.valueOf(0.5));
+
+        Destination destination = mapper.map(source, Destination.class);
+        Assert.assertEquals("direct", destination.getTitle());
+        Assert.assertEquals(7, destination.getCount());
+        Assert.assertEquals(Long.MAX_VALUE, destination.getTotal());
+        Assert.assertEquals(Double.valueOf(0.5), destination.getRatio());
+
+        Source mappedBack = mapper.map(destination, Source.class);
+        Assert.assertEquals("direct", mappedBack.getName());
+        Assert.assertEquals(7, mappedBack.getCount());
+        Assert.assertEquals(Long.MAX_VALUE, mappedBack.getTotal());
+
+        Assert.assertEquals(0, compilerStrategy.mapperSourcesCompiled);
+    }
+
+    @Test
+    public void testCustomMapperIsInvoked() {
+        CountingCompilerStrategy compilerStrategy = new CountingCompilerStrategy();
+        MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(compilerStrategy).build();
+        factory.registerClassMap(factory.classMap(Source.class, Destination.class)
+                .field("name", "title")
+                .customize(new CustomMapper<Source, Destination>() {
+                    @Override
+                    public void mapAtoB(Source a, Destination b, MappingContext context) {
+                        b.setCount(a.getCount() * 2);
+                    }
+                }).toClassMap());
+
+        Source source = new Source();
+        source.setName("custom");
+        source.setCount(3);
+
+        Destination destination = factory.getMapperFacade().map(source, Destination.class);
+        Assert.assertEquals("custom", destination.getTitle());
+        Assert.assertEquals(6, destination.getCount());
+        Assert.assertEquals(0, compilerStrategy.mapperSourcesCompiled);
+    }
+
+    @Test
+    public void testOtherPropertiesAreCompiledFromSource() {
+        CountingCompilerStrategy compilerStrategy = new CountingCompilerStrategy();
+        MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(compilerStrategy).build();
+        factory.registerClassMap(factory.classMap(Holder.class, Holder.class).byDefault());
+
+        Holder holder = new Holder();
+        holder.setSource(new Source());
+        holder.getSource().setName("nested");
+
+        Holder result = factory.getMapperFacade().map(holder, Holder.class);
+        Assert.assertNotSame(holder.getSource(), result.getSource());
+        Assert.assertEquals("nested", result.getSource().getName());
+        Assert.assertTrue(compilerStrategy.mapperSourcesCompiled > 0);
+    }
+
+    public static class CountingCompilerStrategy extends DirectByteCodeCompilerStrategy {
+        private int mapperSourcesCompiled;
+
+        @Override
+        public Class<?> compileClass(GeneratedSourceCode sourceCode) throws SourceCodeGenerationException {
+            if (GeneratedMapperBase.class.equals(sourceCode.getSuperClass())) {
+                ++mapperSourcesCompiled;
+            }
+            return super.compileClass(sourceCode);
+        }
+    }
+
+    public static class Source {
+        private String name;
+        private int count;
+        private long total;
+        private Double ratio;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public Double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(Double ratio) {
+            this.ratio = ratio;
+        }
+    }
+
+    public static class Destination {
+        private String title;
+        private int count;
+        private long total;
+        private Double ratio;
+
+        public String getTitle() {
+            return title;
+        }
+
+        public Destination setTitle(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long setTotal(long total) {
+            long previous = this.total;
+            this.total = total;
+            return previous;
+        }
+
+        public Double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(Double ratio) {
+            this.ratio = ratio;
+        }
+    }
+
+    public static class Holder {
+        private Source source;
+
+        public Source getSource() {
+            return source;
+        }
+
+        public void setSource(Source source) {
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewMethod;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.MethodInfo;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.OrikaSystemProperties;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.h2.util.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MethodSplittingTestCase {
+
+    private static final String PACKAGE = MethodSplittingTestCase.class.getPackage().getName();
+    private static final int PROPERTIES = 1000;
+    /**
+     * HotSpot's default HugeMethodLimit
+     */
+    private static final int HUGE_METHOD_LIMIT = 8000;
+
+    private File directory;
+
+    /**
+     * Writes the wide beans, which would be tedious to write out in full,
+     * alongside the test classes, so that they are loaded by the same
+     * class-loader and can be resolved by every compiler strategy; the
+     * generated class files are written to a temporary directory.
+     */
+    @Before
+    public void setUp() throws Exception {
+        File testClasses = new File(MethodSplittingTestCase.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        writeWideBean("WideSource", testClasses);
+        writeWideBean("WideDestination", testClasses);
+
+        directory = File.createTempFile("orika-method-splitting", "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        System.setProperty(OrikaSystemProperties.WRITE_CLASS_FILES, "true");
+        System.setProperty(OrikaSystemProperties.WRITE_CLASS_FILES_TO_PATH, directory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.clearProperty(OrikaSystemProperties.WRITE_CLASS_FILES);
+        System.clearProperty(OrikaSystemProperties.WRITE_CLASS_FILES_TO_PATH);
+        IOUtils.deleteRecursive(directory.getAbsolutePath(), true);
+    }
+
+    @Test
+    public void testWideClassMapIsSplit() throws Exception {
+        Class<?> sourceClass = Class.forName(PACKAGE + ".WideSource");
+        Class<?> destinationClass = Class.forName(PACKAGE + ".WideDestination");
+
+        MapperFactory factory = new DefaultMapperFactory.Builder().build();
+        factory.registerClassMap(factory.classMap(sourceClass, destinationClass).byDefault().toClassMap());
+
+        Object source = sourceClass.newInstance();
+        for (int i = 0; i < PROPERTIES; ++i) {
+            sourceClass.getMethod("setProperty" + i, String.class).invoke(source, "value" + i);
+        }
+        Object destination = factory.getMapperFacade().map(source, destinationClass);
+        for (int i = 0; i < PROPERTIES; ++i) {
+            Assert.assertEquals("value" + i, destinationClass.getMethod("getProperty" + i).invoke(destination));
+        }
+
+        Object mapper = factory.lookupMapper(new MapperKey(TypeFactory.valueOf(sourceClass), TypeFactory.valueOf(destinationClass)));
+        List<String> helperMethods = new ArrayList<String>();
+        for (Method method : mapper.getClass().getDeclaredMethods()) {
+            if (method.getName().startsWith("mapAtoBPart")) {
+                helperMethods.add(method.getName());
+            }
+        }
+        Assert.assertTrue("expected mapAtoB to be split, but found " + helperMethods, helperMethods.size() > 1);
+
+        int mapMethods = 0;
+        for (Object methodInfo : readClassFile(mapper.getClass()).getMethods()) {
+            MethodInfo method = (MethodInfo) methodInfo;
+            if (method.getName().startsWith("mapAtoB") || method.getName().startsWith("mapBtoA")) {
+                int codeLength = method.getCodeAttribute().getCodeLength();
+                Assert.assertTrue(method.getName() + " has " + codeLength + " bytes of byte-code", codeLength <= HUGE_METHOD_LIMIT);
+                ++mapMethods;
+            }
+        }
+        Assert.assertTrue(mapMethods > 2);
+    }
+
+    private static void writeWideBean(String simpleName, File directory) throws Exception {
+        ClassPool classPool = new ClassPool(true);
+        CtClass bean = classPool.makeClass(PACKAGE + "." + simpleName);
+        for (int i = 0; i < PROPERTIES; ++i) {
+            bean.addField(CtField.make("private java.lang.String property" + i + ";", bean));
+            bean.addMethod(CtNewMethod.make("public java.lang.String getProperty" + i + "() { return property" + i + "; }", bean));
+            bean.addMethod(CtNewMethod.make("public void setProperty" + i + "(java.lang.String value) { property" + i + " = value; }", bean));
+        }
+        bean.writeFile(directory.getAbsolutePath());
+    }
+
+    private ClassFile readClassFile(Class<?> type) throws IOException {
+        File classFile = new File(directory, type.getName().replace('.', '/') + ".class");
+        DataInputStream in = new DataInputStream(new FileInputStream(classFile));
+        try {
+            return new ClassFile(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.lang.reflect.Field;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultBoundMapper;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.GeneratedMapperBase;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NestedMappingDispatchTestCase {
+
+    @Test
+    public void testFinalNestedTypesAreDispatchedDirectly() throws Exception {
+        MapperFactory factory = newMapperFactory(2);
+        MapperFacade mapper = factory.getMapperFacade();
+
+        PersonDto dto = mapper.map(newPerson(), PersonDto.class);
+        assertMapped(dto);
+
+        /*
+         * The Dto types are not final, but none of their subtypes is
+         * registered, so both directions are dispatched directly
+         */
+        Assert.assertEquals(2, countBoundMappers(factory, Person.class, PersonDto.class));
+        Assert.assertEquals(2, countBoundMappers(factory, Address.class, AddressDto.class));
+
+        Object generatedMapper = factory.lookupMapper(new MapperKey(TypeFactory.valueOf(Person.class),
+                TypeFactory.valueOf(PersonDto.class)));
+        Field boundMapperField = generatedMapper.getClass().getDeclaredField("usedBoundMapper0");
+        Assert.assertEquals(DefaultBoundMapper.class, boundMapperField.getType());
+        boundMapperField.setAccessible(true);
+        Assert.assertNotNull(boundMapperField.get(generatedMapper));
+    }
+
+    @Test
+    public void testTypesWithRegisteredSubtypesAreNotDispatchedDirectly() throws Exception {
+        MapperFactory factory = newMapperFactory(2);
+        factory.registerClassMap(factory.classMap(Address.class, SpecialAddressDto.class).byDefault().toClassMap());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        PersonDto dto = mapper.map(newPerson(), PersonDto.class);
+        assertMapped(dto);
+        Assert.assertEquals("Casablanca", mapper.map(dto, Person.class).getAddress().getCity().getName());
+
+        /*
+         * Only Address -> AddressDto is dispatched directly, since a subtype
+         * of AddressDto is registered
+         */
+        Assert.assertEquals(1, countBoundMappers(factory, Person.class, PersonDto.class));
+    }
+
+    @Test
+    public void testDispatchIsLimitedByDepth() throws Exception {
+        MapperFactory factory = newMapperFactory(1);
+        MapperFacade mapper = factory.getMapperFacade();
+
+        PersonDto dto = mapper.map(newPerson(), PersonDto.class);
+        assertMapped(dto);
+
+        /*
+         * Person -> Address -> City is a chain of 2 nested mappings, so only
+         * the innermost one is dispatched directly
+         */
+        Assert.assertEquals(0, countBoundMappers(factory, Person.class, PersonDto.class));
+        Assert.assertEquals(2, countBoundMappers(factory, Address.class, AddressDto.class));
+    }
+
+    @Test
+    public void testDispatchCanBeDisabled() throws Exception {
+        MapperFactory factory = newMapperFactory(0);
+        MapperFacade mapper = factory.getMapperFacade();
+
+        assertMapped(mapper.map(newPerson(), PersonDto.class));
+
+        Assert.assertEquals(0, countBoundMappers(factory, Person.class, PersonDto.class));
+        Assert.assertEquals(0, countBoundMappers(factory, Address.class, AddressDto.class));
+    }
+
+    @Test
+    public void testExistingNestedObjectIsMappedInPlace() {
+        MapperFacade mapper = newMapperFactory(2).getMapperFacade();
+
+        PersonDto dto = new PersonDto();
+        AddressDto existingAddress = new AddressDto();
+        dto.setAddress(existingAddress);
+        mapper.map(newPerson(), dto);
+
+        Assert.assertSame(existingAddress, dto.getAddress());
+        assertMapped(dto);
+    }
+
+    @Test
+    public void testSharedNestedObjectIsMappedOnce() {
+        MapperFacade mapper = newMapperFactory(2).getMapperFacade();
+
+        Person person = newPerson();
+        person.setWorkAddress(person.getAddress());
+
+        PersonDto dto = mapper.map(person, PersonDto.class);
+        Assert.assertSame(dto.getAddress(), dto.getWorkAddress());
+        assertMapped(dto);
+
+        Person mappedBack = mapper.map(dto, Person.class);
+        Assert.assertSame(mappedBack.getAddress(), mappedBack.getWorkAddress());
+        Assert.assertEquals("Casablanca", mappedBack.getAddress().getCity().getName());
+    }
+
+    private static MapperFactory newMapperFactory(int depth) {
+        MapperFactory factory = new DefaultMapperFactory.Builder().nestedMappingInlineDepth(depth).build();
+        factory.registerClassMap(factory.classMap(Person.class, PersonDto.class).byDefault().toClassMap());
+        factory.registerClassMap(factory.classMap(Address.class, AddressDto.class).byDefault().toClassMap());
+        factory.registerClassMap(factory.classMap(City.class, CityDto.class).byDefault().toClassMap());
+        return factory;
+    }
+
+    private static Person newPerson() {
+        City city = new City();
+        city.setName("Casablanca");
+        Address address = new Address();
+        address.setStreet("Boulevard Anfa");
+        address.setCity(city);
+        Person person = new Person();
+        person.setName("Hassan");
+        person.setAddress(address);
+        return person;
+    }
+
+    private static void assertMapped(PersonDto dto) {
+        Assert.assertEquals("Hassan", dto.getName());
+        Assert.assertEquals("Boulevard Anfa", dto.getAddress().getStreet());
+        Assert.assertEquals("Casablanca", dto.getAddress().getCity().getName());
+    }
+
+    private static int countBoundMappers(MapperFactory factory, Class<?> aType, Class<?> bType) throws Exception {
+        Object mapper = factory.lookupMapper(new MapperKey(TypeFactory.valueOf(aType), TypeFactory.valueOf(bType)));
+        Field field = GeneratedMapperBase.class.getDeclaredField("usedBoundMappers");
+        field.setAccessible(true);
+        Object[] boundMappers = (Object[]) field.get(mapper);
+        return boundMappers == null ? 0 : boundMappers.length;
+    }
+
+    public static final class Person {
+        private String name;
+        private Address address;
+        private Address workAddress;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public void setAddress(Address address) {
+            this.address = address;
+        }
+
+        public Address getWorkAddress() {
+            return workAddress;
+        }
+
+        public void setWorkAddress(Address workAddress) {
+            this.workAddress = workAddress;
+        }
+    }
+
+    public static final class Address {
+        private String street;
+        private City city;
+
+        public String getStreet() {
+            return street;
+        }
+
+        public void setStreet(String street) {
+            this.street = street;
+        }
+
+        public City getCity() {
+            return city;
+        }
+
+        public void setCity(City city) {
+            this.city = city;
+        }
+    }
+
+    public static final class City {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class PersonDto {
+        private String name;
+        private AddressDto address;
+        private AddressDto workAddress;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public AddressDto getAddress() {
+            return address;
+        }
+
+        public void setAddress(AddressDto address) {
+            this.address = address;
+        }
+
+        public AddressDto getWorkAddress() {
+            return workAddress;
+        }
+
+        public void setWorkAddress(AddressDto workAddress) {
+            this.workAddress = workAddress;
+        }
+    }
+
+    public static class AddressDto {
+        private String street;
+        private CityDto city;
+
+        public String getStreet() {
+            return street;
+        }
+
+        public void setStreet(String street) {
+            this.street = street;
+        }
+
+        public CityDto getCity() {
+            return city;
+        }
+
+        public void setCity(CityDto city) {
+            this.city = city;
+        }
+    }
+
+    public static class SpecialAddressDto extends AddressDto {
+        private String postCode;
+
+        public String getPostCode() {
+            return postCode;
+        }
+
+        public void setPostCode(String postCode) {
+            this.postCode = postCode;
+        }
+    }
+
+    public static class CityDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
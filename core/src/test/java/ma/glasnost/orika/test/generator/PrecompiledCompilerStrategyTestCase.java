@@ -0,0 +1,161 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.ConfigurableMapper;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.impl.generator.MapperPrecompiler;
+import ma.glasnost.orika.impl.generator.PrecompiledCompilerStrategy;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrecompiledCompilerStrategyTestCase {
+
+    @Test
+    public void testSameClassMapUsesSameClass() {
+        Class<?> first = mapperClass(newMapperFactory(false), Source.class, Destination.class);
+        Class<?> second = mapperClass(newMapperFactory(false), Source.class, Destination.class);
+
+        Assert.assertSame(first, second);
+        Assert.assertTrue(first.getName().startsWith(PrecompiledCompilerStrategy.PRECOMPILED_PACKAGE + "."));
+    }
+
+    @Test
+    public void testChangedClassMapUsesDifferentClass() {
+        Class<?> original = mapperClass(newMapperFactory(false), Source.class, Destination.class);
+        Class<?> changed = mapperClass(newMapperFactory(true), Source.class, Destination.class);
+
+        Assert.assertNotSame(original, changed);
+    }
+
+    @Test
+    public void testPrecompiledClassesAreLoaded() throws Exception {
+        File outputDirectory = createTempDirectory();
+        Thread currentThread = Thread.currentThread();
+        ClassLoader original = currentThread.getContextClassLoader();
+        try {
+            /*
+             * Precompile using a fresh class-loader, so that nothing has been
+             * compiled (and defined) beforehand by another test run
+             */
+            currentThread.setContextClassLoader(new URLClassLoader(new URL[0], original));
+            MapperPrecompiler.precompile(outputDirectory,
+                    Collections.<Class<? extends ConfigurableMapper>> singletonList(PrecompiledMapper.class));
+
+            File[] classFiles = new File(outputDirectory, PrecompiledCompilerStrategy.PRECOMPILED_PACKAGE.replace('.', '/')).listFiles();
+            Assert.assertNotNull(classFiles);
+            Assert.assertTrue(classFiles.length > 0);
+
+            URLClassLoader precompiledLoader = new URLClassLoader(new URL[] { outputDirectory.toURI().toURL() }, original);
+            currentThread.setContextClassLoader(precompiledLoader);
+
+            MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(new PrecompiledCompilerStrategy()).build();
+            new PrecompiledMapper().configure(factory);
+            Class<?> mapperClass = mapperClass(factory, PrecompiledSource.class, PrecompiledDestination.class);
+            Assert.assertSame(precompiledLoader, mapperClass.getClassLoader());
+
+            PrecompiledSource source = new PrecompiledSource();
+            source.setName("precompiled");
+            Assert.assertEquals("precompiled", factory.getMapperFacade().map(source, PrecompiledDestination.class).getName());
+        } finally {
+            currentThread.setContextClassLoader(original);
+        }
+    }
+
+    private static MapperFactory newMapperFactory(boolean excludeName) {
+        MapperFactory factory = new DefaultMapperFactory.Builder().compilerStrategy(new PrecompiledCompilerStrategy()).build();
+        if (excludeName) {
+            factory.registerClassMap(factory.classMap(Source.class, Destination.class).exclude("name").byDefault());
+        } else {
+            factory.registerClassMap(factory.classMap(Source.class, Destination.class).byDefault());
+        }
+        return factory;
+    }
+
+    private static Class<?> mapperClass(MapperFactory factory, Class<?> aType, Class<?> bType) {
+        MapperFacade mapper = factory.getMapperFacade();
+        Assert.assertNotNull(mapper);
+        return factory.lookupMapper(new MapperKey(TypeFactory.valueOf(aType), TypeFactory.valueOf(bType))).getClass();
+    }
+
+    private static File createTempDirectory() throws IOException {
+        File directory = File.createTempFile("orika-precompiled", "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    public static class PrecompiledMapper extends ConfigurableMapper {
+        @Override
+        public void configure(MapperFactory factory) {
+            factory.registerClassMap(factory.classMap(PrecompiledSource.class, PrecompiledDestination.class).byDefault());
+        }
+    }
+
+    public static class Source {
+        private String name;
+        private int count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public static class Destination extends Source {
+    }
+
+    public static class PrecompiledSource {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class PrecompiledDestination extends PrecompiledSource {
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TieredCompilationTestCase {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMapperIsRegeneratedForObservedType() throws Exception {
+        MapperFactory factory = newMapperFactory(3);
+        MapperFacade mapper = factory.getMapperFacade();
+        Mapper<Object, Object> generic = lookupMapper(factory);
+
+        for (int i = 0; i < 3; ++i) {
+            assertMapped(mapper.map(newShipment(new Book()), ShipmentDto.class), BookDto.class);
+        }
+        awaitRegeneration();
+
+        Mapper<Object, Object> regenerated = lookupMapper(factory);
+        Assert.assertNotSame(generic, regenerated);
+
+        assertMapped(mapper.map(newShipment(new Book()), ShipmentDto.class), BookDto.class);
+        /*
+         * Any other class is still mapped through the MapperFacade
+         */
+        assertMapped(mapper.map(newShipment(new Item()), ShipmentDto.class), ItemDto.class);
+    }
+
+    @Test
+    public void testPolymorphicTypesAreNotSpecialized() throws Exception {
+        MapperFactory factory = newMapperFactory(4);
+        MapperFacade mapper = factory.getMapperFacade();
+        Mapper<Object, Object> generic = lookupMapper(factory);
+
+        for (int i = 0; i < 2; ++i) {
+            assertMapped(mapper.map(newShipment(new Book()), ShipmentDto.class), BookDto.class);
+            assertMapped(mapper.map(newShipment(new Item()), ShipmentDto.class), ItemDto.class);
+        }
+        awaitRegeneration();
+
+        Assert.assertNotSame(generic, lookupMapper(factory));
+        assertMapped(mapper.map(newShipment(new Book()), ShipmentDto.class), BookDto.class);
+        assertMapped(mapper.map(newShipment(new Item()), ShipmentDto.class), ItemDto.class);
+    }
+
+    @Test
+    public void testRegenerationDoesNotBlockMapping() throws Exception {
+        /*
+         * The mapping runs on the executor, while the mapper is regenerated
+         * on a separate one
+         */
+        ExecutorService regeneration = Executors.newSingleThreadExecutor();
+        final MapperFactory factory = new DefaultMapperFactory.Builder().tieredCompilationThreshold(1)
+                .buildExecutor(regeneration)
+                .build();
+        registerClassMaps(factory);
+        final MapperFacade mapper = factory.getMapperFacade();
+        Mapper<Object, Object> generic = lookupMapper(factory);
+
+        /*
+         * Regenerating a mapper used to hold the monitor of the whole factory,
+         * on the thread whose mapping reached the threshold
+         */
+        synchronized (factory) {
+            Future<ShipmentDto> mapping = executor.submit(new Callable<ShipmentDto>() {
+                public ShipmentDto call() {
+                    return mapper.map(newShipment(new Book()), ShipmentDto.class);
+                }
+            });
+            Assert.assertEquals("Orika in Action", mapping.get(30, TimeUnit.SECONDS).getItem().getName());
+        }
+
+        /*
+         * The regeneration was scheduled during the mapping, so it completes
+         * before the executor terminates
+         */
+        regeneration.shutdown();
+        Assert.assertTrue(regeneration.awaitTermination(30, TimeUnit.SECONDS));
+        Assert.assertNotSame(generic, lookupMapper(factory));
+    }
+
+    @Test
+    public void testTieredCompilationCanBeDisabled() throws Exception {
+        MapperFactory factory = newMapperFactory(0);
+        MapperFacade mapper = factory.getMapperFacade();
+        Mapper<Object, Object> generic = lookupMapper(factory);
+
+        for (int i = 0; i < 10; ++i) {
+            assertMapped(mapper.map(newShipment(new Book()), ShipmentDto.class), BookDto.class);
+        }
+
+        awaitRegeneration();
+
+        Assert.assertSame(generic, lookupMapper(factory));
+    }
+
+    private MapperFactory newMapperFactory(int threshold) {
+        MapperFactory factory = new DefaultMapperFactory.Builder().tieredCompilationThreshold(threshold)
+                .buildExecutor(executor)
+                .build();
+        registerClassMaps(factory);
+        return factory;
+    }
+
+    private static void registerClassMaps(MapperFactory factory) {
+        factory.registerClassMap(factory.classMap(Shipment.class, ShipmentDto.class).byDefault().toClassMap());
+        factory.registerClassMap(factory.classMap(Item.class, ItemDto.class).byDefault().toClassMap());
+        factory.registerClassMap(factory.classMap(Book.class, BookDto.class).byDefault().toClassMap());
+    }
+
+    private static Shipment newShipment(Item item) {
+        item.setName("Orika in Action");
+        Shipment shipment = new Shipment();
+        shipment.setItem(item);
+        return shipment;
+    }
+
+    private static void assertMapped(ShipmentDto dto, Class<?> itemClass) {
+        Assert.assertEquals(itemClass, dto.getItem().getClass());
+        Assert.assertEquals("Orika in Action", dto.getItem().getName());
+    }
+
+    private static Mapper<Object, Object> lookupMapper(MapperFactory factory) {
+        return factory.lookupMapper(new MapperKey(TypeFactory.valueOf(Shipment.class), TypeFactory.valueOf(ShipmentDto.class)));
+    }
+
+    /**
+     * Waits for the mappers to be regenerated on the (single-threaded)
+     * executor
+     */
+    private void awaitRegeneration() throws Exception {
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    public static class Shipment {
+        private Item item;
+
+        public Item getItem() {
+            return item;
+        }
+
+        public void setItem(Item item) {
+            this.item = item;
+        }
+    }
+
+    public static class Item {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Book extends Item {
+    }
+
+    public static class ShipmentDto {
+        private ItemDto item;
+
+        public ItemDto getItem() {
+            return item;
+        }
+
+        public void setItem(ItemDto item) {
+            this.item = item;
+        }
+    }
+
+    public static class ItemDto {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class BookDto extends ItemDto {
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.generator;
+
+import java.lang.reflect.Field;
+
+import ma.glasnost.orika.Converter;
+import ma.glasnost.orika.CustomConverter;
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MapperFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UsedFieldsTestCase {
+
+    @Test
+    public void testConvertersAreHeldInFields() throws Exception {
+        MapperFactory factory = new DefaultMapperFactory.Builder().build();
+        PriceConverter converter = new PriceConverter();
+        factory.getConverterFactory().registerConverter(converter);
+        factory.registerClassMap(factory.classMap(Product.class, ProductDto.class).byDefault().toClassMap());
+        MapperFacade mapper = factory.getMapperFacade();
+
+        Product product = new Product();
+        product.setName("Tea");
+        product.setPrice(250);
+        ProductDto dto = mapper.map(product, ProductDto.class);
+
+        Assert.assertEquals("Tea", dto.getName());
+        Assert.assertEquals("2.50", dto.getPrice());
+
+        Object generatedMapper = factory.lookupMapper(new MapperKey(TypeFactory.valueOf(Product.class),
+                TypeFactory.valueOf(ProductDto.class)));
+        Field converterField = generatedMapper.getClass().getDeclaredField("usedConverter0");
+        Assert.assertEquals(Converter.class, converterField.getType());
+        converterField.setAccessible(true);
+        Assert.assertSame(converter, converterField.get(generatedMapper));
+
+        Field typeField = generatedMapper.getClass().getDeclaredField("usedType0");
+        Assert.assertEquals(Type.class, typeField.getType());
+        typeField.setAccessible(true);
+        Assert.assertNotNull(typeField.get(generatedMapper));
+    }
+
+    public static class PriceConverter extends CustomConverter<Integer, String> {
+        public String convert(Integer source, Type<? extends String> destinationType) {
+            return source / 100 + "." + (source % 100 < 10 ? "0" : "") + source % 100;
+        }
+    }
+
+    public static class Product {
+        private String name;
+        private Integer price;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getPrice() {
+            return price;
+        }
+
+        public void setPrice(Integer price) {
+            this.price = price;
+        }
+    }
+
+    public static class ProductDto {
+        private String name;
+        private String price;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public void setPrice(String price) {
+            this.price = price;
+        }
+    }
+}
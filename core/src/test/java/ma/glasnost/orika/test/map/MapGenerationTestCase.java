@@ -49,6 +49,29 @@ public class MapGenerationTestCase {
 		
 	}
 	
+	@Test
+	public void testMapToMapPreservesOrder() throws Exception {
+		
+		MapperFactory factory = MappingUtil.getMapperFactory(true);
+		factory.registerClassMap(
+				factory.classMap(MapWithSetter.class, MapWithSetterDto.class)
+				.field("testScores", "scores").byDefault());
+		
+		MapperFacade mapper = factory.getMapperFacade();
+		
+		MapWithSetter source = new MapWithSetter();
+		Map<String, Integer> testScores = new LinkedHashMap<String, Integer>();
+		for (int i = 30; i > 0; --i) {
+			testScores.put("student" + i, i);
+		}
+		source.setTestScores(testScores);
+		
+		MapWithSetterDto result = mapper.map(source, MapWithSetterDto.class);
+		
+		Assert.assertEquals(new ArrayList<String>(testScores.keySet()), new ArrayList<String>(result.getScores().keySet()));
+		Assert.assertEquals(new ArrayList<Integer>(testScores.values()), new ArrayList<Integer>(result.getScores().values()));
+	}
+	
 	@Test
 	public void testMapToMapGeneration_noSetter() throws Exception {
 		
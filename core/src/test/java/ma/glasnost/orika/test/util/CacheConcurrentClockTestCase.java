@@ -0,0 +1,103 @@
+package ma.glasnost.orika.test.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ma.glasnost.orika.test.ConcurrentRule;
+import ma.glasnost.orika.test.ConcurrentRule.Concurrent;
+import ma.glasnost.orika.util.CacheConcurrentClock;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class CacheConcurrentClockTestCase {
+
+    private static final int MAX_SIZE = 100;
+
+    private static final CacheConcurrentClock<Integer, String> sharedCache = new CacheConcurrentClock<Integer, String>(MAX_SIZE);
+    private static final AtomicInteger wrongValues = new AtomicInteger();
+
+    @Rule
+    public ConcurrentRule concurrentRule = new ConcurrentRule();
+
+    @Test
+    public void testBoundedSize() {
+        CacheConcurrentClock<Integer, String> cache = new CacheConcurrentClock<Integer, String>(10);
+        for (int i = 0; i < 1000; ++i) {
+            cache.cache(i, "" + i);
+            Assert.assertTrue(cache.size() <= 10);
+        }
+        Assert.assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void testNewEntryIsNotEvictedByItsOwnInsertion() {
+        CacheConcurrentClock<Integer, String> cache = new CacheConcurrentClock<Integer, String>(10);
+        for (int i = 0; i < 1000; ++i) {
+            cache.cache(i, "" + i);
+            Assert.assertEquals("" + i, cache.get(i));
+        }
+    }
+
+    @Test
+    public void testReferencedEntriesSurviveEviction() {
+        CacheConcurrentClock<Integer, String> cache = new CacheConcurrentClock<Integer, String>(10);
+        for (int i = 0; i < 10; ++i) {
+            cache.cache(i, "" + i);
+        }
+        /*
+         * The first sweep clears the mark of each of the new entries, and
+         * evicts one of them
+         */
+        cache.cache(10, "10");
+        int referenced = 0;
+        while (!cache.containsKey(referenced)) {
+            ++referenced;
+        }
+        for (int i = 11; i < 30; ++i) {
+            Assert.assertEquals("" + referenced, cache.get(referenced));
+            cache.cache(i, "" + i);
+        }
+        Assert.assertTrue(cache.containsKey(referenced));
+        Assert.assertEquals(10, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.get(0));
+    }
+
+    @Test
+    public void testRemoveSingleEntry() {
+        CacheConcurrentClock<Integer, String> cache = new CacheConcurrentClock<Integer, String>(10);
+        for (int i = 0; i < 5; ++i) {
+            cache.cache(i, "" + i);
+        }
+        for (Integer key : cache.keySet()) {
+            if (key % 2 == 0) {
+                Assert.assertTrue(cache.remove(key));
+            }
+        }
+        Assert.assertFalse(cache.remove(0));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals("3", cache.get(3));
+    }
+
+    @Test
+    @Concurrent(20)
+    public void testConcurrentAccess() {
+        Random random = new Random();
+        for (int i = 0; i < 10000; ++i) {
+            Integer key = random.nextInt(MAX_SIZE * 3);
+            String value = sharedCache.get(key);
+            if (value == null) {
+                sharedCache.cache(key, "" + key);
+            } else if (!value.equals("" + key)) {
+                wrongValues.incrementAndGet();
+            }
+        }
+        Assert.assertEquals(0, wrongValues.get());
+        Assert.assertTrue("size = " + sharedCache.size(), sharedCache.size() <= MAX_SIZE * 2);
+    }
+}
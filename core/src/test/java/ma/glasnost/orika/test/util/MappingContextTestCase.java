@@ -0,0 +1,190 @@
+/*
+ * Orika - simpler, better and faster Java bean mapping
+ *
+ * Copyright (C) 2011 Orika authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ma.glasnost.orika.test.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ma.glasnost.orika.MapperFacade;
+import ma.glasnost.orika.MappingContext;
+import ma.glasnost.orika.MappingContextFactory;
+import ma.glasnost.orika.impl.DefaultMapperFactory;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappingContextTestCase {
+
+    @Test
+    public void testReset() {
+        MappingContext context = new MappingContext();
+        Object source = new Object();
+        context.cacheMappedObject(source, TypeFactory.valueOf(String.class), "mapped");
+        context.registerConcreteClass(TypeFactory.valueOf(CharSequence.class), TypeFactory.valueOf(String.class));
+
+        Assert.assertEquals("mapped", context.getMappedObject(source, TypeFactory.valueOf(String.class)));
+        Assert.assertNotNull(context.getConcreteClass(TypeFactory.valueOf(CharSequence.class), TypeFactory.valueOf(CharSequence.class)));
+
+        context.reset();
+
+        Assert.assertNull(context.getMappedObject(source, TypeFactory.valueOf(String.class)));
+        Assert.assertNull(context.getConcreteClass(TypeFactory.valueOf(CharSequence.class), TypeFactory.valueOf(CharSequence.class)));
+    }
+
+    @Test
+    public void testThreadLocalFactory() {
+        MappingContextFactory factory = new MappingContext.ThreadLocalFactory();
+
+        MappingContext outer = factory.getContext();
+        MappingContext nested = factory.getContext();
+        Assert.assertNotSame(outer, nested);
+        factory.release(nested);
+
+        outer.cacheMappedObject(this, TypeFactory.valueOf(String.class), "mapped");
+        factory.release(outer);
+
+        MappingContext reused = factory.getContext();
+        Assert.assertSame(outer, reused);
+        Assert.assertNull(reused.getMappedObject(this, TypeFactory.valueOf(String.class)));
+    }
+
+    @Test
+    public void testReusedContextDoesNotLeakMappedObjects() {
+        MapperFacade mapper = new DefaultMapperFactory.Builder().mappingContextFactory(new MappingContext.ThreadLocalFactory()).build()
+                .getMapperFacade();
+
+        Parent parent = new Parent();
+        parent.setName("parent");
+        Child child = new Child();
+        child.setParent(parent);
+        parent.setChild(child);
+
+        Parent first = mapper.map(parent, Parent.class);
+        Parent second = mapper.map(parent, Parent.class);
+
+        Assert.assertNotSame(parent, first);
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first, first.getChild().getParent());
+        Assert.assertSame(second, second.getChild().getParent());
+        Assert.assertEquals("parent", second.getName());
+    }
+
+    @Test
+    public void testMappedObjectsAreHeldByIdentity() {
+        MappingContext context = new MappingContext();
+        Type<String> stringType = TypeFactory.valueOf(String.class);
+        Type<Integer> integerType = TypeFactory.valueOf(Integer.class);
+
+        List<UnhashableSource> sources = new ArrayList<UnhashableSource>();
+        for (int i = 0; i < 200; ++i) {
+            UnhashableSource source = new UnhashableSource();
+            sources.add(source);
+            context.cacheMappedObject(source, stringType, "mapped" + i);
+            context.cacheMappedObject(source, integerType, Integer.valueOf(i));
+        }
+        for (int i = 0; i < sources.size(); ++i) {
+            Assert.assertEquals("mapped" + i, context.getMappedObject(sources.get(i), stringType));
+            Assert.assertEquals(Integer.valueOf(i), context.getMappedObject(sources.get(i), integerType));
+        }
+        Assert.assertNull(context.getMappedObject(new UnhashableSource(), stringType));
+
+        context.reset();
+        Assert.assertNull(context.getMappedObject(sources.get(0), stringType));
+    }
+
+    @Test
+    public void testNullDestinationTypeIsComparedSafely() {
+        MappingContext context = new MappingContext();
+        Type<String> stringType = TypeFactory.valueOf(String.class);
+        Object source = new Object();
+
+        context.cacheMappedObject(source, null, "untyped");
+        Assert.assertNull(context.getMappedObject(source, stringType));
+        Assert.assertEquals("untyped", context.getMappedObject(source, null));
+
+        context.cacheMappedObject(source, stringType, "typed");
+        Assert.assertEquals("typed", context.getMappedObject(source, stringType));
+        Assert.assertEquals("untyped", context.getMappedObject(source, null));
+    }
+
+    @Test
+    public void testCycleTrackingDisabled() {
+        MapperFacade mapper = new DefaultMapperFactory.Builder().mappingContextFactory(new MappingContext.Factory(false)).build()
+                .getMapperFacade();
+
+        Child shared = new Child();
+        List<Child> children = new ArrayList<Child>();
+        children.add(shared);
+        children.add(shared);
+
+        List<Child> result = mapper.mapAsList(children, Child.class);
+        Assert.assertEquals(2, result.size());
+        Assert.assertNotSame(result.get(0), result.get(1));
+
+        MappingContext context = new MappingContext(false);
+        context.cacheMappedObject(shared, TypeFactory.valueOf(Child.class), new Child());
+        Assert.assertNull(context.getMappedObject(shared, TypeFactory.valueOf(Child.class)));
+    }
+
+    public static class UnhashableSource {
+        @Override
+        public int hashCode() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public static class Parent {
+        private String name;
+        private Child child;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Child getChild() {
+            return child;
+        }
+
+        public void setChild(Child child) {
+            this.child = child;
+        }
+    }
+
+    public static class Child {
+        private Parent parent;
+
+        public Parent getParent() {
+            return parent;
+        }
+
+        public void setParent(Parent parent) {
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ma.glasnost.orika.test.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ma.glasnost.orika.CustomMapper;
+import ma.glasnost.orika.Mapper;
+import ma.glasnost.orika.impl.RegisteredMapperIndex;
+import ma.glasnost.orika.metadata.MapperKey;
+import ma.glasnost.orika.metadata.Type;
+import ma.glasnost.orika.metadata.TypeFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RegisteredMapperIndexTestCase {
+
+    @Test
+    public void testSameResultAsLinearScan() {
+
+        Map<MapperKey, Mapper<?, ?>> registry = new TreeMap<MapperKey, Mapper<?, ?>>();
+        RegisteredMapperIndex index = new RegisteredMapperIndex(registry);
+
+        List<Mapper<?, ?>> mappers = new ArrayList<Mapper<?, ?>>();
+        mappers.add(new CustomMapper<Animal, AnimalDTO>() {});
+        mappers.add(new CustomMapper<Dog, DogDTO>() {});
+        mappers.add(new CustomMapper<Named, NamedDTO>() {});
+        mappers.add(new CustomMapper<Cat, String>() {});
+        mappers.add(new CustomMapper<Dog[], DogDTO[]>() {});
+
+        List<Type<?>> types = new ArrayList<Type<?>>();
+        for (Class<?> type : Arrays.<Class<?>> asList(Object.class, Animal.class, Dog.class, Puppy.class, Cat.class, AnimalDTO.class,
+                DogDTO.class, NamedDTO.class, String.class, Serializable.class, Dog[].class, Puppy[].class, DogDTO[].class,
+                Object[].class, int.class, Integer.class)) {
+            types.add(TypeFactory.valueOf(type));
+        }
+
+        for (Mapper<?, ?> mapper : mappers) {
+            index.register(new MapperKey(mapper.getAType(), mapper.getBType()), mapper);
+            for (Type<?> typeA : types) {
+                for (Type<?> typeB : types) {
+                    Assert.assertSame(typeA + " -> " + typeB, linearScan(registry, typeA, typeB), index.find(typeA, typeB, true));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStatistics() {
+
+        Map<MapperKey, Mapper<?, ?>> registry = new TreeMap<MapperKey, Mapper<?, ?>>();
+        RegisteredMapperIndex index = new RegisteredMapperIndex(registry);
+
+        Mapper<?, ?> animalMapper = new CustomMapper<Animal, AnimalDTO>() {};
+        index.register(new MapperKey(animalMapper.getAType(), animalMapper.getBType()), animalMapper);
+
+        Assert.assertSame(animalMapper, index.find(TypeFactory.valueOf(Animal.class), TypeFactory.valueOf(AnimalDTO.class), true));
+        Assert.assertSame(animalMapper, index.find(TypeFactory.valueOf(AnimalDTO.class), TypeFactory.valueOf(Animal.class), true));
+        Assert.assertSame(animalMapper, index.find(TypeFactory.valueOf(Puppy.class), TypeFactory.valueOf(DogDTO.class), true));
+        Assert.assertNull(index.find(TypeFactory.valueOf(Cat.class), TypeFactory.valueOf(String.class), true));
+
+        Assert.assertEquals(2, index.getExactMatchCount());
+        Assert.assertEquals(1, index.getAssignableMatchCount());
+        Assert.assertEquals(1, index.getMissCount());
+    }
+
+    private static Mapper<?, ?> linearScan(Map<MapperKey, Mapper<?, ?>> registry, Type<?> typeA, Type<?> typeB) {
+        for (Mapper<?, ?> mapper : registry.values()) {
+            if ((mapper.getAType().isAssignableFrom(typeA) && mapper.getBType().isAssignableFrom(typeB))
+                    || (mapper.getAType().isAssignableFrom(typeB) && mapper.getBType().isAssignableFrom(typeA))) {
+                return mapper;
+            }
+        }
+        return null;
+    }
+
+    public interface Named {
+    }
+
+    public static class Animal implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Dog extends Animal implements Named {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Puppy extends Dog {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Cat extends Animal {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public interface NamedDTO {
+    }
+
+    public static class AnimalDTO {
+    }
+
+    public static class DogDTO extends AnimalDTO implements NamedDTO {
+    }
+}